@@ -0,0 +1,117 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reaching a heap + offheap cache from the pounder : through the typed API as CacheManagerBusinessApiImpl
+ * does, through the method handles of {@link EhcacheDispatch} as CacheManagerBusinessReflectionImpl does, and through
+ * a method lookup and invoke per op, as the pounder used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheDispatchBenchmark {
+
+  private static final int KEYS = 10_000;
+
+  private CacheManager cacheManager;
+  private Cache<Long, String> cache;
+  private EhcacheDispatch dispatch;
+  private String value;
+
+  @Setup
+  public void setUp() {
+    cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+        .withCache("benchmark", CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, String.class,
+            ResourcePoolsBuilder.newResourcePoolsBuilder().heap(1000, EntryUnit.ENTRIES).offheap(32, MemoryUnit.MB)))
+        .build(true);
+    cache = cacheManager.getCache("benchmark", Long.class, String.class);
+    dispatch = EhcacheDispatch.resolve(getClass().getClassLoader());
+    value = new PayloadPool().string(PayloadPool.sizeForIntensity(5));
+    for (long key = 0; key < KEYS; key++) {
+      cache.put(key, value);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    cacheManager.close();
+  }
+
+  @Benchmark
+  public Object directGet() {
+    return cache.get(nextKey());
+  }
+
+  @Benchmark
+  public void directPut() {
+    cache.put(nextKey(), value);
+  }
+
+  @Benchmark
+  public Object dispatchGet() {
+    return dispatch.get(cache, nextKey());
+  }
+
+  @Benchmark
+  public void dispatchPut() {
+    dispatch.put(cache, nextKey(), value);
+  }
+
+  @Benchmark
+  public Object reflectiveGet() throws Exception {
+    Class<?> cacheClass = getClass().getClassLoader().loadClass("org.ehcache.core.Ehcache");
+    Method getMethod = cacheClass.getMethod("get", Object.class);
+    return getMethod.invoke(cache, nextKey());
+  }
+
+  @Benchmark
+  public Object reflectivePut() throws Exception {
+    Class<?> cacheClass = getClass().getClassLoader().loadClass("org.ehcache.core.Ehcache");
+    Method putMethod = cacheClass.getMethod("put", Object.class, Object.class);
+    return putMethod.invoke(cache, nextKey(), value);
+  }
+
+  private static Long nextKey() {
+    return ThreadLocalRandom.current().nextLong(KEYS);
+  }
+}
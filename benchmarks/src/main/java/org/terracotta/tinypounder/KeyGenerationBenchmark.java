@@ -0,0 +1,73 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of drawing a key with each {@link KeyDistribution}, from a generator shared by the workers of a target as the
+ * pounder does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGenerationBenchmark {
+
+  @Param({"uniform", "zipfian:0.99", "hotspot:0.2:0.8", "sequential", "latest:0.99"})
+  public String distribution;
+
+  @Param({"100000", "100000000"})
+  public long keySpace;
+
+  private KeyGenerator keys;
+
+  @Setup
+  public void setUp() {
+    keys = KeyDistribution.parse(distribution).newGenerator(keySpace);
+  }
+
+  @Benchmark
+  public long next() {
+    return keys.next();
+  }
+
+  @Benchmark
+  public long nextInsert() {
+    return keys.nextInsert();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long nextContended() {
+    return keys.next();
+  }
+}
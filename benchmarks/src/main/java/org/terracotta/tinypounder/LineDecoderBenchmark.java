@@ -0,0 +1,68 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding a chunk of server output into console lines, as {@link ProcUtils} pipes it from a server process.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineDecoderBenchmark {
+
+  private static final String LINE = "2023-10-17 10:47:36,075 INFO - Moved to State[ PASSIVE-STANDBY ] from State[ PASSIVE-UNINITIALIZED ]\n";
+
+  @Param({"8192"})
+  public int chunkSize;
+
+  private byte[] chunk;
+  private LineDecoder decoder;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    StringBuilder output = new StringBuilder();
+    while (output.length() < chunkSize) {
+      output.append(LINE);
+    }
+    chunk = output.toString().getBytes(StandardCharsets.UTF_8);
+    decoder = new LineDecoder(new ArrayBlockingQueue<>(500), blackhole::consume);
+  }
+
+  @Benchmark
+  public void write() {
+    decoder.write(chunk, 0, chunk.length);
+  }
+}
@@ -25,10 +25,14 @@ public class ApplicationReadyListener implements ApplicationListener<Application
   @Value("${autoLaunchBrowser}")
   private Boolean autoLaunch;
   
+  // no browser for the headless runs of a scenario
+  @Value("${scenario:}")
+  private String scenario;
+
   @SuppressWarnings("unchecked")
   @Override
   public void onApplicationEvent(ApplicationReadyEvent event) {
-    if (!autoLaunch) return;
+    if (!autoLaunch || !scenario.isEmpty()) return;
     URI uri = URI.create("http://localhost:" + port);
     if (Desktop.isDesktopSupported()) {
       Desktop desktop = Desktop.getDesktop();
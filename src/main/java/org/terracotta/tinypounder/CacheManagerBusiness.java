@@ -16,6 +16,7 @@
 package org.terracotta.tinypounder;
 
 import java.util.Collection;
+import java.util.Map;
 
 public interface CacheManagerBusiness {
   Collection<String> retrieveCacheNames();
@@ -40,7 +41,95 @@ public interface CacheManagerBusiness {
 
   String getStatus();
 
+  /**
+   * Pounds the cache every 100ms with intensity * 5 ops, picked from its {@link Workload}.
+   */
   void updatePoundingIntensity(String cacheAlias, int poundingIntensity);
 
   int retrievePoundingIntensity(String cacheAlias);
+
+  /**
+   * Pounds the cache at a constant rate, whatever the time each op takes ; 0 goes back to intensity based pounding.
+   */
+  void updatePoundingRate(String cacheAlias, long opsPerSecond);
+
+  PoundingRate retrievePoundingRate(String cacheAlias);
+
+  /**
+   * Sets how many workers pound the cache concurrently; each one runs the whole intensity, or claims ops from the same rate.
+   */
+  void updatePoundingConcurrency(String cacheAlias, int concurrency);
+
+  int retrievePoundingConcurrency(String cacheAlias);
+
+  /**
+   * Pounds the cache with closed loop clients, each one thinking between two ops ; 0 clients stops them.
+   * A constant rate, when set, still comes first.
+   */
+  void updateSimulatedClients(String cacheAlias, int clients, long thinkTimeMillis);
+
+  SimulatedClients retrieveSimulatedClients(String cacheAlias);
+
+  /**
+   * Sets what the cache is pounded with, whether it is pounded at an intensity, at a constant rate or by simulated clients.
+   */
+  void updateWorkload(String cacheAlias, Workload workload);
+
+  Workload retrieveWorkload(String cacheAlias);
+
+  /**
+   * @return the latencies of each op type since the pounding intensity or rate last changed
+   */
+  Map<OpType, LatencySnapshot> retrieveLatencies(String cacheAlias);
+
+  /**
+   * @return the latencies of each bulk op type divided by the number of keys of each batch
+   */
+  Map<OpType, LatencySnapshot> retrievePerKeyLatencies(String cacheAlias);
+
+  /**
+   * @return the ops per second and the value bytes per second, written or read, over the last second
+   */
+  Throughput retrieveThroughput(String cacheAlias);
+
+  /**
+   * @return the ops and errors of each op type since the cache was first pounded, whatever the latency resets
+   */
+  Map<OpType, OpCounters> retrieveOpCounters(String cacheAlias);
+
+  /**
+   * Starts recording the latencies of the cache over, without changing how it is pounded.
+   */
+  void resetLatencies(String cacheAlias);
+
+  /**
+   * Fills the cache with keys 0 to entries - 1 from parallel loaders, holding the pounding of the cache until it
+   * is done; the latencies are reset once the preload completes.
+   *
+   * @param entries entries to load, 0 to only stop on the tier occupancy
+   * @param tier tier (OnHeap, OffHeap, Disk or Clustered) whose occupancy stops the preload, null if there is none
+   * @param targetOccupancy occupancy of the tier stopping the preload, in percent of its configured size
+   */
+  void preload(String cacheAlias, long entries, int loaders, String tier, int targetOccupancy);
+
+  PreloadProgress retrievePreloadProgress(String cacheAlias);
+
+  /**
+   * @return the usage of each tier of the cache, by tier name
+   */
+  Map<String, TierUsage> retrieveTierUsages(String cacheAlias);
+
+  /**
+   * Keeps resizing the key space the cache is pounded with so that its hit ratio stays close to the target.
+   *
+   * @param targetHitRatio in percent, 0 to stop controlling the hit ratio
+   */
+  void updateTargetHitRatio(String cacheAlias, double targetHitRatio);
+
+  HitRatioStatus retrieveHitRatio(String cacheAlias);
+
+  /**
+   * @return the last samples of the statistics of each tier of the cache, by tier name, one sample per second
+   */
+  Map<String, TierTimeSeries> retrieveTierTimeSeries(String cacheAlias);
 }
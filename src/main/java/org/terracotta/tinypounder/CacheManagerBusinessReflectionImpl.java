@@ -16,6 +16,7 @@
 package org.terracotta.tinypounder;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import static org.terracotta.tinypounder.CacheConfiguration.ClusterTierType.DEDICATED;
 import static org.terracotta.tinypounder.CacheConfiguration.ClusterTierType.SHARED;
@@ -25,102 +26,292 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.math.BigInteger;
 import java.net.URI;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
 
 @Service
 public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness {
 
   private final ConcurrentMap<String, Integer> poundingMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ConstantRatePacer> ratePacers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PoundingStatistics> statisticsMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Integer> concurrencyMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, SimulatedClients> clientsMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PoundingEngine.PoundingTask> poundingTasks = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Workload> workloads = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, CachePreloader> preloaders = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PoundingEngine.PoundingTask> preloadTasks = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, CacheConfiguration> cacheConfigurations = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, HitRatioController> hitRatioControllers = new ConcurrentHashMap<>();
+  // the key generator the workers of each cache draw from, resized in place by the hit ratio controller
+  private final ConcurrentMap<String, KeyGenerator> keyGenerators = new ConcurrentHashMap<>();
+  // each intensity unit runs as many ops as the 1 put, 1 remove and 3 gets it used to
+  private static final int OPS_PER_INTENSITY = 5;
   private static final String NO_CACHE_MANAGER = "NO CACHE MANAGER";
+  private static final String[] TIERS = {"OnHeap", "OffHeap", "Disk", "Clustered"};
+  private static final long RATE_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long HIT_RATIO_CONTROL_PERIOD_MILLIS = 1000;
+  // key space when pounding at a constant rate or with simulated clients, unless the workload says otherwise
+  private static final int FIXED_KEY_SPACE = 10_000;
+  // value size when pounding at a constant rate or with simulated clients, unless the workload says otherwise
+  private static final int FIXED_VALUE_SIZE = PayloadPool.sizeForIntensity(10);
   private final KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator;
   private Object cacheManager;
+  private EhcacheStatistics ehcacheStatistics;
   private String defaultOffheapResource;
   private Class<?> ehCacheManagerClass;
-  private Random random = new Random();
+  private final PoundingEngine poundingEngine;
+  private final PayloadPool payloadPool;
+  private final int samplesPerTier;
+  private StatisticsSampler statisticsSampler;
+  private PoundingEngine.PoundingTask samplingTask;
 
   @Autowired
-  public CacheManagerBusinessReflectionImpl(KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator, ScheduledExecutorService poundingScheduler) throws Exception {
+  public CacheManagerBusinessReflectionImpl(KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator, PoundingEngine poundingEngine, PayloadPool payloadPool,
+                                            @Value("${statistics.samplesPerTier}") int samplesPerTier) throws Exception {
     this.kitAwareClassLoaderDelegator = kitAwareClassLoaderDelegator;
-    poundingScheduler.scheduleWithFixedDelay(() -> poundingMap.entrySet().parallelStream().forEach(entryConsumer -> {
-      try {
-        Object cache = getCache(entryConsumer.getKey());
-        if (cache != null && entryConsumer.getValue() > 0) {
-          pound(cache, entryConsumer.getValue());
+    this.poundingEngine = poundingEngine;
+    this.payloadPool = payloadPool;
+    this.samplesPerTier = samplesPerTier;
+  }
+
+  /**
+   * (Re)starts the workers of a cache after any of its pounding settings changed.
+   */
+  private synchronized void reschedule(String cacheAlias) {
+    PoundingEngine.PoundingTask previous = poundingTasks.remove(cacheAlias);
+    if (previous != null) {
+      previous.cancel();
+    }
+    keyGenerators.remove(cacheAlias);
+    int concurrency = retrievePoundingConcurrency(cacheAlias);
+    int intensity = retrievePoundingIntensity(cacheAlias);
+    ConstantRatePacer pacer = ratePacers.get(cacheAlias);
+    SimulatedClients clients = retrieveSimulatedClients(cacheAlias);
+    Workload workload = retrieveWorkload(cacheAlias);
+    CachePreloader preloader = preloaders.get(cacheAlias);
+    if (preloader != null && !preloader.isDone()) {
+      // pounding starts once the preload is over
+      return;
+    }
+    if (pacer != null) {
+      // constant rate pounding runs back to back ticks, each op waiting for its intended start
+      KeyGenerator keys = workload.getKeyDistribution().newGenerator(workload.keySpaceOrDefault(FIXED_KEY_SPACE));
+      IntSupplier valueSizes = payloadPool.prepare(workload.getValueSizes(), FIXED_VALUE_SIZE);
+      keyGenerators.put(cacheAlias, keys);
+      poundingTasks.put(cacheAlias, poundingEngine.startPaced(cacheAlias, concurrency, () -> {
+        Object cache = getCache(cacheAlias);
+        if (cache != null) {
+          poundAtConstantRate(cacheAlias, cache, pacer, workload, keys, valueSizes);
+        } else {
+          LockSupport.parkNanos(RATE_TICK_NANOS);
         }
-      } catch (Exception e) {
-        e.printStackTrace();
-      }
-    }), 1000, 100, TimeUnit.MILLISECONDS);
+      }));
+    } else if (clients.getRequestedClients() > 0) {
+      KeyGenerator keys = workload.getKeyDistribution().newGenerator(workload.keySpaceOrDefault(FIXED_KEY_SPACE));
+      IntSupplier valueSizes = payloadPool.prepare(workload.getValueSizes(), FIXED_VALUE_SIZE);
+      keyGenerators.put(cacheAlias, keys);
+      poundingTasks.put(cacheAlias, poundingEngine.startClients(cacheAlias, clients.getRequestedClients(), clients.getThinkTimeMillis(), TimeUnit.MILLISECONDS, () -> {
+        Object cache = getCache(cacheAlias);
+        if (cache != null) {
+          execute(ehcacheDispatch(), cache, statistics(cacheAlias), workload.getOperationMix().next(), keys, valueSizes, workload.getBatchSize(), System.nanoTime());
+        } else {
+          LockSupport.parkNanos(RATE_TICK_NANOS);
+        }
+      }));
+    } else if (intensity > 0) {
+      KeyGenerator keys = workload.getKeyDistribution().newGenerator(workload.keySpaceOrDefault(intensity * 1000L));
+      IntSupplier valueSizes = payloadPool.prepare(workload.getValueSizes(), PayloadPool.sizeForIntensity(intensity));
+      keyGenerators.put(cacheAlias, keys);
+      poundingTasks.put(cacheAlias, poundingEngine.start(cacheAlias, concurrency, 100, TimeUnit.MILLISECONDS, () -> {
+        Object cache = getCache(cacheAlias);
+        if (cache != null) {
+          pound(cacheAlias, cache, intensity, workload, keys, valueSizes);
+        }
+      }));
+    }
   }
 
-  private void pound(Object cache, Integer intensity) {
-    IntStream.range(0, intensity).forEach(value -> {
-      put(cache, ThreadLocalRandom.current().nextLong(0, intensity * 1000), longString(intensity));
-      remove(cache, ThreadLocalRandom.current().nextLong(0, intensity * 100));
-      IntStream.range(0, 3).forEach(getIterationValue -> get(cache, ThreadLocalRandom.current().nextLong(0, intensity * 1000)));
-    });
+  private synchronized void stopPounding() {
+    poundingTasks.values().forEach(PoundingEngine.PoundingTask::cancel);
+    poundingTasks.clear();
+    preloaders.values().forEach(CachePreloader::cancel);
+    preloaders.clear();
+    preloadTasks.values().forEach(PoundingEngine.PoundingTask::cancel);
+    preloadTasks.clear();
+    hitRatioControllers.values().forEach(HitRatioController::stop);
+    hitRatioControllers.clear();
+    poundingMap.clear();
+    ratePacers.values().forEach(ConstantRatePacer::stop);
+    ratePacers.clear();
+    concurrencyMap.clear();
+    clientsMap.clear();
+    workloads.clear();
+    keyGenerators.clear();
+    statisticsMap.clear();
   }
 
-  private Object get(Object cache, long key) {
-    try {
-      Class<?> cacheClass = loadClass("org.ehcache.core.Ehcache");
-      Method getCacheMethod = cacheClass.getMethod("get", Object.class);
-      return getCacheMethod.invoke(cache, key);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+  private void pound(String cacheAlias, Object cache, Integer intensity, Workload workload, KeyGenerator keys, IntSupplier valueSizes) {
+    EhcacheDispatch ehcache = ehcacheDispatch();
+    PoundingStatistics stats = statistics(cacheAlias);
+    OperationMix operationMix = workload.getOperationMix();
+    int batchSize = workload.getBatchSize();
+    Object tick = PounderEvents.beginTick();
+    for (int i = 0; i < intensity * OPS_PER_INTENSITY; i++) {
+      execute(ehcache, cache, stats, operationMix.next(), keys, valueSizes, batchSize, System.nanoTime());
     }
+    PounderEvents.commitTick(tick, "cache", cacheAlias, intensity * OPS_PER_INTENSITY);
   }
 
-  private String longString(Integer intensity) {
-    return new BigInteger(intensity * 10, random).toString(16);
+  private void poundAtConstantRate(String cacheAlias, Object cache, ConstantRatePacer pacer, Workload workload, KeyGenerator keys, IntSupplier valueSizes) {
+    EhcacheDispatch ehcache = ehcacheDispatch();
+    PoundingStatistics stats = statistics(cacheAlias);
+    OperationMix operationMix = workload.getOperationMix();
+    int batchSize = workload.getBatchSize();
+    Object tick = PounderEvents.beginTick();
+    long ops = 0;
+    long deadline = System.nanoTime() + RATE_TICK_NANOS;
+    long op;
+    while ((op = pacer.claim(deadline)) >= 0) {
+      long intendedStart = pacer.intendedStart(op);
+      pacer.awaitIntendedStart(intendedStart);
+      try {
+        execute(ehcache, cache, stats, operationMix.next(), keys, valueSizes, batchSize, intendedStart);
+        ops++;
+      } finally {
+        pacer.completed();
+      }
+    }
+    PounderEvents.commitTick(tick, "cache", cacheAlias, ops);
   }
 
-  private void put(Object cache, long key, String value) {
+  /**
+   * Runs one op and records its latency, measured from startNanos, and the size of the values it wrote or read ;
+   * a failing op is counted as an error.
+   * <p>
+   * Bulk ops work on batchSize keys, fewer when the same key gets drawn twice.
+   */
+  private void execute(EhcacheDispatch ehcache, Object cache, PoundingStatistics stats, OpType opType, KeyGenerator keys, IntSupplier valueSizes, int batchSize, long startNanos) {
+    long valueBytes = 0;
+    int batchKeys = 0;
     try {
-      Class<?> cacheClass = loadClass("org.ehcache.core.Ehcache");
-      Method putCacheMethod = cacheClass.getMethod("put", Object.class, Object.class);
-      putCacheMethod.invoke(cache, key, value);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+      switch (opType) {
+        case PUT: {
+          String value = payloadPool.string(valueSizes.getAsInt());
+          ehcache.put(cache, keys.nextInsert(), value);
+          valueBytes = value.length();
+          break;
+        }
+        case REMOVE:
+          ehcache.remove(cache, keys.next());
+          break;
+        case GET:
+          valueBytes = length(ehcache.get(cache, keys.next()));
+          break;
+        case PUT_IF_ABSENT: {
+          String value = payloadPool.string(valueSizes.getAsInt());
+          ehcache.putIfAbsent(cache, keys.nextInsert(), value);
+          valueBytes = value.length();
+          break;
+        }
+        case REPLACE: {
+          String value = payloadPool.string(valueSizes.getAsInt());
+          ehcache.replace(cache, keys.next(), value);
+          valueBytes = value.length();
+          break;
+        }
+        case CONTAINS_KEY:
+          ehcache.containsKey(cache, keys.next());
+          break;
+        case GET_ALL: {
+          Set<Long> keySet = keySet(keys, batchSize);
+          for (Object value : ehcache.getAll(cache, keySet).values()) {
+            valueBytes += length(value);
+          }
+          batchKeys = keySet.size();
+          break;
+        }
+        case PUT_ALL: {
+          Map<Long, String> entries = new HashMap<>();
+          for (int i = 0; i < batchSize; i++) {
+            entries.put(keys.nextInsert(), payloadPool.string(valueSizes.getAsInt()));
+          }
+          for (String value : entries.values()) {
+            valueBytes += value.length();
+          }
+          ehcache.putAll(cache, entries);
+          batchKeys = entries.size();
+          break;
+        }
+        case REMOVE_ALL: {
+          Set<Long> keySet = keySet(keys, batchSize);
+          ehcache.removeAll(cache, keySet);
+          batchKeys = keySet.size();
+          break;
+        }
+        default:
+          throw new IllegalArgumentException("Not a cache operation: " + opType);
+      }
+    } catch (RuntimeException e) {
+      stats.recordError(opType);
+      throw e;
     }
+    long latency = System.nanoTime() - startNanos;
+    if (opType.isBulk()) {
+      stats.recordBatch(opType, latency, batchKeys);
+    } else {
+      stats.record(opType, latency);
+    }
+    stats.recordBytes(valueBytes);
   }
 
-  private void remove(Object cache, long key) {
-    try {
-      Class<?> cacheClass = loadClass("org.ehcache.core.Ehcache");
-      Method removeCacheMethod = cacheClass.getMethod("remove", Object.class);
-      removeCacheMethod.invoke(cache, key);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+  private static Set<Long> keySet(KeyGenerator keys, int size) {
+    Set<Long> keySet = new HashSet<>();
+    for (int i = 0; i < size; i++) {
+      keySet.add(keys.next());
     }
+    return keySet;
+  }
+
+  private static int length(Object value) {
+    return value == null ? 0 : ((String) value).length();
+  }
+
+  private PoundingStatistics statistics(String cacheAlias) {
+    PoundingStatistics stats = statisticsMap.get(cacheAlias);
+    return stats != null ? stats : statisticsMap.computeIfAbsent(cacheAlias, alias -> new PoundingStatistics());
   }
 
   private Object getCache(String cacheAlias) {
     if (cacheManager == null) {
       return null;
     }
-    try {
-      Method getCacheMethod = ehCacheManagerClass.getMethod("getCache", String.class, Class.class, Class.class);
-      return getCacheMethod.invoke(cacheManager, cacheAlias, Long.class, String.class);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+    return ehcacheDispatch().getCache(cacheManager, cacheAlias, Long.class, String.class);
+  }
+
+  private EhcacheDispatch ehcacheDispatch() {
+    EhcacheDispatch ehcacheDispatch = kitAwareClassLoaderDelegator.getEhcacheDispatch();
+    if (ehcacheDispatch == null) {
+      throw new IllegalStateException("The kit does not contain Ehcache");
     }
+    return ehcacheDispatch;
   }
 
   private Class loadClass(String className) throws ClassNotFoundException {
@@ -148,75 +339,92 @@ public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness
 
   @Override
   public void createCache(String alias, CacheConfiguration cacheConfiguration) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Class<?> cacheConfigurationClass = loadClass("org.ehcache.config.CacheConfiguration");
       Method createCacheMethod = ehCacheManagerClass.getMethod("createCache", String.class, cacheConfigurationClass);
       createCacheMethod.invoke(cacheManager, alias, defaultCacheConfigurationHeapOffHeapDedicatedClustered(cacheConfiguration));
+      cacheConfigurations.put(alias, cacheConfiguration);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "createCache", alias);
   }
 
   @Override
   public void close() {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Method closeMethod = ehCacheManagerClass.getMethod("close");
+      stopPounding();
+      stopSampling();
+      cacheConfigurations.clear();
       closeMethod.invoke(cacheManager);
-      poundingMap.clear();
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "closeCacheManager", null);
   }
 
   @Override
   public void destroy() {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Method destroyMethod = ehCacheManagerClass.getMethod("destroy");
+      stopPounding();
+      stopSampling();
+      cacheConfigurations.clear();
       destroyMethod.invoke(cacheManager);
-      poundingMap.clear();
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "destroyCacheManager", null);
   }
 
   @Override
   public void destroyCache(String alias) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Method destroyCacheMethod = ehCacheManagerClass.getMethod("destroyCache", String.class);
+      stopPounding(alias);
+      cacheConfigurations.remove(alias);
       destroyCacheMethod.invoke(cacheManager, alias);
-      poundingMap.remove(alias);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "destroyCache", alias);
   }
 
   @Override
   public void removeCache(String alias) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Method removeCacheMethod = ehCacheManagerClass.getMethod("removeCache", String.class);
+      stopPounding(alias);
+      cacheConfigurations.remove(alias);
       removeCacheMethod.invoke(cacheManager, alias);
-      poundingMap.remove(alias);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "removeCache", alias);
   }
 
   @Override
   public void clearCache(String alias) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Object cache = getCache(alias);
-      Class ehCacheClass = loadClass("org.ehcache.core.Ehcache");
-      Method clearCacheMethod = ehCacheClass.getMethod("clear");
-      clearCacheMethod.invoke(cache);
+      ehcacheDispatch().clear(cache);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "clearCache", alias);
   }
 
   @Override
@@ -238,6 +446,7 @@ public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness
 
   @Override
   public void initializeCacheManager(String terracottaServerUrl, String cmName, String diskPersistenceLocation, String defaultOffheapResource, String serverDiskResource, String securityPath) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Object clusteringServiceConfigurationBuilder;
@@ -269,15 +478,19 @@ public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness
       } catch (Exception e) {
         defaultManagementRegistryConfiguration = null;
       }
-      cacheManager = constructCacheManagerBuilder(clusteringServiceConfigurationBuilder, cacheManagerPersistenceConfiguration, defaultManagementRegistryConfiguration);
+      EhcacheStatistics ehcacheStatistics = EhcacheStatistics.create(kitAwareClassLoaderDelegator.getUrlClassLoader());
+      cacheManager = constructCacheManagerBuilder(clusteringServiceConfigurationBuilder, cacheManagerPersistenceConfiguration, defaultManagementRegistryConfiguration, ehcacheStatistics);
       ehCacheManagerClass = loadClass("org.ehcache.core.EhcacheManager");
       Method initMethod = ehCacheManagerClass.getMethod("init");
       initMethod.invoke(cacheManager);
       this.cacheManager = cacheManager;
+      this.ehcacheStatistics = ehcacheStatistics;
+      startSampling(ehcacheStatistics);
       this.defaultOffheapResource = defaultOffheapResource;
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "initializeCacheManager", cmName);
 
   }
 
@@ -303,7 +516,8 @@ public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness
 
   private Object constructCacheManagerBuilder(Object enterpriseClusteringServiceConfigurationBuilder,
                                               Object cacheManagerPersistenceConfiguration,
-                                              Object defaultManagementRegistryConfiguration) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+                                              Object defaultManagementRegistryConfiguration,
+                                              EhcacheStatistics ehcacheStatistics) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
     Class<?> cacheManagerBuilderClass = loadClass("org.ehcache.config.builders.CacheManagerBuilder");
     Method newCacheManagerBuilderMethod = cacheManagerBuilderClass.getMethod("newCacheManagerBuilder");
     Class<?> builderClass = loadClass("org.ehcache.config.Builder");
@@ -324,6 +538,10 @@ public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness
       Method usingMethod = cacheManagerBuilderClass.getMethod("using", serviceCreationConfigurationClass);
       cacheManagerBuilder = usingMethod.invoke(cacheManagerBuilder, defaultManagementRegistryConfiguration);
     }
+    if (ehcacheStatistics != null) {
+      Method usingMethod = cacheManagerBuilderClass.getMethod("using", loadClass("org.ehcache.spi.service.Service"));
+      cacheManagerBuilder = usingMethod.invoke(cacheManagerBuilder, ehcacheStatistics.getStatisticsService());
+    }
     Method buildMethod = cacheManagerBuilderClass.getMethod("build");
     return buildMethod.invoke(cacheManagerBuilder);
   }
@@ -511,8 +729,7 @@ public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness
 
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
-      Method getStatusMethod = ehCacheManagerClass.getMethod("getStatus");
-      Object status = getStatusMethod.invoke(cacheManager);
+      Object status = ehcacheDispatch().getStatus(cacheManager);
       return status.toString();
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -521,11 +738,322 @@ public class CacheManagerBusinessReflectionImpl implements CacheManagerBusiness
 
   @Override
   public void updatePoundingIntensity(String cacheAlias, int poundingIntensity) {
-    poundingMap.put(cacheAlias, poundingIntensity);
+    Integer previous = poundingMap.put(cacheAlias, poundingIntensity);
+    if (previous == null || previous != poundingIntensity) {
+      resetLatencies(cacheAlias);
+      reschedule(cacheAlias);
+    }
   }
 
   @Override
   public int retrievePoundingIntensity(String cacheAlias) {
     return poundingMap.getOrDefault(cacheAlias, 0);
   }
+
+  @Override
+  public void updatePoundingRate(String cacheAlias, long opsPerSecond) {
+    ConstantRatePacer previous = opsPerSecond > 0 ? ratePacers.put(cacheAlias, new ConstantRatePacer(opsPerSecond)) : ratePacers.remove(cacheAlias);
+    if (previous != null) {
+      previous.stop();
+    }
+    resetLatencies(cacheAlias);
+    reschedule(cacheAlias);
+  }
+
+  @Override
+  public PoundingRate retrievePoundingRate(String cacheAlias) {
+    ConstantRatePacer pacer = ratePacers.get(cacheAlias);
+    return pacer == null ? PoundingRate.NONE : pacer.snapshot();
+  }
+
+  @Override
+  public Map<OpType, LatencySnapshot> retrieveLatencies(String cacheAlias) {
+    PoundingStatistics stats = statisticsMap.get(cacheAlias);
+    return stats == null ? Collections.emptyMap() : stats.snapshot();
+  }
+
+  @Override
+  public Map<OpType, LatencySnapshot> retrievePerKeyLatencies(String cacheAlias) {
+    PoundingStatistics stats = statisticsMap.get(cacheAlias);
+    return stats == null ? Collections.emptyMap() : stats.perKeySnapshot();
+  }
+
+  @Override
+  public Throughput retrieveThroughput(String cacheAlias) {
+    PoundingStatistics stats = statisticsMap.get(cacheAlias);
+    return stats == null ? Throughput.NONE : stats.throughput();
+  }
+
+  @Override
+  public Map<OpType, OpCounters> retrieveOpCounters(String cacheAlias) {
+    PoundingStatistics stats = statisticsMap.get(cacheAlias);
+    return stats == null ? Collections.emptyMap() : stats.counters();
+  }
+
+  @Override
+  public void resetLatencies(String cacheAlias) {
+    PoundingStatistics stats = statisticsMap.get(cacheAlias);
+    if (stats != null) {
+      stats.reset();
+    }
+  }
+
+  @Override
+  public void updatePoundingConcurrency(String cacheAlias, int concurrency) {
+    Integer previous = concurrencyMap.put(cacheAlias, Math.max(1, concurrency));
+    if (previous == null || previous != Math.max(1, concurrency)) {
+      reschedule(cacheAlias);
+    }
+  }
+
+  @Override
+  public int retrievePoundingConcurrency(String cacheAlias) {
+    return concurrencyMap.getOrDefault(cacheAlias, poundingEngine.getDefaultConcurrency());
+  }
+
+  @Override
+  public void updateSimulatedClients(String cacheAlias, int clients, long thinkTimeMillis) {
+    if (clients > 0) {
+      clientsMap.put(cacheAlias, new SimulatedClients(clients, poundingEngine.maxSimulatedClients(clients), Math.max(0, thinkTimeMillis), PoundingEngine.hasVirtualThreads()));
+    } else {
+      clientsMap.remove(cacheAlias);
+    }
+    resetLatencies(cacheAlias);
+    reschedule(cacheAlias);
+  }
+
+  @Override
+  public SimulatedClients retrieveSimulatedClients(String cacheAlias) {
+    return clientsMap.getOrDefault(cacheAlias, SimulatedClients.NONE);
+  }
+
+  @Override
+  public void updateWorkload(String cacheAlias, Workload workload) {
+    workloads.put(cacheAlias, workload);
+    resetLatencies(cacheAlias);
+    reschedule(cacheAlias);
+  }
+
+  @Override
+  public Workload retrieveWorkload(String cacheAlias) {
+    return workloads.getOrDefault(cacheAlias, Workload.DEFAULT);
+  }
+
+  @Override
+  public synchronized void preload(String cacheAlias, long entries, int loaders, String tier, int targetOccupancy) {
+    String tierName = tier == null ? null : Arrays.stream(TIERS)
+        .filter(tier::equalsIgnoreCase)
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown tier: " + tier + ", expecting one of " + Arrays.toString(TIERS)));
+    cancelPreload(cacheAlias);
+    // not run by the loader itself, which cancelling the preload waits for
+    CachePreloader preloader = new CachePreloader(entries, tierName, targetOccupancy, () -> tierOccupancy(cacheAlias, tierName),
+        done -> poundingEngine.runControl(cacheAlias, () -> preloadDone(cacheAlias, done)));
+    preloaders.put(cacheAlias, preloader);
+    // hold the pounding until the cache is loaded
+    reschedule(cacheAlias);
+    int intensity = retrievePoundingIntensity(cacheAlias);
+    IntSupplier valueSizes = payloadPool.prepare(retrieveWorkload(cacheAlias).getValueSizes(), intensity > 0 ? PayloadPool.sizeForIntensity(intensity) : FIXED_VALUE_SIZE);
+    preloadTasks.put(cacheAlias, poundingEngine.startClients(cacheAlias, loaders, 0, TimeUnit.MILLISECONDS, () -> {
+      Object cache = getCache(cacheAlias);
+      if (cache != null) {
+        preloader.loadNext(ehcacheDispatch(), cache, payloadPool, valueSizes);
+      } else {
+        LockSupport.parkNanos(RATE_TICK_NANOS);
+      }
+    }));
+  }
+
+  @Override
+  public PreloadProgress retrievePreloadProgress(String cacheAlias) {
+    CachePreloader preloader = preloaders.get(cacheAlias);
+    return preloader == null ? PreloadProgress.NONE : preloader.progress();
+  }
+
+  @Override
+  public Map<String, TierUsage> retrieveTierUsages(String cacheAlias) {
+    return ehcacheStatistics == null ? Collections.emptyMap() : ehcacheStatistics.tierUsages(cacheAlias);
+  }
+
+  @Override
+  public synchronized void updateTargetHitRatio(String cacheAlias, double targetHitRatio) {
+    HitRatioController previous = hitRatioControllers.remove(cacheAlias);
+    if (previous != null) {
+      previous.stop();
+    }
+    if (targetHitRatio <= 0) {
+      return;
+    }
+    if (ehcacheStatistics == null) {
+      throw new IllegalStateException("This kit has no statistics service to read the hit ratio from");
+    }
+    HitRatioController controller = new HitRatioController(targetHitRatio / 100);
+    hitRatioControllers.put(cacheAlias, controller);
+    controller.setTask(poundingEngine.startControl("hit ratio of " + cacheAlias, HIT_RATIO_CONTROL_PERIOD_MILLIS, TimeUnit.MILLISECONDS, () -> controlHitRatio(cacheAlias, controller)));
+  }
+
+  @Override
+  public HitRatioStatus retrieveHitRatio(String cacheAlias) {
+    HitRatioController controller = hitRatioControllers.get(cacheAlias);
+    return controller == null ? HitRatioStatus.NONE : controller.status();
+  }
+
+  private void controlHitRatio(String cacheAlias, HitRatioController controller) {
+    long[] hitsAndMisses = ehcacheStatistics.hitsAndMisses(cacheAlias);
+    Workload workload = retrieveWorkload(cacheAlias);
+    long keySpace = keySpace(cacheAlias, workload);
+    if (hitsAndMisses == null || keySpace <= 0) {
+      return;
+    }
+    long adjustedKeySpace = controller.adjust(keySpace, hitsAndMisses[0], hitsAndMisses[1]);
+    if (adjustedKeySpace != keySpace) {
+      // the workers keep pounding, drawing from the same generator ; unlike a user change of workload, the latencies are kept
+      workloads.put(cacheAlias, workload.withKeySpace(adjustedKeySpace));
+      KeyGenerator keys = keyGenerators.get(cacheAlias);
+      if (keys != null) {
+        keys.resize(adjustedKeySpace);
+      }
+    }
+  }
+
+  /**
+   * @return the key space the cache is pounded with, 0 if it is not pounded
+   */
+  private long keySpace(String cacheAlias, Workload workload) {
+    if (ratePacers.containsKey(cacheAlias) || retrieveSimulatedClients(cacheAlias).getRequestedClients() > 0) {
+      return workload.keySpaceOrDefault(FIXED_KEY_SPACE);
+    }
+    int intensity = retrievePoundingIntensity(cacheAlias);
+    return intensity > 0 ? workload.keySpaceOrDefault(intensity * 1000L) : 0;
+  }
+
+  @Override
+  public Map<String, TierTimeSeries> retrieveTierTimeSeries(String cacheAlias) {
+    StatisticsSampler sampler = statisticsSampler;
+    return sampler == null ? Collections.emptyMap() : sampler.timeSeries(cacheAlias);
+  }
+
+  /**
+   * Samples the tiers of the caches created through this business every second, until the cache manager is closed;
+   * the samples stay readable until the next cache manager gets initialized.
+   */
+  private synchronized void startSampling(EhcacheStatistics ehcacheStatistics) {
+    stopSampling();
+    if (ehcacheStatistics == null) {
+      statisticsSampler = null;
+      return;
+    }
+    StatisticsSampler sampler = new StatisticsSampler(ehcacheStatistics, samplesPerTier);
+    statisticsSampler = sampler;
+    samplingTask = poundingEngine.startControl("statistics sampling", 1, TimeUnit.SECONDS, () -> sampler.sample(cacheConfigurations.keySet()));
+  }
+
+  private synchronized void stopSampling() {
+    if (samplingTask != null) {
+      samplingTask.cancel();
+      samplingTask = null;
+    }
+  }
+
+  private synchronized void preloadDone(String cacheAlias, CachePreloader preloader) {
+    if (preloaders.get(cacheAlias) != preloader) {
+      // cancelled, or replaced by another preload, in the meantime
+      return;
+    }
+    PoundingEngine.PoundingTask task = preloadTasks.remove(cacheAlias);
+    if (task != null) {
+      task.cancel();
+    }
+    // a constant rate schedule would otherwise try to catch up with the whole preload duration
+    ConstantRatePacer pacer = ratePacers.get(cacheAlias);
+    if (pacer != null) {
+      pacer.stop();
+      ratePacers.put(cacheAlias, new ConstantRatePacer(pacer.getRequestedRate()));
+    }
+    resetLatencies(cacheAlias);
+    reschedule(cacheAlias);
+  }
+
+  private synchronized void cancelPreload(String cacheAlias) {
+    CachePreloader preloader = preloaders.remove(cacheAlias);
+    if (preloader != null) {
+      preloader.cancel();
+    }
+    PoundingEngine.PoundingTask task = preloadTasks.remove(cacheAlias);
+    if (task != null) {
+      task.cancel();
+    }
+  }
+
+  /**
+   * @return how full the tier is compared to the size it was configured with, in percent, -1 if unknown
+   */
+  private double tierOccupancy(String cacheAlias, String tier) {
+    CacheConfiguration cacheConfiguration = cacheConfigurations.get(cacheAlias);
+    TierUsage usage = retrieveTierUsages(cacheAlias).get(tier);
+    if (cacheConfiguration == null || usage == null) {
+      return -1;
+    }
+    switch (usage.getTier()) {
+      case "OnHeap":
+        if (cacheConfiguration.getOnHeapSizeUnit().equals("ENTRIES")) {
+          return percent(usage.getMappings(), cacheConfiguration.getOnHeapSize());
+        }
+        return percent(usage.getOccupiedBytes(), toBytes(cacheConfiguration.getOnHeapSize(), cacheConfiguration.getOnHeapSizeUnit()));
+      case "OffHeap":
+        return percent(usage.getOccupiedBytes(), toBytes(cacheConfiguration.getOffHeapSize(), cacheConfiguration.getOffHeapSizeUnit()));
+      case "Disk":
+        return percent(usage.getOccupiedBytes(), toBytes(cacheConfiguration.getDiskSize(), cacheConfiguration.getDiskSizeUnit()));
+      case "Clustered":
+        if (cacheConfiguration.getClusteredTierType() == DEDICATED) {
+          return percent(usage.getOccupiedBytes(), toBytes(cacheConfiguration.getClusteredDedicatedSize(), cacheConfiguration.getClusteredDedicatedUnit()));
+        }
+        return -1;
+      default:
+        return -1;
+    }
+  }
+
+  private static double percent(long used, long capacity) {
+    return used < 0 || capacity <= 0 ? -1 : used * 100.0 / capacity;
+  }
+
+  private static long toBytes(long size, String memoryUnit) {
+    switch (memoryUnit) {
+      case "B":
+        return size;
+      case "KB":
+        return size << 10;
+      case "MB":
+        return size << 20;
+      case "GB":
+        return size << 30;
+      case "TB":
+        return size << 40;
+      default:
+        return -1;
+    }
+  }
+
+  private synchronized void stopPounding(String cacheAlias) {
+    PoundingEngine.PoundingTask task = poundingTasks.remove(cacheAlias);
+    if (task != null) {
+      task.cancel();
+    }
+    cancelPreload(cacheAlias);
+    HitRatioController hitRatioController = hitRatioControllers.remove(cacheAlias);
+    if (hitRatioController != null) {
+      hitRatioController.stop();
+    }
+    poundingMap.remove(cacheAlias);
+    ConstantRatePacer pacer = ratePacers.remove(cacheAlias);
+    if (pacer != null) {
+      pacer.stop();
+    }
+    concurrencyMap.remove(cacheAlias);
+    clientsMap.remove(cacheAlias);
+    workloads.remove(cacheAlias);
+    keyGenerators.remove(cacheAlias);
+    statisticsMap.remove(cacheAlias);
+  }
 }
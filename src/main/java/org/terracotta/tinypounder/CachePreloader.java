@@ -0,0 +1,116 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Fills a cache with keys 0 to N - 1 from parallel loaders, or until one of its tiers reaches a target occupancy,
+ * whichever comes first.
+ * <p>
+ * Each loader claims the next key then puts it; the tier occupancy goes through the statistics service, so it is
+ * only checked every {@value #OCCUPANCY_CHECK_INTERVAL} keys.
+ */
+class CachePreloader {
+
+  private static final int OCCUPANCY_CHECK_INTERVAL = 1000;
+
+  private final long targetEntries;
+  private final String tier;
+  private final int targetOccupancy;
+  private final DoubleSupplier occupancySupplier;
+  private final Consumer<CachePreloader> onDone;
+  private final AtomicLong nextKey = new AtomicLong();
+  private final LongAdder loadedEntries = new LongAdder();
+  private final LongAdder loadedBytes = new LongAdder();
+  private final AtomicBoolean done = new AtomicBoolean();
+  private final long startNanos = System.nanoTime();
+  private volatile long endNanos;
+  private volatile double occupancy = -1;
+
+  /**
+   * @param targetEntries entries to load, 0 to only load up to the tier occupancy
+   * @param tier tier whose occupancy stops the preload, null if there is none
+   * @param occupancySupplier occupancy of the tier in percent, -1 if unknown
+   * @param onDone run once with this preloader, by the loader that completed the preload
+   */
+  CachePreloader(long targetEntries, String tier, int targetOccupancy, DoubleSupplier occupancySupplier, Consumer<CachePreloader> onDone) {
+    if (targetEntries <= 0 && tier == null) {
+      throw new IllegalArgumentException("A preload needs a number of entries or a tier occupancy to reach");
+    }
+    this.targetEntries = targetEntries > 0 ? targetEntries : Long.MAX_VALUE;
+    this.tier = tier;
+    this.targetOccupancy = targetOccupancy;
+    this.occupancySupplier = occupancySupplier;
+    this.onDone = onDone;
+  }
+
+  /**
+   * Puts the next key, or completes the preload when there is none left.
+   */
+  void loadNext(EhcacheDispatch ehcache, Object cache, PayloadPool payloadPool, IntSupplier valueSizes) {
+    long key = nextKey.getAndIncrement();
+    if (key >= targetEntries || done.get()) {
+      complete();
+      return;
+    }
+    String value = payloadPool.string(valueSizes.getAsInt());
+    ehcache.put(cache, key, value);
+    loadedEntries.increment();
+    loadedBytes.add(value.length());
+    if (tier != null && key % OCCUPANCY_CHECK_INTERVAL == 0) {
+      occupancy = occupancySupplier.getAsDouble();
+      if (occupancy >= targetOccupancy) {
+        complete();
+      }
+    }
+  }
+
+  private void complete() {
+    if (done.compareAndSet(false, true)) {
+      endNanos = System.nanoTime();
+      if (tier != null) {
+        occupancy = occupancySupplier.getAsDouble();
+      }
+      onDone.accept(this);
+    }
+  }
+
+  boolean isDone() {
+    return done.get();
+  }
+
+  /**
+   * Stops the loaders without running the completion.
+   */
+  void cancel() {
+    if (done.compareAndSet(false, true)) {
+      endNanos = System.nanoTime();
+    }
+  }
+
+  PreloadProgress progress() {
+    boolean finished = done.get();
+    long end = endNanos;
+    long elapsed = (finished && end != 0 ? end : System.nanoTime()) - startNanos;
+    return new PreloadProgress(targetEntries, loadedEntries.sum(), loadedBytes.sum(), elapsed, tier, occupancy, targetOccupancy, finished);
+  }
+}
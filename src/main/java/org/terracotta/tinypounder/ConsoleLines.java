@@ -0,0 +1,270 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The last lines of a process output, in a ring where each new line overwrites the oldest one once full.
+ * <p>
+ * Every line gets a sequence number, growing by one from 0, so that readers ask for the lines after the last one they
+ * saw instead of copying them all, and can tell that nothing changed by comparing a single number. Readers never
+ * block the writer : lines overwritten while they were read are dropped from what they get.
+ * <p>
+ * Only one thread writes : the process pipe, after the thread starting the process.
+ */
+class ConsoleLines extends AbstractQueue<String> {
+
+  private final int capacity;
+  // one more slot than lines kept, so that the oldest line kept is never the one being overwritten
+  private final AtomicReferenceArray<String> ring;
+  // sequence of the next line, that is the number of lines ever written
+  private final AtomicLong end = new AtomicLong();
+  // sequence of the first line that was neither polled nor cleared
+  private final AtomicLong start = new AtomicLong();
+
+  ConsoleLines(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.ring = new AtomicReferenceArray<>(capacity + 1);
+  }
+
+  /**
+   * @return the sequence the next line will get
+   */
+  long sequence() {
+    return end.get();
+  }
+
+  /**
+   * @return the sequence of the oldest line kept
+   */
+  long first() {
+    return Math.max(start.get(), end.get() - capacity);
+  }
+
+  /**
+   * @return the lines kept that were written from the given sequence on, as of now
+   */
+  Delta since(long sequence) {
+    long first = first();
+    long from = Math.max(first, sequence);
+    long to = end.get();
+    List<String> lines = new ArrayList<>((int) Math.max(0, to - from));
+    for (long s = from; s < to; s++) {
+      lines.add(ring.get(slot(s)));
+    }
+    // the writer may have gone round the ring while reading
+    long overwritten = end.get() - capacity;
+    if (from < overwritten) {
+      lines = lines.subList((int) Math.min(lines.size(), overwritten - from), lines.size());
+      from = overwritten;
+      first = Math.max(first, overwritten);
+    }
+    return new Delta(first, from, lines);
+  }
+
+  @Override
+  public boolean offer(String line) {
+    long sequence = end.get();
+    ring.set(slot(sequence), line);
+    end.set(sequence + 1);
+    return true;
+  }
+
+  @Override
+  public String poll() {
+    while (true) {
+      long polled = start.get();
+      long first = Math.max(polled, end.get() - capacity);
+      if (first >= end.get()) {
+        return null;
+      }
+      String line = ring.get(slot(first));
+      if (first >= end.get() - capacity && start.compareAndSet(polled, first + 1)) {
+        return line;
+      }
+    }
+  }
+
+  @Override
+  public String peek() {
+    List<String> lines = since(0).getLines();
+    return lines.isEmpty() ? null : lines.get(0);
+  }
+
+  @Override
+  public void clear() {
+    long polled;
+    long sequence;
+    do {
+      polled = start.get();
+      sequence = end.get();
+    } while (polled < sequence && !start.compareAndSet(polled, sequence));
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.max(0, end.get() - first());
+  }
+
+  /**
+   * @return the lines kept as of now, oldest first; the iterator does not remove lines
+   */
+  @Override
+  public Iterator<String> iterator() {
+    return since(0).getLines().iterator();
+  }
+
+  private int slot(long sequence) {
+    return (int) (sequence % (capacity + 1));
+  }
+
+  /**
+   * Lines kept from a given sequence on.
+   */
+  static class Delta {
+
+    private final long first;
+    private final long from;
+    private final List<String> lines;
+
+    private Delta(long first, long from, List<String> lines) {
+      this.first = first;
+      this.from = from;
+      this.lines = Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * @return the sequence of the oldest line kept, lines before it are gone
+     */
+    long getFirst() {
+      return first;
+    }
+
+    /**
+     * @return the sequence of the first of the lines, later than asked for if the lines in between are gone
+     */
+    long getFrom() {
+      return from;
+    }
+
+    /**
+     * @return the sequence following the last of the lines
+     */
+    long getEnd() {
+      return from + lines.size();
+    }
+
+    List<String> getLines() {
+      return lines;
+    }
+  }
+
+  /**
+   * The text of the lines kept, as last seen by a reader, moved forward with the new lines only; what the last update
+   * changed is kept, so that it can be applied to a copy of the text elsewhere.
+   * <p>
+   * Not thread safe : each console has its own, updated from the UI, but whether it is behind can be asked from any
+   * thread.
+   */
+  static class Text {
+
+    private final StringBuilder text = new StringBuilder();
+    private final Deque<Integer> lineLengths = new ArrayDeque<>();
+    private volatile long sequence;
+    private volatile long firstShown;
+    private boolean reset;
+    private int droppedLines;
+    private final StringBuilder appended = new StringBuilder();
+
+    /**
+     * @return true if lines were written, polled or cleared since the last update
+     */
+    boolean isBehind(ConsoleLines lines) {
+      return lines.sequence() != sequence || lines.first() > firstShown;
+    }
+
+    /**
+     * @return true if the text changed since the last update
+     */
+    boolean update(ConsoleLines lines) {
+      reset = false;
+      droppedLines = 0;
+      appended.setLength(0);
+      if (!isBehind(lines)) {
+        return false;
+      }
+      Delta delta = lines.since(sequence);
+      if (delta.getFrom() > sequence) {
+        // lines were lost in between, start over from the ones kept
+        text.setLength(0);
+        lineLengths.clear();
+        firstShown = delta.getFrom();
+        reset = true;
+      }
+      for (String line : delta.getLines()) {
+        text.append(line);
+        appended.append(line);
+        lineLengths.addLast(line.length());
+      }
+      while (firstShown < delta.getFirst() && !lineLengths.isEmpty()) {
+        text.delete(0, lineLengths.removeFirst());
+        firstShown++;
+        droppedLines++;
+      }
+      firstShown = Math.max(firstShown, delta.getFirst());
+      sequence = delta.getEnd();
+      return true;
+    }
+
+    /**
+     * @return true if the last update started over, instead of moving the previous text forward
+     */
+    boolean isReset() {
+      return reset;
+    }
+
+    /**
+     * @return the number of lines the last update dropped from the start of the previous text
+     */
+    int getDroppedLines() {
+      return droppedLines;
+    }
+
+    /**
+     * @return the lines the last update added at the end of the text
+     */
+    String getAppended() {
+      return appended.toString();
+    }
+
+    @Override
+    public String toString() {
+      return text.toString();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import com.vaadin.ui.TextArea;
+import elemental.json.Json;
+
+/**
+ * Text area of a console, streamed to the browser : the lines logged since the last update are appended to it in
+ * place, and the ones that fell out of the console dropped, instead of sending the whole text again.
+ * <p>
+ * The text on the server is kept up to date without being sent, so that the whole of it only goes to the browser
+ * when the console is shown anew.
+ */
+class ConsoleTextArea extends TextArea {
+
+  private static final String APPEND = "(function(t, drop, lines) {"
+      + "if (!t) return;"
+      + "var bottom = t.scrollTop + t.clientHeight >= t.scrollHeight - 1;"
+      + "var v = t.value, p = 0;"
+      + "for (var i = 0; i < drop && p < v.length; i++) { var n = v.indexOf('\\n', p); p = n < 0 ? v.length : n + 1; }"
+      + "t.value = v.substring(p) + lines;"
+      + "if (bottom) t.scrollTop = t.scrollHeight;"
+      + "})(document.getElementById(%s), %d, %s);";
+
+  ConsoleTextArea(String key) {
+    setId("console-" + key);
+  }
+
+  /**
+   * Sends what the last update of the text changed, if anything.
+   */
+  void stream(ConsoleLines.Text text) {
+    String value = text.toString();
+    if (text.isReset() || getUI() == null || !getUI().getConnectorTracker().isClientSideInitialized(this)) {
+      TinyPounderMainUI.updateTextArea(this, value);
+      return;
+    }
+    String appended = text.getAppended();
+    if (appended.isEmpty() && text.getDroppedLines() == 0) {
+      return;
+    }
+    getUI().getPage().getJavaScript().execute(String.format(APPEND,
+        Json.create(getId()).toJson(), text.getDroppedLines(), Json.create(appended).toJson()));
+    // what the browser has now, so that it is not sent again
+    getState(false).text = value;
+    updateDiffstate("text", Json.create(value));
+  }
+}
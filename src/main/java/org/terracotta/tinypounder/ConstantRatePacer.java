@@ -0,0 +1,121 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop schedule of a pounded target : op number N is meant to start at {@code start + N / rate},
+ * whether or not the previous ops are done.
+ * <p>
+ * Latencies must be measured from that intended start rather than from the actual start, so that a slow cluster
+ * shows up as latency instead of silently lowering the request rate (coordinated omission).
+ */
+class ConstantRatePacer {
+
+  private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final long requestedRate;
+  private final double nanosPerOp;
+  private final long startNanos;
+  private final AtomicLong issued = new AtomicLong();
+  private final LongAdder completed = new LongAdder();
+  private volatile boolean stopped;
+
+  private long windowStartNanos;
+  private long windowStartCompleted;
+  private double achievedRate;
+
+  ConstantRatePacer(long requestedRate) {
+    if (requestedRate <= 0) {
+      throw new IllegalArgumentException("Rate must be positive: " + requestedRate);
+    }
+    this.requestedRate = requestedRate;
+    this.nanosPerOp = (double) TimeUnit.SECONDS.toNanos(1) / requestedRate;
+    this.startNanos = System.nanoTime();
+    this.windowStartNanos = startNanos;
+  }
+
+  long getRequestedRate() {
+    return requestedRate;
+  }
+
+  /**
+   * Claims the next op if it is meant to start before the deadline.
+   *
+   * @return the op number, or -1 if there is no op to run before the deadline or if the pacer was stopped
+   */
+  long claim(long deadlineNanos) {
+    while (!stopped) {
+      long op = issued.get();
+      if (intendedStart(op) - deadlineNanos > 0) {
+        return -1;
+      }
+      if (issued.compareAndSet(op, op + 1)) {
+        return op;
+      }
+    }
+    return -1;
+  }
+
+  long intendedStart(long op) {
+    return startNanos + (long) (op * nanosPerOp);
+  }
+
+  /**
+   * Parks the calling thread until the op is meant to start; returns straight away if it is late.
+   */
+  void awaitIntendedStart(long intendedStartNanos) {
+    long wait;
+    while ((wait = intendedStartNanos - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(wait);
+    }
+  }
+
+  void completed() {
+    completed.increment();
+  }
+
+  void stop() {
+    stopped = true;
+  }
+
+  boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * @return the rate achieved during the last full second
+   */
+  synchronized double getAchievedRate() {
+    long now = System.nanoTime();
+    long elapsed = now - windowStartNanos;
+    if (elapsed >= RATE_WINDOW_NANOS) {
+      long completedNow = completed.sum();
+      achievedRate = (completedNow - windowStartCompleted) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+      windowStartNanos = now;
+      windowStartCompleted = completedNow;
+    }
+    return achievedRate;
+  }
+
+  PoundingRate snapshot() {
+    return new PoundingRate(requestedRate, getAchievedRate());
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.terracotta.tinypounder.EhcacheDispatch.propagate;
+
+/**
+ * TC Store methods used while pounding, resolved once against the kit class loader.
+ * <p>
+ * An instance is built by {@link KitAwareClassLoaderDelegator} each time the kit changes; each dataset instance
+ * then gets its own {@link DatasetWriterReaderFacade} through {@link #bind(Object)}.
+ */
+class DatasetDispatch {
+
+  static final String STRING_CELL = "myStringCell";
+  static final String BYTES_CELL = "myBytesCell";
+
+  private final Class<?> cellClass;
+  private final Class<?> cellDefinitionClass;
+  private final MethodHandle newCell;
+  private final MethodHandle write;
+  private final MethodHandle writerReader;
+  private final MethodHandle reader;
+  private final MethodHandle getKeyType;
+  private final MethodHandle getJDKType;
+  private final MethodHandle add;
+  private final MethodHandle update;
+  private final MethodHandle delete;
+  private final MethodHandle get;
+  private final MethodHandle records;
+  private final Object stringCellDefinition;
+  private final Object bytesCellDefinition;
+  private final Predicate<?> stringCellIsZero;
+  private final ConcurrentMap<String, Object> cellDefinitions = new ConcurrentHashMap<>();
+
+  private DatasetDispatch(ClassLoader classLoader) throws ReflectiveOperationException {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    cellClass = classLoader.loadClass("com.terracottatech.store.Cell");
+    cellDefinitionClass = classLoader.loadClass("com.terracottatech.store.definition.CellDefinition");
+    Class<?> updateOperationClass = classLoader.loadClass("com.terracottatech.store.UpdateOperation");
+    Class<?> internalDatasetClass = classLoader.loadClass("com.terracottatech.store.internal.InternalDataset");
+    Class<?> datasetReaderClass = classLoader.loadClass("com.terracottatech.store.DatasetReader");
+    Class<?> datasetWriterReaderClass = classLoader.loadClass("com.terracottatech.store.DatasetWriterReader");
+    Class<?> typeClass = classLoader.loadClass("com.terracottatech.store.Type");
+    Class<?> cellArrayClass = Array.newInstance(cellClass, 0).getClass();
+
+    MethodType toObject = MethodType.methodType(Object.class, Object.class);
+    MethodType keyToObject = MethodType.methodType(Object.class, Object.class, Object.class);
+
+    newCell = lookup.unreflect(cellDefinitionClass.getMethod("newCell", Object.class)).asType(keyToObject);
+    write = lookup.unreflect(updateOperationClass.getMethod("write", String.class, Object.class))
+        .asType(MethodType.methodType(Object.class, String.class, Object.class));
+    writerReader = lookup.unreflect(internalDatasetClass.getMethod("writerReader")).asType(toObject);
+    reader = lookup.unreflect(internalDatasetClass.getMethod("reader")).asType(toObject);
+    getKeyType = lookup.unreflect(datasetReaderClass.getMethod("getKeyType")).asType(toObject);
+    getJDKType = lookup.unreflect(typeClass.getDeclaredMethod("getJDKType")).asType(toObject);
+    add = lookup.unreflect(datasetWriterReaderClass.getMethod("add", Comparable.class, cellArrayClass))
+        .asFixedArity()
+        .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object[].class));
+    update = lookup.unreflect(datasetWriterReaderClass.getMethod("update", Comparable.class, updateOperationClass))
+        .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+    delete = lookup.unreflect(datasetWriterReaderClass.getMethod("delete", Comparable.class)).asType(keyToObject);
+    get = lookup.unreflect(datasetWriterReaderClass.getMethod("get", Comparable.class)).asType(keyToObject);
+    records = lookup.unreflect(datasetWriterReaderClass.getMethod("records")).asType(toObject);
+
+    stringCellDefinition = cellDefinition(STRING_CELL, "STRING");
+    bytesCellDefinition = cellDefinition(BYTES_CELL, "BYTES");
+
+    // stringCellDefinition.value().is("0")
+    Object value = cellDefinitionClass.getMethod("value").invoke(stringCellDefinition);
+    Class<?> buildableStringOptionalFunctionClass = classLoader.loadClass("com.terracottatech.store.function.BuildableStringOptionalFunction");
+    stringCellIsZero = (Predicate<?>) buildableStringOptionalFunctionClass.getMethod("is", Object.class).invoke(value, "0");
+  }
+
+  /**
+   * @return the resolved methods, or null if the class loader does not see any TC Store library
+   */
+  static DatasetDispatch resolve(ClassLoader classLoader) {
+    try {
+      return new DatasetDispatch(classLoader);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * Resolves once the writerReader and the key type of a dataset instance.
+   */
+  DatasetWriterReaderFacade bind(Object datasetInstance) {
+    try {
+      Object boundWriterReader = (Object) writerReader.invokeExact(datasetInstance);
+      Object keyType = (Object) getKeyType.invokeExact((Object) reader.invokeExact(datasetInstance));
+      Class<?> keyTypeJDK = (Class<?>) (Object) getJDKType.invokeExact(keyType);
+      return new BoundWriterReader(boundWriterReader, keyTypeJDK);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Object[] newCellArray(int length) {
+    return (Object[]) Array.newInstance(cellClass, length);
+  }
+
+  Object newCell(Object cellDefinition, Object value) {
+    try {
+      return (Object) newCell.invokeExact(cellDefinition, value);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Object write(String cellName, Object value) {
+    try {
+      return (Object) write.invokeExact(cellName, value);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Object getStringCellDefinition() {
+    return stringCellDefinition;
+  }
+
+  Object getBytesCellDefinition() {
+    return bytesCellDefinition;
+  }
+
+  /**
+   * @return the {@code myStringCell.value().is("0")} predicate used by the stream operation
+   */
+  Predicate<?> getStringCellIsZero() {
+    return stringCellIsZero;
+  }
+
+  /**
+   * @param cellType one of STRING, INT, LONG, DOUBLE, BOOL, CHAR, BYTES
+   * @return the cell definition, only defined the first time it is asked for
+   */
+  Object cellDefinition(String cellName, String cellType) {
+    return cellDefinitions.computeIfAbsent(cellName + ":" + cellType, key -> {
+      try {
+        String methodName = "define" + cellType.charAt(0) + cellType.substring(1).toLowerCase(Locale.ROOT);
+        return cellDefinitionClass.getMethod(methodName, String.class).invoke(null, cellName);
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException("Cannot recognize cell type: " + cellType, e);
+      }
+    });
+  }
+
+  private final class BoundWriterReader implements DatasetWriterReaderFacade {
+
+    private final Class<?> keyType;
+    private final MethodHandle boundAdd;
+    private final MethodHandle boundUpdate;
+    private final MethodHandle boundDelete;
+    private final MethodHandle boundGet;
+    private final MethodHandle boundRecords;
+
+    BoundWriterReader(Object writerReader, Class<?> keyType) {
+      this.keyType = keyType;
+      this.boundAdd = add.bindTo(writerReader);
+      this.boundUpdate = update.bindTo(writerReader);
+      this.boundDelete = delete.bindTo(writerReader);
+      this.boundGet = get.bindTo(writerReader);
+      this.boundRecords = records.bindTo(writerReader);
+    }
+
+    @Override
+    public Class<?> getKeyType() {
+      return keyType;
+    }
+
+    @Override
+    public boolean add(Object key, Object[] cells) {
+      try {
+        return Boolean.TRUE.equals((Object) boundAdd.invokeExact(key, cells));
+      } catch (Throwable t) {
+        throw propagate(t);
+      }
+    }
+
+    @Override
+    public boolean update(Object key, Object updateOperation) {
+      try {
+        return Boolean.TRUE.equals((Object) boundUpdate.invokeExact(key, updateOperation));
+      } catch (Throwable t) {
+        throw propagate(t);
+      }
+    }
+
+    @Override
+    public boolean delete(Object key) {
+      try {
+        return Boolean.TRUE.equals((Object) boundDelete.invokeExact(key));
+      } catch (Throwable t) {
+        throw propagate(t);
+      }
+    }
+
+    @Override
+    public Object get(Object key) {
+      try {
+        return (Object) boundGet.invokeExact(key);
+      } catch (Throwable t) {
+        throw propagate(t);
+      }
+    }
+
+    @Override
+    public Stream<?> records() {
+      try {
+        return (Stream<?>) (Object) boundRecords.invokeExact();
+      } catch (Throwable t) {
+        throw propagate(t);
+      }
+    }
+  }
+}
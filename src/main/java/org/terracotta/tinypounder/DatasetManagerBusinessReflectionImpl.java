@@ -3,94 +3,224 @@ package org.terracotta.tinypounder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.math.BigInteger;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 public class DatasetManagerBusinessReflectionImpl {
 
   private final ConcurrentMap<String, Integer> poundingMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ConstantRatePacer> ratePacers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PoundingStatistics> statisticsMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Integer> concurrencyMap = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Workload> workloads = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, PoundingEngine.PoundingTask> poundingTasks = new ConcurrentHashMap<>();
+  // one of each op
+  private static final OpType[] OP_MIX = {OpType.INSERT, OpType.UPDATE, OpType.DELETE, OpType.STREAM, OpType.RETRIEVE};
   private static final String NO_DATASET_MANAGER = "NO DATASET MANAGER";
+  private static final long RATE_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final int RATE_MODE_KEY_SPACE = 10_000;
+  private static final int RATE_MODE_INTENSITY = 10;
   private final KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator;
   private Class<?> datasetManagerClass;
   private Object datasetManager;
   private final Map<String, Map<String, Object>> datasetInstancesByDatasetName = new TreeMap<>();
   private final static String DATASET_INSTANCE_PATTERN = "^(.*)-[0-9]*$";
-  private Random random = new Random();
+  private final PoundingEngine poundingEngine;
+  private final PayloadPool payloadPool;
   private Object stringCellDefinition;
   private Class<?> cellDefinitionClass;
   private Class<?> typeClass;
   private Set<String> customCells = (new ConcurrentHashMap<>()).newKeySet();
+  private final ConcurrentMap<String, DatasetWriterReaderFacade> facadesByInstanceName = new ConcurrentHashMap<>();
 
   @Autowired
-  public DatasetManagerBusinessReflectionImpl(KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator, ScheduledExecutorService poundingScheduler) throws Exception {
+  public DatasetManagerBusinessReflectionImpl(KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator, PoundingEngine poundingEngine, PayloadPool payloadPool) throws Exception {
     this.kitAwareClassLoaderDelegator = kitAwareClassLoaderDelegator;
-    poundingScheduler.scheduleWithFixedDelay(() -> poundingMap.entrySet().parallelStream().forEach(entryConsumer -> {
-      try {
-        Object datasetInstance = retrieveDatasetInstance(entryConsumer.getKey());
-        if (datasetInstance != null && entryConsumer.getValue() > 0) {
-          pound(datasetInstance, entryConsumer.getValue());
+    this.poundingEngine = poundingEngine;
+    this.payloadPool = payloadPool;
+  }
+
+  /**
+   * (Re)starts the workers of a dataset instance after any of its pounding settings changed.
+   */
+  private synchronized void reschedule(String datasetInstanceName) {
+    PoundingEngine.PoundingTask previous = poundingTasks.remove(datasetInstanceName);
+    if (previous != null) {
+      previous.cancel();
+    }
+    int concurrency = retrievePoundingConcurrency(datasetInstanceName);
+    int intensity = retrievePoundingIntensity(datasetInstanceName);
+    ConstantRatePacer pacer = ratePacers.get(datasetInstanceName);
+    Workload workload = retrieveWorkload(datasetInstanceName);
+    if (pacer != null) {
+      // constant rate pounding runs back to back ticks, each op waiting for its intended start
+      KeyGenerator keys = workload.getKeyDistribution().newGenerator(workload.keySpaceOrDefault(RATE_MODE_KEY_SPACE));
+      IntSupplier valueSizes = payloadPool.prepare(workload.getValueSizes(), PayloadPool.sizeForIntensity(RATE_MODE_INTENSITY));
+      poundingTasks.put(datasetInstanceName, poundingEngine.startPaced(datasetInstanceName, concurrency, () -> {
+        DatasetWriterReaderFacade dataset = facadesByInstanceName.get(datasetInstanceName);
+        if (dataset != null) {
+          Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
+          poundAtConstantRate(datasetInstanceName, dataset, pacer, keys, valueSizes);
+        } else {
+          LockSupport.parkNanos(RATE_TICK_NANOS);
         }
-      } catch (Exception e) {
-        e.printStackTrace();
-      }
-    }), 1000, 100, TimeUnit.MILLISECONDS);
+      }));
+    } else if (intensity > 0) {
+      KeyGenerator keys = workload.getKeyDistribution().newGenerator(workload.keySpaceOrDefault(intensity * 1000L));
+      IntSupplier valueSizes = payloadPool.prepare(workload.getValueSizes(), PayloadPool.sizeForIntensity(intensity));
+      poundingTasks.put(datasetInstanceName, poundingEngine.start(datasetInstanceName, concurrency, 100, TimeUnit.MILLISECONDS, () -> {
+        Object datasetInstance = retrieveDatasetInstance(datasetInstanceName);
+        DatasetWriterReaderFacade dataset = facadesByInstanceName.get(datasetInstanceName);
+        if (datasetInstance != null && dataset != null) {
+          Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
+          pound(datasetInstanceName, datasetInstance, dataset, intensity, keys, valueSizes);
+        }
+      }));
+    }
   }
 
-  private void pound(Object datasetInstance, Integer intensity) {
-    IntStream.range(0, intensity).forEach(value -> {
-      insert(datasetInstance, ThreadLocalRandom.current().nextLong(0, intensity * 1000), intensity);
-      update(datasetInstance, ThreadLocalRandom.current().nextLong(0, intensity * 1000), intensity);
-      delete(datasetInstance, ThreadLocalRandom.current().nextLong(0, intensity * 1000));
-      stream(datasetInstance);
-      retrieve(datasetInstance, ThreadLocalRandom.current().nextLong(0, intensity * 1000));
-    });
+  private synchronized void stopPounding(String datasetInstanceName) {
+    PoundingEngine.PoundingTask task = poundingTasks.remove(datasetInstanceName);
+    if (task != null) {
+      task.cancel();
+    }
+    poundingMap.remove(datasetInstanceName);
+    ConstantRatePacer pacer = ratePacers.remove(datasetInstanceName);
+    if (pacer != null) {
+      pacer.stop();
+    }
+    concurrencyMap.remove(datasetInstanceName);
+    workloads.remove(datasetInstanceName);
+    statisticsMap.remove(datasetInstanceName);
+  }
+
+  private synchronized void stopPounding() {
+    poundingTasks.values().forEach(PoundingEngine.PoundingTask::cancel);
+    poundingTasks.clear();
+    poundingMap.clear();
+    ratePacers.values().forEach(ConstantRatePacer::stop);
+    ratePacers.clear();
+    concurrencyMap.clear();
+    workloads.clear();
+    statisticsMap.clear();
+  }
+
+  private void pound(String datasetInstanceName, Object datasetInstance, DatasetWriterReaderFacade dataset, Integer intensity, KeyGenerator keys, IntSupplier valueSizes) {
+    DatasetDispatch store = datasetDispatch();
+    PoundingStatistics stats = statistics(datasetInstanceName);
+    Object tick = PounderEvents.beginTick();
+    for (int i = 0; i < intensity; i++) {
+      for (OpType opType : OP_MIX) {
+        execute(store, dataset, stats, opType, keys, intensity, valueSizes, System.nanoTime());
+      }
+    }
+    PounderEvents.commitTick(tick, "dataset", datasetInstanceName, intensity * OP_MIX.length);
     try {
-      generateRandomFailure(datasetInstance);
+      generateRandomFailure(store, datasetInstance, dataset);
     } catch (Exception e) {
       // of course, we were generating a failure !
     }
   }
 
-  private void generateRandomFailure(Object datasetInstance) {
+  private void poundAtConstantRate(String datasetInstanceName, DatasetWriterReaderFacade dataset, ConstantRatePacer pacer, KeyGenerator keys, IntSupplier valueSizes) {
+    DatasetDispatch store = datasetDispatch();
+    PoundingStatistics stats = statistics(datasetInstanceName);
+    Object tick = PounderEvents.beginTick();
+    long ops = 0;
+    long deadline = System.nanoTime() + RATE_TICK_NANOS;
+    long op;
+    while ((op = pacer.claim(deadline)) >= 0) {
+      long intendedStart = pacer.intendedStart(op);
+      pacer.awaitIntendedStart(intendedStart);
+      try {
+        execute(store, dataset, stats, OP_MIX[(int) (op % OP_MIX.length)], keys, RATE_MODE_INTENSITY, valueSizes, intendedStart);
+        ops++;
+      } finally {
+        pacer.completed();
+      }
+    }
+    PounderEvents.commitTick(tick, "dataset", datasetInstanceName, ops);
+  }
+
+  /**
+   * Runs one op and records its latency, measured from startNanos, and the size of the values it wrote ; a failing
+   * op is counted as an error.
+   */
+  private void execute(DatasetDispatch store, DatasetWriterReaderFacade dataset, PoundingStatistics stats, OpType opType, KeyGenerator keys, int intensity, IntSupplier valueSizes, long startNanos) {
+    long valueBytes = 0;
+    try {
+      switch (opType) {
+        case INSERT:
+          valueBytes = insert(store, dataset, keys.nextInsert(), intensity, valueSizes.getAsInt());
+          break;
+        case UPDATE:
+          valueBytes = update(store, dataset, keys.next(), valueSizes.getAsInt());
+          break;
+        case DELETE:
+          delete(dataset, keys.next());
+          break;
+        case STREAM:
+          stream(store, dataset);
+          break;
+        case RETRIEVE:
+          retrieve(dataset, keys.next());
+          break;
+        default:
+          throw new IllegalArgumentException("Not a dataset operation: " + opType);
+      }
+    } catch (RuntimeException e) {
+      stats.recordError(opType);
+      throw e;
+    }
+    stats.record(opType, System.nanoTime() - startNanos);
+    stats.recordBytes(valueBytes);
+  }
+
+  private PoundingStatistics statistics(String datasetInstanceName) {
+    PoundingStatistics stats = statisticsMap.get(datasetInstanceName);
+    return stats != null ? stats : statisticsMap.computeIfAbsent(datasetInstanceName, name -> new PoundingStatistics());
+  }
+
+  private void generateRandomFailure(DatasetDispatch store, Object datasetInstance, DatasetWriterReaderFacade dataset) {
     int nextInt = ThreadLocalRandom.current().nextInt(0, 5);
     switch (nextInt) {
       case 0:
-        insert(datasetInstance, null, 0);
+        insert(store, dataset, null, 0, 0);
         break;
       case 1:
-        update(datasetInstance, null, 0);
+        update(store, dataset, null, 0);
         break;
       case 2:
-        retrieve(datasetInstance, null);
+        retrieve(dataset, null);
         break;
       case 3:
-        delete(datasetInstance, null);
+        delete(dataset, null);
         break;
       case 4:
         recordsFailure(datasetInstance);
@@ -134,73 +264,25 @@ public class DatasetManagerBusinessReflectionImpl {
     }
   }
 
-  private void stream(Object datasetInstance) {
+  @SuppressWarnings("unchecked")
+  private void stream(DatasetDispatch store, DatasetWriterReaderFacade dataset) {
     // dataset.records().filter(stringCellDefinition.value().is("0)).count()
-    try {
-      Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
-      Object datasetWriterReader = retrieveDatasetWriterReader(datasetInstance);
-      Class<?> datasetWriterReaderClass = loadClass("com.terracottatech.store.DatasetWriterReader");
-      Method recordsMethod = datasetWriterReaderClass.getMethod("records");
-      Object records = recordsMethod.invoke(datasetWriterReader);
-
-      Class<?> mutableRecordStreamClass = loadClass("com.terracottatech.store.stream.MutableRecordStream");
-      Method filterMethod = mutableRecordStreamClass.getMethod("filter", Predicate.class);
-      Method countMethod = mutableRecordStreamClass.getMethod("count");
-
-      Method valueMethod = cellDefinitionClass.getMethod("value");
-      Object value = valueMethod.invoke(stringCellDefinition);
-
-      Class<?> buildableOptionalFunctionClass = loadClass("com.terracottatech.store.function.BuildableStringOptionalFunction");
-      Method isMethod = buildableOptionalFunctionClass.getMethod("is", Object.class);
-      Object isPredicate = isMethod.invoke(value, "0");
-
-      Object filter = filterMethod.invoke(records, isPredicate);
-      countMethod.invoke(filter);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    ((Stream<Object>) dataset.records()).filter((Predicate<Object>) store.getStringCellIsZero()).count();
   }
 
-  private void delete(Object datasetInstance, Long key) {
-    try {
-      Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
-      Object datasetWriterReader = retrieveDatasetWriterReader(datasetInstance);
-      Class<?> datasetWriterReaderClass = loadClass("com.terracottatech.store.DatasetWriterReader");
-      Method deleteMethod = datasetWriterReaderClass.getMethod("delete", Comparable.class);
-      deleteMethod.invoke(datasetWriterReader, longToKeyType(getKeyTypeJDK(datasetInstance), key));
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+  private void delete(DatasetWriterReaderFacade dataset, Long key) {
+    dataset.delete(longToKeyType(dataset.getKeyType(), key));
   }
 
-  private void update(Object datasetInstance, Long key, Integer value) {
-    try {
-      Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
-      Object datasetWriterReader = retrieveDatasetWriterReader(datasetInstance);
-      Class<?> datasetWriterReaderClass = loadClass("com.terracottatech.store.DatasetWriterReader");
-
-      Class<?> updateOperationClass = loadClass("com.terracottatech.store.UpdateOperation");
-      Method writeMethod = updateOperationClass.getMethod("write", String.class, Object.class);
-      Object writeOperation = writeMethod.invoke(null, "myStringCell", longString(value));
-
-      Method updateMethod = datasetWriterReaderClass.getMethod("update", Comparable.class, updateOperationClass);
-
-      updateMethod.invoke(datasetWriterReader, longToKeyType(getKeyTypeJDK(datasetInstance), key), writeOperation);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+  private int update(DatasetDispatch store, DatasetWriterReaderFacade dataset, Long key, int valueSize) {
+    String valueStr = payloadPool.string(valueSize);
+    Object writeOperation = store.write(DatasetDispatch.STRING_CELL, valueStr);
+    dataset.update(longToKeyType(dataset.getKeyType(), key), writeOperation);
+    return valueStr.length();
   }
 
-  private void retrieve(Object datasetInstance, Long key) {
-    try {
-      Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
-      Object datasetWriterReader = retrieveDatasetWriterReader(datasetInstance);
-      Class<?> datasetWriterReaderClass = loadClass("com.terracottatech.store.DatasetWriterReader");
-      Method getMethod = datasetWriterReaderClass.getMethod("get", Comparable.class);
-      getMethod.invoke(datasetWriterReader, longToKeyType(getKeyTypeJDK(datasetInstance), key));
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+  private void retrieve(DatasetWriterReaderFacade dataset, Long key) {
+    dataset.get(longToKeyType(dataset.getKeyType(), key));
   }
 
   private Object retrieveDatasetWriterReader(Object datasetInstance) throws Exception {
@@ -209,12 +291,6 @@ public class DatasetManagerBusinessReflectionImpl {
     return writerReader.invoke(datasetInstance);
   }
 
-  private Object retrieveDatasetReader(Object datasetInstance) throws Exception {
-    Class<?> internalDatasetClass = loadClass("com.terracottatech.store.internal.InternalDataset");
-    Method reader = internalDatasetClass.getMethod("reader");
-    return reader.invoke(datasetInstance);
-  }
-
   private Object longToKeyType(Class keyTypeJDK, Long internalKey) {
     Object key;
     if (keyTypeJDK.equals(String.class)) {
@@ -235,123 +311,63 @@ public class DatasetManagerBusinessReflectionImpl {
     return key;
   }
 
-  private Class<?> getKeyTypeJDK(Object datasetInstance) throws Exception {
-    Class<?> datasetReaderClass = loadClass("com.terracottatech.store.DatasetReader");
-    Method getKeyTypeMethod = datasetReaderClass.getMethod("getKeyType");
-    Object datasetReader = retrieveDatasetReader(datasetInstance);
-    Object keyType = getKeyTypeMethod.invoke(datasetReader);
-    Method getJDKTypeMethod = typeClass.getDeclaredMethod("getJDKType");
-    return (Class<?>) getJDKTypeMethod.invoke(keyType);
-  }
-
-  private void insert(Object datasetInstance, Long key, Integer value) {
-    try {
-      Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
-      Object datasetWriterReader = retrieveDatasetWriterReader(datasetInstance);
-      Class<?> datasetWriterReaderClass = loadClass("com.terracottatech.store.DatasetWriterReader");
-
-      Class<?> cellClass = loadClass("com.terracottatech.store.Cell");
-      Class cellClasses = Array.newInstance(cellClass, 0).getClass();
-      Method addMethod = datasetWriterReaderClass.getMethod("add", Comparable.class, cellClasses);
-
-      Object[] generatedCells;
-      if (key == null || key % 2 == 0) {
-        generatedCells = generateOneCell(value, cellClass);
-      } else {
-        generatedCells = generateTwoCells(value, cellClass);
-      }
-      Object[] customCells = generateCustomCells(value);
-      Object[] cells = (Object[]) Array.newInstance(cellClass, generatedCells.length + customCells.length);
-      int i = 0;
-      for (Object c : generatedCells) {
-        cells[i++] = c;
-      }
-      for (Object c : customCells) {
-        cells[i++] = c;
-      }
-      addMethod.invoke(datasetWriterReader, longToKeyType(getKeyTypeJDK(datasetInstance), key), cells);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+  /**
+   * @return the size of the string and bytes cells written
+   */
+  private int insert(DatasetDispatch store, DatasetWriterReaderFacade dataset, Long key, Integer value, int valueSize) {
+    String valueStr = payloadPool.string(valueSize);
+    List<Object> customCells = generateCustomCells(store, value, valueStr);
+    boolean twoCells = key != null && key % 2 != 0;
+    Object[] cells = store.newCellArray((twoCells ? 2 : 1) + customCells.size());
+    int i = 0;
+    if (twoCells) {
+      cells[i++] = store.newCell(store.getStringCellDefinition(), valueStr);
     }
+    cells[i++] = store.newCell(store.getBytesCellDefinition(), valueStr.getBytes(StandardCharsets.US_ASCII));
+    for (Object c : customCells) {
+      cells[i++] = c;
+    }
+    dataset.add(longToKeyType(dataset.getKeyType(), key), cells);
+    return (twoCells ? 2 : 1) * valueStr.length();
   }
 
-  private Object[] generateTwoCells(Integer value, Class<?> cellClass) throws Exception {
-    String valueStr = longString(value);
-    Method newCellMethod = cellDefinitionClass.getMethod("newCell", Object.class);
-    Object stringCellValue = newCellMethod.invoke(stringCellDefinition, valueStr);
-
-    Method defineBytesMethod = cellDefinitionClass.getMethod("defineBytes", String.class);
-    Object bytesCellDefinition = defineBytesMethod.invoke(null, "myBytesCell");
-    Object bytesCellValue = newCellMethod.invoke(bytesCellDefinition, valueStr.getBytes());
-
-    Object[] cells = (Object[]) Array.newInstance(cellClass, 2);
-    cells[0] = stringCellValue;
-    cells[1] = bytesCellValue;
-    return cells;
-  }
-
-  private Object[] generateOneCell(Integer value, Class<?> cellClass) throws Exception {
-    String valueStr = longString(value);
-    Class<?> cellDefinitionClass = loadClass("com.terracottatech.store.definition.CellDefinition");
-    Method newCellMethod = cellDefinitionClass.getMethod("newCell", Object.class);
-    Method defineBytesMethod = cellDefinitionClass.getMethod("defineBytes", String.class);
-    Object bytesCellDefinition = defineBytesMethod.invoke(null, "myBytesCell");
-    Object bytesCellValue = newCellMethod.invoke(bytesCellDefinition, valueStr.getBytes());
-
-    Object[] cells = (Object[]) Array.newInstance(cellClass, 1);
-    cells[0] = bytesCellValue;
-    return cells;
-  }
-
-  private Object[] generateCustomCells(Integer value) throws Exception {
-    String valueStr = longString(value);
-    Method newCellMethod = cellDefinitionClass.getMethod("newCell", Object.class);
+  private List<Object> generateCustomCells(DatasetDispatch store, Integer value, String valueStr) {
+    if (customCells.isEmpty()) {
+      return Collections.emptyList();
+    }
     List<Object> cells = new ArrayList<>();
     for (String customCellStr : customCells) {
       String[] splitted = customCellStr.split(":");
       String cellName = splitted[0];
       String cellType = splitted[1];
+      Object cellDefinition = store.cellDefinition(cellName, cellType);
       switch(cellType) {
         case "STRING":
-          Object stringCellDefinition = cellDefinitionClass
-            .getMethod("defineString", String.class).invoke(null, cellName);
-          cells.add(newCellMethod.invoke(stringCellDefinition, valueStr));
+          cells.add(store.newCell(cellDefinition, valueStr));
           break;
         case "INT":
-          Object intCellDefinition = cellDefinitionClass
-            .getMethod("defineInt", String.class).invoke(null, cellName);
-          cells.add(newCellMethod.invoke(intCellDefinition, ThreadLocalRandom.current().nextInt(0, value * 1000)));
+          cells.add(store.newCell(cellDefinition, ThreadLocalRandom.current().nextInt(0, value * 1000)));
           break;
         case "LONG":
-          Object longCellDefinition = cellDefinitionClass
-            .getMethod("defineLong", String.class).invoke(null, cellName);
-          cells.add(newCellMethod.invoke(longCellDefinition, ThreadLocalRandom.current().nextLong(0, value * 1000)));
+          cells.add(store.newCell(cellDefinition, ThreadLocalRandom.current().nextLong(0, value * 1000)));
           break;
         case "DOUBLE":
-          Object doubleCellDefinition = cellDefinitionClass
-            .getMethod("defineDouble", String.class).invoke(null, cellName);
-          cells.add(newCellMethod.invoke(doubleCellDefinition, ThreadLocalRandom.current().nextDouble(0, value * 1000)));
+          cells.add(store.newCell(cellDefinition, ThreadLocalRandom.current().nextDouble(0, value * 1000)));
           break;
         case "BOOL":
-          Object boolCellDefinition = cellDefinitionClass
-            .getMethod("defineBool", String.class).invoke(null, cellName);
-          cells.add(newCellMethod.invoke(boolCellDefinition, ThreadLocalRandom.current().nextInt(0, value * 1000) % 2 == 0));
+          cells.add(store.newCell(cellDefinition, ThreadLocalRandom.current().nextInt(0, value * 1000) % 2 == 0));
           break;
         case "CHAR":
-          Object charCellDefinition = cellDefinitionClass
-            .getMethod("defineChar", String.class).invoke(null, cellName);
-          cells.add(newCellMethod.invoke(charCellDefinition, valueStr.charAt(0)));
+          cells.add(store.newCell(cellDefinition, valueStr.charAt(0)));
           break;
         case "BYTES":
-          Object bytesCellDefinition = cellDefinitionClass
-            .getMethod("defineBytes", String.class).invoke(null, cellName);
-          cells.add(newCellMethod.invoke(bytesCellDefinition, valueStr.getBytes()));
+          cells.add(store.newCell(cellDefinition, valueStr.getBytes(StandardCharsets.US_ASCII)));
           break;
         default:
           throw new RuntimeException("Cannot recognize cell type: " + cellType);
       }
     }
-    return cells.toArray();
+    return cells;
   }
 
   public void addCustomCell(String cellStr) {
@@ -369,18 +385,90 @@ public class DatasetManagerBusinessReflectionImpl {
     customCells.remove(cellStr);
   }
 
-  private String longString(Integer intensity) {
-    return new BigInteger(intensity * 10, random).toString(16);
-  }
-
   public void updatePoundingIntensity(String datasetInstanceName, int poundingIntensity) {
-    poundingMap.put(datasetInstanceName, poundingIntensity);
+    Integer previous = poundingMap.put(datasetInstanceName, poundingIntensity);
+    if (previous == null || previous != poundingIntensity) {
+      resetLatencies(datasetInstanceName);
+      reschedule(datasetInstanceName);
+    }
   }
 
   public int retrievePoundingIntensity(String datasetInstanceName) {
     return poundingMap.getOrDefault(datasetInstanceName, 0);
   }
 
+  /**
+   * Pounds the dataset instance at a constant rate, whatever the time each op takes ; 0 goes back to intensity based pounding.
+   */
+  public void updatePoundingRate(String datasetInstanceName, long opsPerSecond) {
+    ConstantRatePacer previous = opsPerSecond > 0 ? ratePacers.put(datasetInstanceName, new ConstantRatePacer(opsPerSecond)) : ratePacers.remove(datasetInstanceName);
+    if (previous != null) {
+      previous.stop();
+    }
+    resetLatencies(datasetInstanceName);
+    reschedule(datasetInstanceName);
+  }
+
+  /**
+   * Sets how many workers pound the dataset instance concurrently; each one runs the whole intensity, or claims ops from the same rate.
+   */
+  public void updatePoundingConcurrency(String datasetInstanceName, int concurrency) {
+    Integer previous = concurrencyMap.put(datasetInstanceName, Math.max(1, concurrency));
+    if (previous == null || previous != Math.max(1, concurrency)) {
+      reschedule(datasetInstanceName);
+    }
+  }
+
+  public int retrievePoundingConcurrency(String datasetInstanceName) {
+    return concurrencyMap.getOrDefault(datasetInstanceName, poundingEngine.getDefaultConcurrency());
+  }
+
+  /**
+   * Sets the key distribution, key space and value sizes the dataset instance is pounded with; its operation mix is ignored.
+   */
+  public void updateWorkload(String datasetInstanceName, Workload workload) {
+    workloads.put(datasetInstanceName, workload);
+    resetLatencies(datasetInstanceName);
+    reschedule(datasetInstanceName);
+  }
+
+  public Workload retrieveWorkload(String datasetInstanceName) {
+    return workloads.getOrDefault(datasetInstanceName, Workload.DEFAULT);
+  }
+
+  public PoundingRate retrievePoundingRate(String datasetInstanceName) {
+    ConstantRatePacer pacer = ratePacers.get(datasetInstanceName);
+    return pacer == null ? PoundingRate.NONE : pacer.snapshot();
+  }
+
+  /**
+   * @return the latencies of each op type since the pounding intensity or rate last changed
+   */
+  public Map<OpType, LatencySnapshot> retrieveLatencies(String datasetInstanceName) {
+    PoundingStatistics stats = statisticsMap.get(datasetInstanceName);
+    return stats == null ? Collections.emptyMap() : stats.snapshot();
+  }
+
+  public Throughput retrieveThroughput(String datasetInstanceName) {
+    PoundingStatistics stats = statisticsMap.get(datasetInstanceName);
+    return stats == null ? Throughput.NONE : stats.throughput();
+  }
+
+  /**
+   * @return the ops and errors of each op type since the dataset instance was first pounded
+   */
+  public Map<OpType, OpCounters> retrieveOpCounters(String datasetInstanceName) {
+    PoundingStatistics stats = statisticsMap.get(datasetInstanceName);
+    return stats == null ? Collections.emptyMap() : stats.counters();
+  }
+
+  public void resetLatencies(String datasetInstanceName) {
+    PoundingStatistics stats = statisticsMap.get(datasetInstanceName);
+    if (stats != null) {
+      stats.reset();
+    }
+  }
+
   private Object retrieveDatasetInstance(String datasetInstanceName) {
     return datasetInstancesByDatasetName.get(retrieveDatasetName(datasetInstanceName)).get(datasetInstanceName);
   }
@@ -404,6 +492,7 @@ public class DatasetManagerBusinessReflectionImpl {
   }
 
   public void initializeDatasetManager(String terracottaServerUrl, String securityPath) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       initCommonObjectsAndClasses();
@@ -440,6 +529,7 @@ public class DatasetManagerBusinessReflectionImpl {
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "initializeDatasetManager", terracottaServerUrl);
   }
 
   private void initCommonObjectsAndClasses() throws Exception {
@@ -451,14 +541,17 @@ public class DatasetManagerBusinessReflectionImpl {
   }
 
   public void close() {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Method closeMethod = datasetManagerClass.getMethod("close");
+      stopPounding();
       closeMethod.invoke(datasetManager);
-      poundingMap.clear();
+      facadesByInstanceName.clear();
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "closeDatasetManager", null);
   }
 
   public boolean isDatasetManagerAlive() {
@@ -469,6 +562,14 @@ public class DatasetManagerBusinessReflectionImpl {
     return kitAwareClassLoaderDelegator.getUrlClassLoader().loadClass(className);
   }
 
+  private DatasetDispatch datasetDispatch() {
+    DatasetDispatch datasetDispatch = kitAwareClassLoaderDelegator.getDatasetDispatch();
+    if (datasetDispatch == null) {
+      throw new IllegalStateException("The kit does not contain TC Store");
+    }
+    return datasetDispatch;
+  }
+
   public Collection<String> retrieveDatasetNames() {
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
@@ -481,6 +582,7 @@ public class DatasetManagerBusinessReflectionImpl {
   }
 
   public void createDataset(String datasetName, DatasetConfiguration datasetConfiguration) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Class<?> indexSettingsClass = loadClass("com.terracottatech.store.indexing.IndexSettings");
@@ -518,6 +620,7 @@ public class DatasetManagerBusinessReflectionImpl {
         Map<String, Object> instancesByName = new TreeMap<>();
         instancesByName.put(instanceName, datasetInstance);
         datasetInstancesByDatasetName.put(datasetName, instancesByName);
+        facadesByInstanceName.put(instanceName, datasetDispatch().bind(datasetInstance));
       } catch (NoSuchMethodException e) {
         // use new api
         createDatasetMethod = datasetManagerClass.getMethod("newDataset", String.class, typeClass, datasetConfigurationClass);
@@ -528,6 +631,7 @@ public class DatasetManagerBusinessReflectionImpl {
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "createDataset", datasetName);
   }
 
   private Object toKeyType(String keyTypeStr) throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException {
@@ -544,6 +648,7 @@ public class DatasetManagerBusinessReflectionImpl {
   }
 
   public void destroyDataset(String datasetName) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Method destroyDatasetMethod = datasetManagerClass.getMethod("destroyDataset", String.class);
@@ -551,6 +656,7 @@ public class DatasetManagerBusinessReflectionImpl {
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "destroyDataset", datasetName);
   }
 
   public Set<String> getDatasetInstanceNames(String datasetName) {
@@ -583,7 +689,9 @@ public class DatasetManagerBusinessReflectionImpl {
   }
 
   public void closeDatasetInstance(String datasetName, String instanceName) {
-    poundingMap.remove(instanceName);
+    Object event = PounderEvents.beginLifecycle();
+    stopPounding(instanceName);
+    facadesByInstanceName.remove(instanceName);
     Object datasetInstance = datasetInstancesByDatasetName.get(datasetName).get(instanceName);
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
@@ -593,9 +701,11 @@ public class DatasetManagerBusinessReflectionImpl {
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
+    PounderEvents.commitLifecycle(event, "closeDatasetInstance", instanceName);
   }
 
   public String createDatasetInstance(String datasetName) {
+    Object event = PounderEvents.beginLifecycle();
     try {
       Thread.currentThread().setContextClassLoader(kitAwareClassLoaderDelegator.getUrlClassLoader());
       Method listDatasetsMethod = datasetManagerClass.getMethod("listDatasets");
@@ -607,6 +717,8 @@ public class DatasetManagerBusinessReflectionImpl {
       datasetInstancesByDatasetName.computeIfAbsent(datasetName, k -> new TreeMap<>());
 
       datasetInstancesByDatasetName.get(datasetName).put(instanceName, datasetInstance);
+      facadesByInstanceName.put(instanceName, datasetDispatch().bind(datasetInstance));
+      PounderEvents.commitLifecycle(event, "createDatasetInstance", instanceName);
       return instanceName;
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -0,0 +1,40 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.stream.Stream;
+
+/**
+ * Typed view of a {@code com.terracottatech.store.DatasetWriterReader}, bound once per dataset instance
+ * (see {@link DatasetDispatch#bind(Object)}).
+ * <p>
+ * Keys must already be of the JDK type returned by {@link #getKeyType()}, and cells must be arrays created
+ * with {@link DatasetDispatch#newCellArray(int)}.
+ */
+interface DatasetWriterReaderFacade {
+
+  Class<?> getKeyType();
+
+  boolean add(Object key, Object[] cells);
+
+  boolean update(Object key, Object updateOperation);
+
+  boolean delete(Object key);
+
+  Object get(Object key);
+
+  Stream<?> records();
+}
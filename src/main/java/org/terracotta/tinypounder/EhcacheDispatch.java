@@ -0,0 +1,193 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ehcache methods used while pounding, resolved once against the kit class loader.
+ * <p>
+ * An instance is built by {@link KitAwareClassLoaderDelegator} each time the kit changes, so that the pounding
+ * threads never go through {@code loadClass} / {@code getMethod} for each cache operation.
+ */
+class EhcacheDispatch {
+
+  private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class, Object.class);
+  private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class, Object.class);
+
+  private final MethodHandle get;
+  private final MethodHandle put;
+  private final MethodHandle remove;
+  private final MethodHandle putIfAbsent;
+  private final MethodHandle replace;
+  private final MethodHandle containsKey;
+  private final MethodHandle getAll;
+  private final MethodHandle putAll;
+  private final MethodHandle removeAll;
+  private final MethodHandle clear;
+  private final MethodHandle getCache;
+  private final MethodHandle getStatus;
+
+  private EhcacheDispatch(ClassLoader classLoader) throws ReflectiveOperationException {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    Class<?> cacheClass = classLoader.loadClass("org.ehcache.Cache");
+    Class<?> cacheManagerClass = classLoader.loadClass("org.ehcache.core.EhcacheManager");
+
+    get = lookup.unreflect(cacheClass.getMethod("get", Object.class)).asType(GETTER);
+    put = lookup.unreflect(cacheClass.getMethod("put", Object.class, Object.class)).asType(SETTER);
+    remove = lookup.unreflect(cacheClass.getMethod("remove", Object.class))
+        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+    putIfAbsent = lookup.unreflect(cacheClass.getMethod("putIfAbsent", Object.class, Object.class))
+        .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+    replace = lookup.unreflect(cacheClass.getMethod("replace", Object.class, Object.class))
+        .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+    containsKey = lookup.unreflect(cacheClass.getMethod("containsKey", Object.class))
+        .asType(MethodType.methodType(boolean.class, Object.class, Object.class));
+    getAll = lookup.unreflect(cacheClass.getMethod("getAll", Set.class))
+        .asType(MethodType.methodType(Map.class, Object.class, Set.class));
+    putAll = lookup.unreflect(cacheClass.getMethod("putAll", Map.class))
+        .asType(MethodType.methodType(void.class, Object.class, Map.class));
+    removeAll = lookup.unreflect(cacheClass.getMethod("removeAll", Set.class))
+        .asType(MethodType.methodType(void.class, Object.class, Set.class));
+    clear = lookup.unreflect(cacheClass.getMethod("clear"))
+        .asType(MethodType.methodType(void.class, Object.class));
+    getCache = lookup.unreflect(cacheManagerClass.getMethod("getCache", String.class, Class.class, Class.class))
+        .asType(MethodType.methodType(Object.class, Object.class, String.class, Class.class, Class.class));
+    getStatus = lookup.unreflect(cacheManagerClass.getMethod("getStatus"))
+        .asType(MethodType.methodType(Object.class, Object.class));
+  }
+
+  /**
+   * @return the resolved methods, or null if the class loader does not see any Ehcache 3 library
+   */
+  static EhcacheDispatch resolve(ClassLoader classLoader) {
+    try {
+      return new EhcacheDispatch(classLoader);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+  Object get(Object cache, Object key) {
+    try {
+      return (Object) get.invokeExact(cache, key);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  void put(Object cache, Object key, Object value) {
+    try {
+      put.invokeExact(cache, key, value);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  void remove(Object cache, Object key) {
+    try {
+      remove.invokeExact(cache, key);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Object putIfAbsent(Object cache, Object key, Object value) {
+    try {
+      return (Object) putIfAbsent.invokeExact(cache, key, value);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Object replace(Object cache, Object key, Object value) {
+    try {
+      return (Object) replace.invokeExact(cache, key, value);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  boolean containsKey(Object cache, Object key) {
+    try {
+      return (boolean) containsKey.invokeExact(cache, key);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Map<?, ?> getAll(Object cache, Set<?> keys) {
+    try {
+      return (Map<?, ?>) getAll.invokeExact(cache, keys);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  void putAll(Object cache, Map<?, ?> entries) {
+    try {
+      putAll.invokeExact(cache, entries);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  void removeAll(Object cache, Set<?> keys) {
+    try {
+      removeAll.invokeExact(cache, keys);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  void clear(Object cache) {
+    try {
+      clear.invokeExact(cache);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Object getCache(Object cacheManager, String alias, Class<?> keyType, Class<?> valueType) {
+    try {
+      return (Object) getCache.invokeExact(cacheManager, alias, keyType, valueType);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  Object getStatus(Object cacheManager) {
+    try {
+      return (Object) getStatus.invokeExact(cacheManager);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  static RuntimeException propagate(Throwable t) {
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    if (t instanceof RuntimeException) {
+      return (RuntimeException) t;
+    }
+    return new RuntimeException(t);
+  }
+}
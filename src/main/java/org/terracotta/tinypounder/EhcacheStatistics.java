@@ -0,0 +1,137 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics service handed over to the cache manager when it is built, so that the tiers of its caches can be
+ * looked at while pounding.
+ * <p>
+ * The service implementation moved between Ehcache versions, so it is looked up under its known class names;
+ * kits older than Ehcache 3.5 do not have it at all.
+ */
+class EhcacheStatistics {
+
+  private static final String[] STATISTICS_SERVICE_CLASSES = {
+      "org.ehcache.core.internal.statistics.DefaultStatisticsService",
+      "org.ehcache.core.statistics.DefaultStatisticsService"
+  };
+
+  private final Object statisticsService;
+  private final Method getCacheStatistics;
+  private final Method getTierStatistics;
+  private final Method getCacheHits;
+  private final Method getCacheMisses;
+  // TierStatistics getters, by TierMetric ordinal
+  private final Method[] tierGetters = new Method[TierMetric.values().length];
+
+  private EhcacheStatistics(ClassLoader classLoader, Class<?> statisticsServiceClass) throws ReflectiveOperationException {
+    Class<?> cacheStatisticsClass = classLoader.loadClass("org.ehcache.core.statistics.CacheStatistics");
+    Class<?> tierStatisticsClass = classLoader.loadClass("org.ehcache.core.statistics.TierStatistics");
+    statisticsService = statisticsServiceClass.getConstructor().newInstance();
+    getCacheStatistics = classLoader.loadClass("org.ehcache.core.spi.service.StatisticsService").getMethod("getCacheStatistics", String.class);
+    getTierStatistics = cacheStatisticsClass.getMethod("getTierStatistics");
+    getCacheHits = cacheStatisticsClass.getMethod("getCacheHits");
+    getCacheMisses = cacheStatisticsClass.getMethod("getCacheMisses");
+    for (TierMetric metric : TierMetric.values()) {
+      tierGetters[metric.ordinal()] = tierStatisticsClass.getMethod(metric.getter());
+    }
+  }
+
+  /**
+   * @return a new statistics service, or null if the kit does not have any
+   */
+  static EhcacheStatistics create(ClassLoader classLoader) {
+    for (String className : STATISTICS_SERVICE_CLASSES) {
+      try {
+        return new EhcacheStatistics(classLoader, classLoader.loadClass(className));
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // try the next location
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the service to register with the cache manager builder
+   */
+  Object getStatisticsService() {
+    return statisticsService;
+  }
+
+  /**
+   * @return the usage of each tier of the cache by tier name (OnHeap, OffHeap, Disk, Clustered), or an empty map
+   * if the cache is unknown to the cache manager
+   */
+  Map<String, TierUsage> tierUsages(String cacheAlias) {
+    Map<String, TierUsage> usages = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    tierCounters(cacheAlias).forEach((tier, counters) ->
+        usages.put(tier, new TierUsage(tier, counters[TierMetric.MAPPINGS.ordinal()], counters[TierMetric.OCCUPIED_BYTES.ordinal()])));
+    return usages;
+  }
+
+  /**
+   * @return the value of each {@link TierMetric}, by ordinal, of each tier of the cache by tier name, or an empty
+   * map if the cache is unknown to the cache manager
+   */
+  Map<String, long[]> tierCounters(String cacheAlias) {
+    Object cacheStatistics = cacheStatistics(cacheAlias);
+    if (cacheStatistics == null) {
+      return Collections.emptyMap();
+    }
+    try {
+      Map<String, long[]> tierCounters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) getTierStatistics.invoke(cacheStatistics)).entrySet()) {
+        long[] counters = new long[tierGetters.length];
+        for (int i = 0; i < tierGetters.length; i++) {
+          counters[i] = (long) tierGetters[i].invoke(entry.getValue());
+        }
+        tierCounters.put((String) entry.getKey(), counters);
+      }
+      return tierCounters;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return the hits and the misses of the cache since it was created, or null if the cache is unknown to the
+   * cache manager
+   */
+  long[] hitsAndMisses(String cacheAlias) {
+    Object cacheStatistics = cacheStatistics(cacheAlias);
+    if (cacheStatistics == null) {
+      return null;
+    }
+    try {
+      return new long[] {(long) getCacheHits.invoke(cacheStatistics), (long) getCacheMisses.invoke(cacheStatistics)};
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Object cacheStatistics(String cacheAlias) {
+    try {
+      return getCacheStatistics.invoke(statisticsService, cacheAlias);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+}
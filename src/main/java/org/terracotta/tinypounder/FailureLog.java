@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The failures of a pounded target : the first one is printed with its stack trace, the next ones are only
+ * counted and summed up at most once per {@value #PERIOD_SECONDS} seconds, so that a closed cache or a down
+ * cluster failing every op does not flood the output.
+ */
+final class FailureLog {
+
+  private static final long PERIOD_SECONDS = 10;
+  private static final long PERIOD_NANOS = TimeUnit.SECONDS.toNanos(PERIOD_SECONDS);
+
+  private final String target;
+  private final AtomicBoolean first = new AtomicBoolean(true);
+  private final AtomicLong unreported = new AtomicLong();
+  private final AtomicLong lastReportNanos = new AtomicLong(System.nanoTime());
+
+  FailureLog(String target) {
+    this.target = target;
+  }
+
+  void failed(Exception e) {
+    if (first.getAndSet(false)) {
+      System.err.println("Pounding " + target + " failed, next failures are summed up every " + PERIOD_SECONDS + " seconds");
+      e.printStackTrace();
+      lastReportNanos.set(System.nanoTime());
+      return;
+    }
+    unreported.incrementAndGet();
+    long now = System.nanoTime();
+    long lastReport = lastReportNanos.get();
+    if (now - lastReport >= PERIOD_NANOS && lastReportNanos.compareAndSet(lastReport, now)) {
+      System.err.println("Pounding " + target + " failed " + unreported.getAndSet(0) + " more times, lastly with " + e);
+    }
+  }
+}
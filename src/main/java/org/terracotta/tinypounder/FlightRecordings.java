@@ -0,0 +1,87 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The Flight Recorder recording started from the UI or the API, saved as a .jfr file under the base location once
+ * stopped. A single recording runs at a time.
+ */
+@Service
+public class FlightRecordings {
+
+  private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private Object recording;
+  private Path file;
+
+  public boolean isAvailable() {
+    return PounderEvents.isAvailable();
+  }
+
+  public synchronized boolean isRecording() {
+    return recording != null;
+  }
+
+  /**
+   * @return the file the recording will be saved to
+   */
+  public synchronized Path start(String baseLocation) {
+    if (!isAvailable()) {
+      throw new IllegalStateException("This JVM has no Flight Recorder");
+    }
+    if (recording != null) {
+      throw new IllegalStateException("Already recording to " + file);
+    }
+    Path file = Paths.get(baseLocation, "tinypounder-" + FILE_TIMESTAMP.format(LocalDateTime.now()) + ".jfr");
+    try {
+      recording = PounderEvents.JFR.startRecording(file);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    this.file = file;
+    return file;
+  }
+
+  /**
+   * @return the file the recording was saved to
+   */
+  public synchronized Path stop() {
+    if (recording == null) {
+      throw new IllegalStateException("No recording is running");
+    }
+    try {
+      return PounderEvents.JFR.stopRecording(recording);
+    } finally {
+      recording = null;
+      file = null;
+    }
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (recording != null) {
+      stop();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Keeps the hit ratio of a pounded cache close to a target by resizing the key space it is pounded with.
+ * <p>
+ * With uniform keys, the hit ratio is about the number of cached entries divided by the key space, so the key
+ * space is scaled by the measured over the target ratio; other distributions converge over a few periods.
+ * Each step is bounded, and the period following a change is only used as a new baseline.
+ */
+class HitRatioController {
+
+  // fewer lookups than that over a period do not tell much about the hit ratio
+  private static final long MIN_LOOKUPS = 100;
+  private static final double MAX_STEP = 4;
+  private static final double TOLERANCE = 0.01;
+  private static final long MIN_KEY_SPACE = 10;
+
+  private final double targetHitRatio;
+  private volatile PoundingEngine.PoundingTask task;
+  private long lastHits = -1;
+  private long lastMisses;
+  private volatile double hitRatio = -1;
+  private volatile long keySpace;
+
+  /**
+   * @param targetHitRatio between 0 and 1
+   */
+  HitRatioController(double targetHitRatio) {
+    if (targetHitRatio <= 0 || targetHitRatio > 1) {
+      throw new IllegalArgumentException("Target hit ratio must be above 0% and at most 100%: " + targetHitRatio * 100);
+    }
+    this.targetHitRatio = targetHitRatio;
+  }
+
+  /**
+   * @return the key space to pound with from now on
+   */
+  synchronized long adjust(long currentKeySpace, long hits, long misses) {
+    keySpace = currentKeySpace;
+    if (lastHits < 0) {
+      lastHits = hits;
+      lastMisses = misses;
+      return currentKeySpace;
+    }
+    long periodHits = hits - lastHits;
+    long periodMisses = misses - lastMisses;
+    if (periodHits + periodMisses < MIN_LOOKUPS) {
+      return currentKeySpace;
+    }
+    hitRatio = periodHits / (double) (periodHits + periodMisses);
+    if (Math.abs(hitRatio - targetHitRatio) < TOLERANCE) {
+      lastHits = hits;
+      lastMisses = misses;
+      return currentKeySpace;
+    }
+    double factor = hitRatio >= 1 ? MAX_STEP : Math.max(1 / MAX_STEP, Math.min(MAX_STEP, hitRatio / targetHitRatio));
+    keySpace = Math.max(MIN_KEY_SPACE, (long) (currentKeySpace * factor));
+    lastHits = -1;
+    return keySpace;
+  }
+
+  void setTask(PoundingEngine.PoundingTask task) {
+    this.task = task;
+  }
+
+  /**
+   * Returns once the controller stopped adjusting; not synchronized, as it waits for an adjustment in progress.
+   */
+  void stop() {
+    PoundingEngine.PoundingTask task = this.task;
+    if (task != null) {
+      task.cancel();
+    }
+  }
+
+  HitRatioStatus status() {
+    return new HitRatioStatus(targetHitRatio * 100, hitRatio < 0 ? -1 : hitRatio * 100, keySpace);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Target versus measured hit ratio of a cache, along with the key space it is pounded with to get there.
+ */
+public class HitRatioStatus {
+
+  public static final HitRatioStatus NONE = new HitRatioStatus(0, -1, 0);
+
+  private final double targetHitRatio;
+  private final double hitRatio;
+  private final long keySpace;
+
+  /**
+   * @param targetHitRatio in percent, 0 when the hit ratio is not controlled
+   * @param hitRatio in percent, -1 until measured
+   */
+  public HitRatioStatus(double targetHitRatio, double hitRatio, long keySpace) {
+    this.targetHitRatio = targetHitRatio;
+    this.hitRatio = hitRatio;
+    this.keySpace = keySpace;
+  }
+
+  public double getTargetHitRatio() {
+    return targetHitRatio;
+  }
+
+  public double getHitRatio() {
+    return hitRatio;
+  }
+
+  public long getKeySpace() {
+    return keySpace;
+  }
+
+  @Override
+  public String toString() {
+    if (targetHitRatio == 0) {
+      return "";
+    }
+    return String.format("%s / %.1f%% hits over %d keys", hitRatio < 0 ? "?" : String.format("%.1f%%", hitRatio), targetHitRatio, keySpace);
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.nio.file.Path;
+
+/**
+ * The Flight Recorder events and recordings, implemented against the jdk.jfr API in src/main/jfr so that the
+ * application still builds and runs on Java 8.
+ */
+interface JfrSupport {
+
+  boolean isAvailable();
+
+  /**
+   * @return the started event, or null if no recording wants it
+   */
+  Object beginTick();
+
+  void commitTick(Object tick, String kind, String target, long ops);
+
+  Object beginLifecycle();
+
+  void commitLifecycle(Object lifecycle, String action, String target);
+
+  void serverState(String stripe, String server, String state, long pid);
+
+  /**
+   * Starts a recording with the profile settings, written to the file once stopped.
+   */
+  Object startRecording(Path file) throws Exception;
+
+  /**
+   * @return the file the recording was written to
+   */
+  Path stopRecording(Object recording);
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How the keys of a pounded target are drawn, written as one of :
+ * <ul>
+ *   <li>{@code uniform}</li>
+ *   <li>{@code zipfian:theta}, key 0 being the most popular one (0 &lt; theta &lt; 1, 0.99 by default)</li>
+ *   <li>{@code hotspot:hotKeys:hotOps}, such as hotspot:0.2:0.8 for 80% of the ops on 20% of the keys</li>
+ *   <li>{@code sequential}, cycling over the whole key space</li>
+ *   <li>{@code latest:theta}, writing keys sequentially and reading the last written ones the most</li>
+ * </ul>
+ */
+public class KeyDistribution {
+
+  public static final KeyDistribution UNIFORM = parse("uniform");
+
+  private static final double DEFAULT_THETA = 0.99;
+  // beyond that many keys, the zeta constant of the zipfian distribution is approximated by an integral
+  private static final long EXACT_ZETA_TERMS = 10_000_000;
+  // when resizing, that many terms are added or removed exactly, the others approximated by an integral
+  private static final long EXACT_RESIZE_TERMS = 10_000;
+
+  public enum Type {
+    UNIFORM, ZIPFIAN, HOTSPOT, SEQUENTIAL, LATEST
+  }
+
+  private final Type type;
+  private final double[] parameters;
+
+  private KeyDistribution(Type type, double[] parameters) {
+    this.type = type;
+    this.parameters = parameters;
+  }
+
+  public static KeyDistribution parse(String distribution) {
+    String[] splitted = distribution.trim().split(":");
+    Type type;
+    try {
+      type = Type.valueOf(splitted[0].trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown key distribution: " + splitted[0]);
+    }
+    double[] parameters = new double[splitted.length - 1];
+    for (int i = 0; i < parameters.length; i++) {
+      parameters[i] = Double.parseDouble(splitted[i + 1].trim());
+    }
+    switch (type) {
+      case ZIPFIAN:
+      case LATEST:
+        parameters = withDefaults(parameters, DEFAULT_THETA);
+        if (parameters[0] <= 0 || parameters[0] >= 1) {
+          throw new IllegalArgumentException("Theta must be between 0 and 1 (exclusive): " + distribution);
+        }
+        break;
+      case HOTSPOT:
+        parameters = withDefaults(parameters, 0.2, 0.8);
+        if (parameters[0] <= 0 || parameters[0] > 1 || parameters[1] < 0 || parameters[1] > 1) {
+          throw new IllegalArgumentException("Hot keys and hot ops must be fractions: " + distribution);
+        }
+        break;
+      default:
+        parameters = withDefaults(parameters);
+    }
+    return new KeyDistribution(type, parameters);
+  }
+
+  private static double[] withDefaults(double[] parameters, double... defaults) {
+    if (parameters.length > defaults.length) {
+      throw new IllegalArgumentException("Too many parameters, expecting at most " + defaults.length);
+    }
+    double[] result = defaults.clone();
+    System.arraycopy(parameters, 0, result, 0, parameters.length);
+    return result;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  KeyGenerator newGenerator(long keySpace) {
+    long n = Math.max(1, keySpace);
+    switch (type) {
+      case ZIPFIAN:
+        return new ZipfianGenerator(n, parameters[0]);
+      case HOTSPOT:
+        return new HotspotGenerator(n, parameters[0], parameters[1]);
+      case SEQUENTIAL:
+        return new SequentialGenerator(n);
+      case LATEST:
+        return new LatestGenerator(n, parameters[0]);
+      default:
+        return new UniformGenerator(n);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(type.name().toLowerCase(Locale.ROOT));
+    for (double parameter : parameters) {
+      sb.append(':').append(parameter);
+    }
+    return sb.toString();
+  }
+
+  private static class UniformGenerator implements KeyGenerator {
+
+    private volatile long n;
+
+    UniformGenerator(long n) {
+      this.n = n;
+    }
+
+    @Override
+    public long next() {
+      return ThreadLocalRandom.current().nextLong(n);
+    }
+
+    @Override
+    public void resize(long keySpace) {
+      n = Math.max(1, keySpace);
+    }
+  }
+
+  /**
+   * Zipfian keys, drawn as described by Gray et al. in "Quickly generating billion-record synthetic databases".
+   */
+  private static class ZipfianGenerator implements KeyGenerator {
+
+    private final double theta;
+    private final double alpha;
+    private final double zeta2;
+    private final double secondKeyThreshold;
+    private volatile KeySpace keySpace;
+
+    ZipfianGenerator(long n, double theta) {
+      this.theta = theta;
+      this.alpha = 1.0 / (1.0 - theta);
+      this.zeta2 = zeta(2, theta);
+      this.secondKeyThreshold = 1 + Math.pow(0.5, theta);
+      this.keySpace = keySpace(n, zeta(n, theta));
+    }
+
+    private KeySpace keySpace(long n, double zetan) {
+      return new KeySpace(n, zetan, n <= 2 ? 0 : (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta2 / zetan));
+    }
+
+    /**
+     * Updates zeta with the terms between the former and the new key space only, so that resizing a large key space
+     * by a few percent stays cheap.
+     */
+    @Override
+    public synchronized void resize(long newKeySpace) {
+      KeySpace current = keySpace;
+      long n = Math.max(1, newKeySpace);
+      if (n > current.n) {
+        keySpace = keySpace(n, current.zetan + zetaTerms(current.n, n, theta));
+      } else if (n < current.n) {
+        keySpace = keySpace(n, current.zetan - zetaTerms(n, current.n, theta));
+      }
+    }
+
+    /**
+     * @return the sum of the terms of zeta from + 1 to to
+     */
+    private static double zetaTerms(long from, long to, double theta) {
+      long exactEnd = Math.min(to, from + EXACT_RESIZE_TERMS);
+      double sum = 0;
+      for (long i = from + 1; i <= exactEnd; i++) {
+        sum += 1 / Math.pow(i, theta);
+      }
+      if (to > exactEnd) {
+        // the terms are close enough to the integral between the middles
+        sum += (Math.pow(to + 0.5, 1 - theta) - Math.pow(exactEnd + 0.5, 1 - theta)) / (1 - theta);
+      }
+      return sum;
+    }
+
+    private static double zeta(long n, double theta) {
+      long exactTerms = Math.min(n, EXACT_ZETA_TERMS);
+      double sum = 0;
+      for (long i = 1; i <= exactTerms; i++) {
+        sum += 1 / Math.pow(i, theta);
+      }
+      if (n > exactTerms) {
+        sum += (Math.pow(n, 1 - theta) - Math.pow(exactTerms, 1 - theta)) / (1 - theta);
+      }
+      return sum;
+    }
+
+    @Override
+    public long next() {
+      KeySpace keySpace = this.keySpace;
+      long n = keySpace.n;
+      double u = ThreadLocalRandom.current().nextDouble();
+      double uz = u * keySpace.zetan;
+      if (uz < 1) {
+        return 0;
+      }
+      if (uz < secondKeyThreshold) {
+        return Math.min(1, n - 1);
+      }
+      return Math.min(n - 1, (long) (n * Math.pow(keySpace.eta * u - keySpace.eta + 1, alpha)));
+    }
+
+    private static final class KeySpace {
+
+      private final long n;
+      private final double zetan;
+      private final double eta;
+
+      private KeySpace(long n, double zetan, double eta) {
+        this.n = n;
+        this.zetan = zetan;
+        this.eta = eta;
+      }
+    }
+  }
+
+  private static class HotspotGenerator implements KeyGenerator {
+
+    private final double hotKeysFraction;
+    private final double hotOps;
+    // n and the number of hot keys, changed together
+    private volatile long[] keySpace;
+
+    HotspotGenerator(long n, double hotKeysFraction, double hotOps) {
+      this.hotKeysFraction = hotKeysFraction;
+      this.hotOps = hotOps;
+      resize(n);
+    }
+
+    @Override
+    public long next() {
+      long[] keySpace = this.keySpace;
+      long n = keySpace[0];
+      long hotKeys = keySpace[1];
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      if (hotKeys == n || random.nextDouble() < hotOps) {
+        return random.nextLong(hotKeys);
+      }
+      return random.nextLong(hotKeys, n);
+    }
+
+    @Override
+    public void resize(long newKeySpace) {
+      long n = Math.max(1, newKeySpace);
+      keySpace = new long[]{n, Math.max(1, Math.min(n, (long) (n * hotKeysFraction)))};
+    }
+  }
+
+  private static class SequentialGenerator implements KeyGenerator {
+
+    private volatile long n;
+    private final AtomicLong counter = new AtomicLong();
+
+    SequentialGenerator(long n) {
+      this.n = n;
+    }
+
+    @Override
+    public long next() {
+      return Math.floorMod(counter.getAndIncrement(), n);
+    }
+
+    @Override
+    public void resize(long keySpace) {
+      n = Math.max(1, keySpace);
+    }
+  }
+
+  /**
+   * Writes keys one after the other, and reads the most recently written ones following a zipfian distribution.
+   */
+  private static class LatestGenerator implements KeyGenerator {
+
+    private volatile long n;
+    private final ZipfianGenerator recency;
+    private final AtomicLong inserted = new AtomicLong();
+
+    LatestGenerator(long n, double theta) {
+      this.n = n;
+      this.recency = new ZipfianGenerator(n, theta);
+    }
+
+    @Override
+    public long next() {
+      return Math.floorMod(inserted.get() - 1 - recency.next(), n);
+    }
+
+    @Override
+    public long nextInsert() {
+      return Math.floorMod(inserted.getAndIncrement(), n);
+    }
+
+    @Override
+    public void resize(long keySpace) {
+      recency.resize(keySpace);
+      n = Math.max(1, keySpace);
+    }
+  }
+}
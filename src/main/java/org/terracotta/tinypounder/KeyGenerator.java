@@ -0,0 +1,42 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Draws the keys of a pounded target, between 0 (inclusive) and its key space (exclusive), in constant time.
+ * <p>
+ * Implementations are shared by all the workers of a target, so they must be thread safe.
+ */
+interface KeyGenerator {
+
+  /**
+   * @return the key to read, update or remove
+   */
+  long next();
+
+  /**
+   * @return the key to write a new value to
+   */
+  default long nextInsert() {
+    return next();
+  }
+
+  /**
+   * Changes the key space the next keys are drawn from, keeping the state of the generator, such as where its
+   * sequence is at.
+   */
+  void resize(long keySpace);
+}
@@ -33,11 +33,16 @@ import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
 
 @Service
 public class KitAwareClassLoaderDelegator {
 
   private ClassLoader urlClassLoader = Thread.currentThread().getContextClassLoader();
+  private volatile EhcacheDispatch ehcacheDispatch;
+  private volatile DatasetDispatch datasetDispatch;
 
   @Autowired
   private Settings settings;
@@ -53,12 +58,28 @@ public class KitAwareClassLoaderDelegator {
         settings.setKitPath(null); // clear the kit path so that at next startup it is not called with an invalid one
       }
     }
+    ehcacheDispatch = EhcacheDispatch.resolve(urlClassLoader);
+    datasetDispatch = DatasetDispatch.resolve(urlClassLoader);
   }
 
   public ClassLoader getUrlClassLoader() {
     return urlClassLoader;
   }
 
+  /**
+   * @return the Ehcache methods resolved against the current kit, or null if the kit does not contain Ehcache
+   */
+  EhcacheDispatch getEhcacheDispatch() {
+    return ehcacheDispatch;
+  }
+
+  /**
+   * @return the TC Store methods resolved against the current kit, or null if the kit does not contain TC Store
+   */
+  DatasetDispatch getDatasetDispatch() {
+    return datasetDispatch;
+  }
+
   private static URL[] discoverKitClientJars(String kitPath) throws Exception {
     // this map helps avoiding errors like this one by avoiding putting duplicated jars in classpath:
     // MULTIPLE instances of org.terracotta.lease.LeaseAcquirerClientService found, ignoring:file:/Users/mathieu/Downloads/terracotta-db-10.3.0-SNAPSHOT/client/lib/terracotta-common-client-10.3.0-SNAPSHOT.jar keeping:file:/Users/mathieu/Downloads/terracotta-db-10.3.0-SNAPSHOT/client/ehcache/terracotta-ehcache-client-10.3.0-SNAPSHOT.jar using classloader:java.net.FactoryURLClassLoader@6505414e
@@ -135,6 +156,42 @@ public class KitAwareClassLoaderDelegator {
     }
   }
 
+  /**
+   * @return the versions of the Ehcache and TC Store clients of the kit, as found in their jar manifests, or null if
+   * the kit contains neither
+   */
+  public String getKitVersion() {
+    StringJoiner versions = new StringJoiner(", ");
+    String ehcacheVersion = clientVersion("org.ehcache.CacheManager");
+    if (ehcacheVersion != null) {
+      versions.add("Ehcache " + ehcacheVersion);
+    }
+    String storeVersion = clientVersion("com.terracottatech.store.manager.DatasetManager");
+    if (storeVersion != null) {
+      versions.add("TC Store " + storeVersion);
+    }
+    return versions.length() == 0 ? null : versions.toString();
+  }
+
+  private String clientVersion(String className) {
+    try {
+      Class<?> clientClass = urlClassLoader.loadClass(className);
+      String version = clientClass.getPackage() == null ? null : clientClass.getPackage().getImplementationVersion();
+      if (version != null) {
+        return version;
+      }
+      File jar = new File(clientClass.getProtectionDomain().getCodeSource().getLocation().toURI());
+      try (JarFile jarFile = new JarFile(jar)) {
+        Attributes attributes = jarFile.getManifest().getMainAttributes();
+        version = attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION);
+        return version != null ? version : attributes.getValue("Bundle-Version");
+      }
+    } catch (Exception e) {
+      // not in the kit, or not packaged in a jar with a manifest
+      return null;
+    }
+  }
+
   public boolean verifySecurityPath(String securityPath) {
     if (securityPath != null && !securityPath.isEmpty()) {
       Path path = Paths.get(securityPath);
@@ -155,6 +212,9 @@ public class KitAwareClassLoaderDelegator {
       } catch (Exception e) {
         throw new RuntimeException("Please make sure the kitPath is properly set, current value is : " + kitPath, e);
       }
+      // the previous kit methods must not be used anymore
+      ehcacheDispatch = EhcacheDispatch.resolve(urlClassLoader);
+      datasetDispatch = DatasetDispatch.resolve(urlClassLoader);
     }
   }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Percentiles of a {@link LatencyHistogram} at a given time; values are in nanoseconds.
+ */
+public class LatencySnapshot {
+
+  private final long count;
+  private final long p50;
+  private final long p99;
+  private final long p999;
+  private final long max;
+
+  @JsonCreator
+  public LatencySnapshot(@JsonProperty("count") long count, @JsonProperty("p50") long p50, @JsonProperty("p99") long p99,
+                         @JsonProperty("p999") long p999, @JsonProperty("max") long max) {
+    this.count = count;
+    this.p50 = p50;
+    this.p99 = p99;
+    this.p999 = p999;
+    this.max = max;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getP50() {
+    return p50;
+  }
+
+  public long getP99() {
+    return p99;
+  }
+
+  public long getP999() {
+    return p999;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("p50 %.3f / p99 %.3f / p99.9 %.3f / max %.3f ms (%d ops)",
+        p50 / 1_000_000.0, p99 / 1_000_000.0, p999 / 1_000_000.0, max / 1_000_000.0, count);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the output of a process into UTF-8 lines, each one kept in the console lines (dropping the oldest ones
+ * when full) and handed over to the listener; the bytes of each line also go to the output capture, if any.
+ * <p>
+ * Output is expected in chunks, as the process pipe reads it : lines that fit in a chunk are decoded straight from
+ * it, and only the start of a line cut by the end of a chunk is copied until the rest of it comes. The decoder and
+ * its char buffer are reused from line to line, so a line costs nothing more than its String.
+ * <p>
+ * Not thread safe : the process pipe writes from a single thread.
+ */
+class LineDecoder extends OutputStream {
+
+  private static final byte NEW_LINE = '\n';
+
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final Queue<String> consoleLines;
+  private final Consumer<String> onNewLine;
+  private final OutputCapture capture;
+
+  // start of the line being written, until its new line comes
+  private byte[] pending = new byte[256];
+  private int pendingLength;
+  private CharBuffer chars = CharBuffer.allocate(256);
+
+  LineDecoder(Queue<String> consoleLines, Consumer<String> onNewLine) {
+    this(consoleLines, onNewLine, null);
+  }
+
+  /**
+   * @param capture null if the output is not captured
+   */
+  LineDecoder(Queue<String> consoleLines, Consumer<String> onNewLine, OutputCapture capture) {
+    this.consoleLines = consoleLines;
+    this.onNewLine = onNewLine;
+    this.capture = capture;
+  }
+
+  @Override
+  public void write(int b) {
+    append((byte) b);
+    if (((byte) b) == NEW_LINE) {
+      emitPending();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    int end = off + len;
+    int lineStart = off;
+    for (int i = off; i < end; i++) {
+      if (b[i] == NEW_LINE) {
+        if (pendingLength == 0) {
+          emit(ByteBuffer.wrap(b, lineStart, i + 1 - lineStart));
+        } else {
+          append(b, lineStart, i + 1 - lineStart);
+          emitPending();
+        }
+        lineStart = i + 1;
+      }
+    }
+    if (lineStart < end) {
+      append(b, lineStart, end - lineStart);
+    }
+  }
+
+  private void append(byte b) {
+    ensurePendingCapacity(1);
+    pending[pendingLength++] = b;
+  }
+
+  private void append(byte[] b, int off, int len) {
+    ensurePendingCapacity(len);
+    System.arraycopy(b, off, pending, pendingLength, len);
+    pendingLength += len;
+  }
+
+  private void ensurePendingCapacity(int more) {
+    if (pendingLength + more > pending.length) {
+      pending = Arrays.copyOf(pending, Math.max(pendingLength + more, pending.length * 2));
+    }
+  }
+
+  private void emitPending() {
+    emit(ByteBuffer.wrap(pending, 0, pendingLength));
+    pendingLength = 0;
+  }
+
+  private void emit(ByteBuffer line) {
+    if (capture != null) {
+      capture.append(line);
+    }
+    // UTF-8 never decodes to more chars than bytes, replacements included
+    if (chars.capacity() < line.remaining()) {
+      chars = CharBuffer.allocate(Math.max(line.remaining(), chars.capacity() * 2));
+    }
+    chars.clear();
+    decoder.reset();
+    decoder.decode(line, chars, true);
+    decoder.flush(chars);
+    String newLine = new String(chars.array(), 0, chars.position());
+    while (!consoleLines.offer(newLine)) {
+      consoleLines.poll();
+    }
+    onNewLine.accept(newLine);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Prometheus scrape endpoint, in the text exposition format, rendered from the {@link PoundingSnapshots} and the
+ * {@link RunningServers}.
+ * <p>
+ * Op and error counters, and the sum and count of latency summaries, are counted since each target was first
+ * pounded ; latency quantiles cover the ops since the pounding of the target last changed.
+ */
+@RestController
+public class MetricsController {
+
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+  private final PoundingSnapshots poundingSnapshots;
+  private final RunningServers runningServers;
+
+  @Autowired
+  public MetricsController(PoundingSnapshots poundingSnapshots, RunningServers runningServers) {
+    this.poundingSnapshots = poundingSnapshots;
+    this.runningServers = runningServers;
+  }
+
+  @GetMapping(value = "/metrics", produces = CONTENT_TYPE)
+  public String metrics() {
+    Map<String, PoundingSnapshot> caches = poundingSnapshots.caches();
+    Map<String, PoundingSnapshot> datasetInstances = poundingSnapshots.datasetInstances();
+    StringBuilder out = new StringBuilder();
+
+    family(out, "tinypounder_ops_total", "counter", "Ops completed against a cache or a dataset instance.");
+    counters(out, "cache", caches, "tinypounder_ops_total", false);
+    counters(out, "dataset", datasetInstances, "tinypounder_ops_total", false);
+
+    family(out, "tinypounder_op_errors_total", "counter", "Ops that failed against a cache or a dataset instance.");
+    counters(out, "cache", caches, "tinypounder_op_errors_total", true);
+    counters(out, "dataset", datasetInstances, "tinypounder_op_errors_total", true);
+
+    family(out, "tinypounder_op_latency_seconds", "summary", "Latencies of the ops completed against a cache or a dataset instance.");
+    latencies(out, "cache", caches);
+    latencies(out, "dataset", datasetInstances);
+
+    family(out, "tinypounder_server_state", "gauge", "Servers started from tinypounder, 1 for their current state.");
+    for (RunningServer server : runningServers.all()) {
+      sample(out, "tinypounder_server_state", serverLabels(server) + ",state=\"" + escape(server.getState()) + "\"", 1);
+    }
+    family(out, "tinypounder_server_pid", "gauge", "Process id of the servers started from tinypounder, 0 until known.");
+    for (RunningServer server : runningServers.all()) {
+      sample(out, "tinypounder_server_pid", serverLabels(server), server.getPid());
+    }
+    family(out, "tinypounder_server_uptime_seconds", "gauge", "Time since the servers were started from tinypounder.");
+    long now = System.currentTimeMillis();
+    for (RunningServer server : runningServers.all()) {
+      sample(out, "tinypounder_server_uptime_seconds", serverLabels(server), (now - server.getStartMillis()) / 1000.0);
+    }
+    return out.toString();
+  }
+
+  private static void counters(StringBuilder out, String kind, Map<String, PoundingSnapshot> snapshots, String metric, boolean errors) {
+    for (PoundingSnapshot snapshot : snapshots.values()) {
+      snapshot.getCounters().forEach((op, counters) ->
+          sample(out, metric, targetLabels(kind, snapshot, op), errors ? counters.getErrors() : counters.getCount()));
+    }
+  }
+
+  private static void latencies(StringBuilder out, String kind, Map<String, PoundingSnapshot> snapshots) {
+    for (PoundingSnapshot snapshot : snapshots.values()) {
+      snapshot.getCounters().forEach((op, counters) -> {
+        String labels = targetLabels(kind, snapshot, op);
+        LatencySnapshot latencies = snapshot.getLatencies().get(op);
+        if (latencies != null) {
+          long[] values = {latencies.getP50(), latencies.getP99(), latencies.getP999()};
+          for (int i = 0; i < QUANTILES.length; i++) {
+            sample(out, "tinypounder_op_latency_seconds", labels + ",quantile=\"" + QUANTILES[i] + "\"", values[i] / 1e9);
+          }
+        }
+        sample(out, "tinypounder_op_latency_seconds_sum", labels, counters.getLatencySumNanos() / 1e9);
+        sample(out, "tinypounder_op_latency_seconds_count", labels, counters.getCount());
+      });
+    }
+  }
+
+  private static String targetLabels(String kind, PoundingSnapshot snapshot, String op) {
+    return "kind=\"" + kind + "\",name=\"" + escape(snapshot.getName()) + "\",op=\"" + op + "\"";
+  }
+
+  private static String serverLabels(RunningServer server) {
+    return "stripe=\"" + escape(server.getStripeName()) + "\",server=\"" + escape(server.getServerName()) + "\"";
+  }
+
+  private static void family(StringBuilder out, String metric, String type, String help) {
+    out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String metric, String labels, double value) {
+    out.append(metric).append('{').append(labels).append("} ");
+    if (value == Math.rint(value) && !Double.isInfinite(value)) {
+      out.append((long) value);
+    } else {
+      out.append(value);
+    }
+    out.append('\n');
+  }
+
+  private static String escape(String labelValue) {
+    return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Ops of one type run against a cache or dataset instance since it was first pounded.
+ */
+public class OpCounters {
+
+  private final long count;
+  private final long latencySumNanos;
+  private final long errors;
+
+  public OpCounters(long count, long latencySumNanos, long errors) {
+    this.count = count;
+    this.latencySumNanos = latencySumNanos;
+    this.errors = errors;
+  }
+
+  /**
+   * @return the ops that completed
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the latencies of the ops that completed, added up
+   */
+  public long getLatencySumNanos() {
+    return latencySumNanos;
+  }
+
+  /**
+   * @return the ops that failed
+   */
+  public long getErrors() {
+    return errors;
+  }
+
+  @Override
+  public String toString() {
+    return count + " ops, " + errors + " errors";
+  }
+}
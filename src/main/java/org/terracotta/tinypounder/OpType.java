@@ -0,0 +1,65 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * The operations issued by the pounders, caches first then datasets.
+ */
+public enum OpType {
+  GET("get"),
+  PUT("put"),
+  REMOVE("remove"),
+  PUT_IF_ABSENT("putIfAbsent"),
+  REPLACE("replace"),
+  CONTAINS_KEY("containsKey"),
+  GET_ALL("getAll"),
+  PUT_ALL("putAll"),
+  REMOVE_ALL("removeAll"),
+  INSERT("insert"),
+  UPDATE("update"),
+  DELETE("delete"),
+  STREAM("stream"),
+  RETRIEVE("retrieve");
+
+  private final String label;
+
+  OpType(String label) {
+    this.label = label;
+  }
+
+  public String label() {
+    return label;
+  }
+
+  /**
+   * @return true for the ops working on a batch of keys at once
+   */
+  public boolean isBulk() {
+    return this == GET_ALL || this == PUT_ALL || this == REMOVE_ALL;
+  }
+
+  /**
+   * @return the op type with that label, ignoring case
+   */
+  public static OpType fromLabel(String label) {
+    for (OpType opType : values()) {
+      if (opType.label.equalsIgnoreCase(label.trim())) {
+        return opType;
+      }
+    }
+    throw new IllegalArgumentException("Unknown operation: " + label);
+  }
+}
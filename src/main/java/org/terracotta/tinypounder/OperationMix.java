@@ -0,0 +1,97 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted operations pounding a cache, such as {@code get:95,put:5}.
+ * <p>
+ * The weights are cumulated once, so that picking the next op is a single random draw and a binary search,
+ * without any allocation ; every op with a positive weight runs, however small its weight.
+ */
+public class OperationMix {
+
+  public static final OperationMix DEFAULT = parse("put:1,remove:1,get:3");
+
+  private final Map<OpType, Integer> weights;
+  private final OpType[] ops;
+  private final long[] cumulatedWeights;
+
+  private OperationMix(Map<OpType, Integer> weights) {
+    this.weights = Collections.unmodifiableMap(weights);
+    this.ops = weights.keySet().toArray(new OpType[0]);
+    this.cumulatedWeights = new long[ops.length];
+    long total = 0;
+    for (int i = 0; i < ops.length; i++) {
+      total += weights.get(ops[i]);
+      cumulatedWeights[i] = total;
+    }
+  }
+
+  /**
+   * @param mix comma separated operation:weight pairs, such as get:95,put:5
+   */
+  public static OperationMix parse(String mix) {
+    Map<OpType, Integer> weights = new EnumMap<>(OpType.class);
+    for (String entry : mix.split(",")) {
+      if (entry.trim().isEmpty()) {
+        continue;
+      }
+      String[] splitted = entry.split(":");
+      if (splitted.length != 2) {
+        throw new IllegalArgumentException("Expecting operation:weight, got: " + entry);
+      }
+      OpType opType = OpType.fromLabel(splitted[0]);
+      if (opType.ordinal() > OpType.REMOVE_ALL.ordinal()) {
+        throw new IllegalArgumentException("Not a cache operation: " + splitted[0]);
+      }
+      int weight = Integer.parseInt(splitted[1].trim());
+      if (weight < 0) {
+        throw new IllegalArgumentException("Weights cannot be negative: " + entry);
+      }
+      if (weight > 0) {
+        weights.merge(opType, weight, Integer::sum);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("At least one operation needs a positive weight: " + mix);
+    }
+    return new OperationMix(weights);
+  }
+
+  public OpType next() {
+    long draw = ThreadLocalRandom.current().nextLong(cumulatedWeights[cumulatedWeights.length - 1]);
+    int index = Arrays.binarySearch(cumulatedWeights, draw + 1);
+    return ops[index >= 0 ? index : -index - 1];
+  }
+
+  public Map<OpType, Integer> getWeights() {
+    return weights;
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(",");
+    weights.forEach((opType, weight) -> joiner.add(opType.label() + ":" + weight));
+    return joiner.toString();
+  }
+}
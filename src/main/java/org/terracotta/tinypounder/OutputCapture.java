@@ -0,0 +1,312 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The whole output of a process, line by line, in memory-mapped segment files : a .log file with the bytes of the
+ * lines and a .idx file with, for each line, where it ends in the .log file and when it was captured.
+ * <p>
+ * Segments are capped in size and in lines; once the last one is full a new one is started, and past
+ * {@value #MAX_SEGMENTS} segments the oldest one is deleted. Lines are numbered from 0 in the order they were
+ * captured, whichever segment they are in, so that they can be paged through without ever being on the heap but for
+ * the page read.
+ * <p>
+ * Appends come from the process pipe, after the thread starting the process, and never wait on reads, which can come
+ * from any thread.
+ */
+class OutputCapture {
+
+  static final int MAX_SEGMENTS = 32;
+  static final int SEGMENT_BYTES = 16 * 1024 * 1024;
+  static final int SEGMENT_LINES = 256 * 1024;
+
+  // end offset of the line in the .log file, then its capture time
+  private static final int INDEX_ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+
+  private final String name;
+  private final File directory;
+  private final List<Segment> segments = new CopyOnWriteArrayList<>();
+  private int nextSegmentId;
+
+  /**
+   * @param name what is captured, such as the server or the tool run
+   */
+  OutputCapture(String name, File directory) {
+    this.name = name;
+    this.directory = directory;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new UncheckedIOException(new IOException("Cannot create " + directory));
+    }
+    roll();
+  }
+
+  String getName() {
+    return name;
+  }
+
+  File getDirectory() {
+    return directory;
+  }
+
+  synchronized void append(String line) {
+    append(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Appends the bytes of a line, new line included, without moving the position of the buffer.
+   */
+  synchronized void append(ByteBuffer line) {
+    ByteBuffer bytes = line.duplicate();
+    Segment segment = segments.get(segments.size() - 1);
+    if (!segment.fits(bytes.remaining())) {
+      segment.seal();
+      roll();
+      segment = segments.get(segments.size() - 1);
+    }
+    if (bytes.remaining() > SEGMENT_BYTES) {
+      bytes.limit(bytes.position() + SEGMENT_BYTES);
+    }
+    segment.append(bytes, System.currentTimeMillis());
+  }
+
+  /**
+   * @return the number of the next line, that is the number of lines ever captured
+   */
+  long lineCount() {
+    Segment last = segments.get(segments.size() - 1);
+    return last.firstLine + last.lineCount;
+  }
+
+  /**
+   * @return the number of the oldest line still kept
+   */
+  long firstLine() {
+    return segments.get(0).firstLine;
+  }
+
+  /**
+   * @return the lines kept from the given line number on, at most count of them
+   */
+  List<Line> lines(long from, int count) {
+    List<Line> lines = new ArrayList<>(Math.max(0, count));
+    long next = from;
+    for (Segment segment : segments) {
+      if (lines.size() >= count) {
+        break;
+      }
+      long end = segment.firstLine + segment.lineCount;
+      if (next >= end) {
+        continue;
+      }
+      next = Math.max(next, segment.firstLine);
+      for (; next < end && lines.size() < count; next++) {
+        lines.add(segment.line((int) (next - segment.firstLine)));
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * @return the segments kept, oldest first
+   */
+  List<Segment> segments() {
+    return Collections.unmodifiableList(new ArrayList<>(segments));
+  }
+
+  /**
+   * Trims the files of the segment being written to what it holds; lines appended afterwards go to a new segment.
+   */
+  synchronized void seal() {
+    segments.get(segments.size() - 1).seal();
+  }
+
+  private void roll() {
+    long firstLine = segments.isEmpty() ? 0 : lineCount();
+    segments.add(new Segment(new File(directory, String.format("segment-%06d", nextSegmentId++)), firstLine));
+    while (segments.size() > MAX_SEGMENTS) {
+      // readers still holding it keep its mapped buffers, the files are gone for good
+      segments.remove(0).delete();
+    }
+  }
+
+  /**
+   * A line captured, without its new line.
+   */
+  static class Line {
+
+    private final long number;
+    private final long timestamp;
+    private final String text;
+
+    Line(long number, long timestamp, String text) {
+      this.number = number;
+      this.timestamp = timestamp;
+      this.text = text;
+    }
+
+    long getNumber() {
+      return number;
+    }
+
+    /**
+     * @return when the line was captured, in milliseconds since the epoch
+     */
+    long getTimestamp() {
+      return timestamp;
+    }
+
+    String getText() {
+      return text;
+    }
+  }
+
+  /**
+   * A .log and .idx file pair, mapped for as long as the capture keeps it.
+   */
+  static class Segment {
+
+    private final File log;
+    private final File index;
+    private final long firstLine;
+    private final MappedByteBuffer logBuffer;
+    private final MappedByteBuffer indexBuffer;
+    private final TrigramFilter filter = new TrigramFilter();
+    // published after the bytes, the index entry and the trigrams of a line are written
+    private volatile int lineCount;
+    private int usedBytes;
+    private boolean sealed;
+
+    private Segment(File file, long firstLine) {
+      this.log = new File(file.getPath() + ".log");
+      this.index = new File(file.getPath() + ".idx");
+      this.firstLine = firstLine;
+      this.logBuffer = map(log, SEGMENT_BYTES);
+      this.indexBuffer = map(index, SEGMENT_LINES * INDEX_ENTRY_BYTES);
+    }
+
+    private static MappedByteBuffer map(File file, int size) {
+      try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"); FileChannel channel = randomAccessFile.getChannel()) {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    long getFirstLine() {
+      return firstLine;
+    }
+
+    int getLineCount() {
+      return lineCount;
+    }
+
+    /**
+     * @return when the first line of the segment was captured, or 0 if it has none
+     */
+    long getFirstTimestamp() {
+      return lineCount == 0 ? 0 : timestamp(0);
+    }
+
+    /**
+     * @return false if no line of the segment can hold all these trigrams, see {@link TrigramFilter#trigrams(byte[])}
+     */
+    boolean mightContainAll(int[] trigrams) {
+      return filter.mightContainAll(trigrams);
+    }
+
+    private boolean fits(int bytes) {
+      // an empty segment takes any line, cut to its size
+      return !sealed && (lineCount == 0 || (lineCount < SEGMENT_LINES && usedBytes + bytes <= SEGMENT_BYTES));
+    }
+
+    private void append(ByteBuffer bytes, long timestamp) {
+      int length = bytes.remaining();
+      filter.add(bytes);
+      ByteBuffer log = logBuffer.duplicate();
+      log.position(usedBytes);
+      log.put(bytes);
+      usedBytes += length;
+      int entry = lineCount * INDEX_ENTRY_BYTES;
+      indexBuffer.putInt(entry, usedBytes);
+      indexBuffer.putLong(entry + Integer.BYTES, timestamp);
+      lineCount = lineCount + 1;
+    }
+
+    /**
+     * @return the bytes of a line of the segment, new line included, from 0 to its line count
+     */
+    ByteBuffer bytes(int line) {
+      int start = line == 0 ? 0 : indexBuffer.getInt((line - 1) * INDEX_ENTRY_BYTES);
+      int end = indexBuffer.getInt(line * INDEX_ENTRY_BYTES);
+      ByteBuffer bytes = logBuffer.duplicate();
+      bytes.limit(end).position(start);
+      return bytes;
+    }
+
+    long timestamp(int line) {
+      return indexBuffer.getLong(line * INDEX_ENTRY_BYTES + Integer.BYTES);
+    }
+
+    Line line(int line) {
+      String text = StandardCharsets.UTF_8.decode(bytes(line)).toString();
+      int end = text.length();
+      while (end > 0 && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+        end--;
+      }
+      return new Line(firstLine + line, timestamp(line), text.substring(0, end));
+    }
+
+    /**
+     * Trims the files to the lines written; the segment must not be appended to afterwards.
+     */
+    private void seal() {
+      if (sealed) {
+        return;
+      }
+      sealed = true;
+      logBuffer.force();
+      indexBuffer.force();
+      truncate(log, usedBytes);
+      truncate(index, (long) lineCount * INDEX_ENTRY_BYTES);
+    }
+
+    private static void truncate(File file, long size) {
+      try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+        randomAccessFile.setLength(size);
+      } catch (IOException e) {
+        // some platforms do not shrink mapped files, they keep their full size
+      }
+    }
+
+    private void delete() {
+      log.delete();
+      index.delete();
+    }
+  }
+}
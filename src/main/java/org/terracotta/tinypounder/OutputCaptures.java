@@ -0,0 +1,76 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The {@link OutputCapture} of every process started from the TinyPounder, by name : the last one of each server
+ * and tool.
+ */
+@Service
+public class OutputCaptures {
+
+  private static final DateTimeFormatter DIRECTORY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private final Map<String, OutputCapture> captures = new ConcurrentSkipListMap<>();
+
+  /**
+   * Starts a capture in baseLocation/output/name/timestamp, in place of the previous one of that name.
+   */
+  synchronized OutputCapture start(String baseLocation, String name) {
+    String timestamp = DIRECTORY_TIMESTAMP.format(LocalDateTime.now());
+    File directory = new File(baseLocation, "output/" + name + "/" + timestamp);
+    for (int i = 1; directory.exists(); i++) {
+      // started again within the same second
+      directory = new File(baseLocation, "output/" + name + "/" + timestamp + "-" + i);
+    }
+    OutputCapture capture = new OutputCapture(name, directory);
+    OutputCapture previous = captures.put(name, capture);
+    if (previous != null) {
+      previous.seal();
+    }
+    return capture;
+  }
+
+  /**
+   * @return the last capture of that name, or null if there is none
+   */
+  OutputCapture get(String name) {
+    return captures.get(name);
+  }
+
+  /**
+   * @return the last capture of each name, by name
+   */
+  Collection<OutputCapture> all() {
+    return new ArrayList<>(captures.values());
+  }
+
+  @PreDestroy
+  public void seal() {
+    captures.values().forEach(OutputCapture::seal);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import com.vaadin.event.ShortcutAction;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.CheckBox;
+import com.vaadin.ui.ComboBox;
+import com.vaadin.ui.Grid;
+import com.vaadin.ui.HorizontalLayout;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.Notification;
+import com.vaadin.ui.TextArea;
+import com.vaadin.ui.TextField;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.VerticalLayout;
+import com.vaadin.ui.Window;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Window paging through the {@link OutputCapture} of a server or a tool, a page of lines at a time, read from its
+ * segment files, and searching the captures of all of them.
+ */
+class OutputPager extends Window {
+
+  private static final int PAGE_LINES = 500;
+  private static final int MAX_HITS = 1000;
+  private static final DateTimeFormatter LINE_TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+  private final OutputCaptures outputCaptures;
+  private final OutputSearch outputSearch;
+  private final ComboBox<String> captureNames = new ComboBox<>("Output of");
+  private final TextField lineNumber = new TextField("Line");
+  private final Label position = new Label();
+  private final TextArea page = new TextArea();
+  private final TextField searchText = new TextField("Search all output");
+  private final CheckBox regex = new CheckBox("Regex");
+  private final CheckBox matchCase = new CheckBox("Match case");
+  private final Label searchSummary = new Label();
+  private final Grid<OutputSearch.Hit> hits = new Grid<>();
+  private long from;
+  private long searches;
+
+  OutputPager(OutputCaptures outputCaptures, OutputSearch outputSearch) {
+    super("Captured output");
+    this.outputCaptures = outputCaptures;
+    this.outputSearch = outputSearch;
+    setWidth(90, Unit.PERCENTAGE);
+    setHeight(90, Unit.PERCENTAGE);
+    center();
+
+    List<String> names = outputCaptures.all().stream().map(OutputCapture::getName).collect(Collectors.toList());
+    captureNames.setItems(names);
+    captureNames.setEmptySelectionAllowed(false);
+    captureNames.addValueChangeListener(event -> last());
+
+    Button firstBtn = new Button("First", event -> show(Long.MIN_VALUE));
+    firstBtn.addStyleName("align-bottom");
+    Button previousBtn = new Button("Previous", event -> show(from - PAGE_LINES));
+    previousBtn.addStyleName("align-bottom");
+    Button nextBtn = new Button("Next", event -> show(from + PAGE_LINES));
+    nextBtn.addStyleName("align-bottom");
+    Button lastBtn = new Button("Last", event -> last());
+    lastBtn.addStyleName("align-bottom");
+    Button goBtn = new Button("Go", event -> {
+      try {
+        show(Long.parseLong(lineNumber.getValue().trim()));
+      } catch (NumberFormatException e) {
+        position.setValue("Not a line number: " + lineNumber.getValue());
+      }
+    });
+    goBtn.addStyleName("align-bottom");
+
+    Button searchBtn = new Button("Search", event -> search());
+    searchBtn.addStyleName("align-bottom");
+    searchBtn.setClickShortcut(ShortcutAction.KeyCode.ENTER);
+    searchText.setWidth(400, Unit.PIXELS);
+    regex.addStyleName("align-bottom");
+    matchCase.addStyleName("align-bottom");
+
+    hits.addColumn(OutputSearch.Hit::getCaptureName).setCaption("Output of").setWidth(200);
+    hits.addColumn(hit -> hit.getLine().getNumber()).setCaption("Line").setWidth(110);
+    hits.addColumn(hit -> LINE_TIME.format(Instant.ofEpochMilli(hit.getLine().getTimestamp()))).setCaption("Time").setWidth(130);
+    hits.addColumn(hit -> hit.getLine().getText()).setCaption("Text");
+    hits.setWidth(100, Unit.PERCENTAGE);
+    hits.setHeight(250, Unit.PIXELS);
+    hits.setVisible(false);
+    hits.addItemClickListener(event -> {
+      OutputSearch.Hit hit = event.getItem();
+      captureNames.setValue(hit.getCaptureName());
+      show(hit.getLine().getNumber() - PAGE_LINES / 2);
+    });
+
+    page.setReadOnly(true);
+    page.setWordWrap(false);
+    page.setStyleName("console");
+    page.setSizeFull();
+
+    VerticalLayout content = new VerticalLayout();
+    content.setSizeFull();
+    content.addComponents(new HorizontalLayout(searchText, regex, matchCase, searchBtn), searchSummary, hits,
+        new HorizontalLayout(captureNames, firstBtn, previousBtn, nextBtn, lastBtn, lineNumber, goBtn), position);
+    content.addComponentsAndExpand(page);
+    setContent(content);
+
+    if (!names.isEmpty()) {
+      captureNames.setValue(names.get(0));
+    } else {
+      position.setValue("No process output captured yet");
+    }
+  }
+
+  private void search() {
+    if (searchText.getValue().isEmpty()) {
+      return;
+    }
+    UI ui = getUI();
+    long search = ++searches;
+    searchSummary.setValue("Searching...");
+    try {
+      long start = System.nanoTime();
+      // searched off the session lock, the result is pushed once there
+      outputSearch.search(searchText.getValue(), regex.getValue(), matchCase.getValue(), MAX_HITS).whenComplete((result, failure) -> ui.access(() -> {
+        if (search != searches) {
+          // a newer search is running
+          return;
+        }
+        if (failure != null) {
+          searchSummary.setValue("");
+          Notification.show("ERROR", "Search failed: " + (failure instanceof CompletionException ? failure.getCause() : failure), Notification.Type.ERROR_MESSAGE);
+          return;
+        }
+        hits.setItems(result.getHits());
+        hits.setVisible(true);
+        searchSummary.setValue(String.format("%d matching lines, best %d shown, in %d ms (%d segments searched, %d skipped by their index)",
+            result.getMatchingLines(), result.getHits().size(), (System.nanoTime() - start) / 1_000_000,
+            result.getSearchedSegments(), result.getSkippedSegments()));
+      }));
+    } catch (PatternSyntaxException e) {
+      searchSummary.setValue("");
+      Notification.show("ERROR", "Invalid regex: " + e.getDescription(), Notification.Type.ERROR_MESSAGE);
+    } catch (RejectedExecutionException e) {
+      searchSummary.setValue("");
+      Notification.show("ERROR", "Too many searches running, try again later", Notification.Type.ERROR_MESSAGE);
+    }
+  }
+
+  private void last() {
+    show(Long.MAX_VALUE);
+  }
+
+  /**
+   * Shows the page starting at the given line, moved to the lines still kept.
+   */
+  private void show(long line) {
+    OutputCapture capture = captureNames.getValue() == null ? null : outputCaptures.get(captureNames.getValue());
+    if (capture == null) {
+      page.setValue("");
+      return;
+    }
+    long count = capture.lineCount();
+    long first = capture.firstLine();
+    from = Math.max(first, Math.min(line, count - PAGE_LINES));
+    List<OutputCapture.Line> lines = capture.lines(from, PAGE_LINES);
+    page.setValue(lines.stream()
+        .map(l -> String.format("%8d %s  %s", l.getNumber(), LINE_TIME.format(Instant.ofEpochMilli(l.getTimestamp())), l.getText()))
+        .collect(Collectors.joining("\n")));
+    position.setValue(lines.isEmpty() ? "No lines captured yet, in " + capture.getDirectory()
+        : String.format("Lines %d to %d of %d (%d kept), in %s", from, from + lines.size() - 1, count, count - first, capture.getDirectory()));
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Searches the {@link OutputCaptures} of every server and tool at once, one task per capture, skipping the segments
+ * whose {@link TrigramFilter} tells they cannot match.
+ * <p>
+ * Hits are ranked by how many times the line matches, lines looking like errors or warnings first, then by most
+ * recent.
+ */
+@Service
+public class OutputSearch {
+
+  private static final Pattern ERROR = Pattern.compile("ERROR|FATAL|SEVERE|Exception|Caused by");
+  private static final Pattern WARNING = Pattern.compile("WARN");
+  private static final int MAX_COUNTED_MATCHES = 50;
+  private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::getScore)
+      .thenComparingLong(hit -> hit.getLine().getTimestamp())
+      .reversed();
+
+  private static final int MAX_QUEUED_SEARCHES = 1000;
+
+  private final OutputCaptures outputCaptures;
+  private final ThreadPoolExecutor searchers;
+
+  @Autowired
+  public OutputSearch(OutputCaptures outputCaptures) {
+    this.outputCaptures = outputCaptures;
+    // searches of their own, so that they neither hold up the UI refreshes nor pile up without bounds
+    AtomicInteger threadCount = new AtomicInteger();
+    int threads = Runtime.getRuntime().availableProcessors();
+    this.searchers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_SEARCHES), r -> {
+      Thread t = new Thread(r, "output-search-" + threadCount.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    searchers.shutdownNow();
+  }
+
+  /**
+   * @param text    a literal, or a regex
+   * @param maxHits the number of best ranked hits returned
+   * @return the result, completed once every capture is searched
+   * @throws java.util.regex.PatternSyntaxException if the regex is not valid
+   * @throws java.util.concurrent.RejectedExecutionException if too many searches are already running
+   */
+  CompletableFuture<Result> search(String text, boolean regex, boolean matchCase, int maxHits) {
+    // ASCII letters only ignore their case, as in the filters
+    Pattern pattern = Pattern.compile(text, (regex ? 0 : Pattern.LITERAL) | (matchCase ? 0 : Pattern.CASE_INSENSITIVE));
+    int[] trigrams = TrigramFilter.trigrams(requiredLiteral(text, regex).getBytes(StandardCharsets.UTF_8));
+
+    List<CompletableFuture<Result>> results = new ArrayList<>();
+    for (OutputCapture capture : outputCaptures.all()) {
+      results.add(CompletableFuture.supplyAsync(() -> search(capture, pattern, trigrams, maxHits), searchers));
+    }
+    return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+      Result merged = new Result();
+      results.forEach(result -> merged.merge(result.join(), maxHits));
+      merged.hits.addAll(merged.best);
+      merged.hits.sort(RANKING);
+      return merged;
+    });
+  }
+
+  private static Result search(OutputCapture capture, Pattern pattern, int[] trigrams, int maxHits) {
+    Result result = new Result();
+    for (OutputCapture.Segment segment : capture.segments()) {
+      // the line count is read before the filter, which holds the trigrams of every line counted
+      int lineCount = segment.getLineCount();
+      if (!segment.mightContainAll(trigrams)) {
+        result.skippedSegments++;
+        continue;
+      }
+      result.searchedSegments++;
+      for (int i = 0; i < lineCount; i++) {
+        OutputCapture.Line line = segment.line(i);
+        Matcher matcher = pattern.matcher(line.getText());
+        int matches = 0;
+        while (matches < MAX_COUNTED_MATCHES && matcher.find()) {
+          matches++;
+        }
+        if (matches > 0) {
+          result.matchingLines++;
+          result.offer(new Hit(capture.getName(), line, score(line.getText(), matches)), maxHits);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static int score(String line, int matches) {
+    int severity = ERROR.matcher(line).find() ? 100 : WARNING.matcher(line).find() ? 50 : 0;
+    return severity + matches;
+  }
+
+  /**
+   * @return the longest run of characters any line matching the text contains, empty if there is none worth it
+   */
+  static String requiredLiteral(String text, boolean regex) {
+    if (!regex) {
+      return text;
+    }
+    if (text.contains("|") || text.contains("(?")) {
+      // alternatives and flags make every literal optional, or not literal
+      return "";
+    }
+    String longest = "";
+    StringBuilder run = new StringBuilder();
+    int groups = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      char literal = 0;
+      if (c == '\\' && i + 1 < text.length()) {
+        char escaped = text.charAt(++i);
+        if (Character.isDigit(escaped) || "xucpPkNQE".indexOf(escaped) >= 0) {
+          // back references, code points, properties and quotes, not worth parsing
+          return "";
+        }
+        if (!Character.isLetter(escaped)) {
+          literal = escaped;
+        }
+      } else if (c == '[') {
+        // a character class, possibly nested, the literal ends
+        for (int depth = 1; depth > 0 && ++i < text.length(); ) {
+          char d = text.charAt(i);
+          if (d == '\\') {
+            i++;
+          } else if (d == '[') {
+            depth++;
+          } else if (d == ']') {
+            depth--;
+          }
+        }
+      } else if (c == '(') {
+        groups++;
+      } else if (c == ')') {
+        groups--;
+      } else if (c == '?' || c == '*' || c == '{') {
+        // the previous character may be missing
+        if (run.length() > 0) {
+          run.setLength(run.length() - 1);
+        }
+        if (c == '{') {
+          i = Math.max(i, text.indexOf('}', i));
+        }
+      } else if (".^$+".indexOf(c) < 0) {
+        literal = c;
+      }
+      if (literal != 0 && groups == 0) {
+        run.append(literal);
+      } else {
+        if (run.length() > longest.length()) {
+          longest = run.toString();
+        }
+        run.setLength(0);
+      }
+    }
+    return run.length() > longest.length() ? run.toString() : longest;
+  }
+
+  /**
+   * The best ranked hits of a search, and what it went through.
+   */
+  static class Result {
+
+    private final List<Hit> hits = new ArrayList<>();
+    private final PriorityQueue<Hit> best = new PriorityQueue<>(RANKING.reversed());
+    private long matchingLines;
+    private int searchedSegments;
+    private int skippedSegments;
+
+    List<Hit> getHits() {
+      return hits;
+    }
+
+    long getMatchingLines() {
+      return matchingLines;
+    }
+
+    int getSearchedSegments() {
+      return searchedSegments;
+    }
+
+    /**
+     * @return the segments the trigram filters ruled out
+     */
+    int getSkippedSegments() {
+      return skippedSegments;
+    }
+
+    private void offer(Hit hit, int maxHits) {
+      best.offer(hit);
+      if (best.size() > maxHits) {
+        best.poll();
+      }
+    }
+
+    private void merge(Result result, int maxHits) {
+      result.best.forEach(hit -> offer(hit, maxHits));
+      matchingLines += result.matchingLines;
+      searchedSegments += result.searchedSegments;
+      skippedSegments += result.skippedSegments;
+    }
+  }
+
+  /**
+   * A line matching a search, in the output of a server or tool.
+   */
+  static class Hit {
+
+    private final String captureName;
+    private final OutputCapture.Line line;
+    private final int score;
+
+    Hit(String captureName, OutputCapture.Line line, int score) {
+      this.captureName = captureName;
+      this.line = line;
+      this.score = score;
+    }
+
+    String getCaptureName() {
+      return captureName;
+    }
+
+    OutputCapture.Line getLine() {
+      return line;
+    }
+
+    int getScore() {
+      return score;
+    }
+  }
+}
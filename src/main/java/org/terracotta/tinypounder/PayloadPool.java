@@ -0,0 +1,165 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Random hexadecimal payloads, generated once per size class and then shared by all the pounding threads.
+ * <p>
+ * Size classes keep the 4 most significant bits of the requested size (so a payload is at most 1/8 bigger
+ * than asked for), which bounds the number of pools whatever the sizes requested. The classes a workload
+ * draws from are generated when it is set, before its pounding is measured, and all the pools together hold
+ * no more than {@value #MAX_TOTAL_BYTES} bytes : a class that does not fit anymore is generated for each op.
+ */
+@Component
+public class PayloadPool {
+
+  private static final int EXACT_SIZES = 16;
+  private static final int MAX_BYTES_PER_CLASS = 4 * 1024 * 1024;
+  private static final long MAX_TOTAL_BYTES = 128 * 1024 * 1024;
+  private static final int MIN_PAYLOADS_PER_CLASS = 4;
+  private static final int MAX_PAYLOADS_PER_CLASS = 128;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final ConcurrentMap<Integer, String[]> payloadsBySizeClass = new ConcurrentHashMap<>();
+  private final SplittableRandom seeds = new SplittableRandom();
+  // guarded by this
+  private long totalBytes;
+
+  /**
+   * @return the size of the hexadecimal value that used to be generated for a pounding intensity
+   */
+  static int sizeForIntensity(int intensity) {
+    return (intensity * 10 + 3) / 4;
+  }
+
+  static int sizeClass(int size) {
+    if (size <= EXACT_SIZES) {
+      return size;
+    }
+    int shift = 32 - Integer.numberOfLeadingZeros(size - 1) - 4;
+    int mask = (1 << shift) - 1;
+    return ((size + mask) >>> shift) << shift;
+  }
+
+  /**
+   * Generates the payloads of all the size classes the value sizes draw from, making room by dropping the
+   * classes of previous workloads when needed.
+   *
+   * @param intensitySize the size used when value sizes follow the pounding intensity
+   * @return the sampler of the value sizes
+   */
+  IntSupplier prepare(ValueSizeDistribution valueSizes, int intensitySize) {
+    SortedSet<Integer> sizeClasses = new TreeSet<>();
+    for (int[] range : valueSizes.sizeRanges(intensitySize)) {
+      int sizeClass = sizeClass(range[0]);
+      sizeClasses.add(sizeClass);
+      while (sizeClass < range[1]) {
+        sizeClass = sizeClass(sizeClass + 1);
+        sizeClasses.add(sizeClass);
+      }
+    }
+    fill(sizeClasses);
+    return valueSizes.newSampler(intensitySize);
+  }
+
+  public String string(int size) {
+    int sizeClass = sizeClass(Math.max(0, size));
+    String[] payloads = payloadsBySizeClass.get(sizeClass);
+    if (payloads == null) {
+      payloads = fillUnprepared(sizeClass);
+    }
+    return payloads[ThreadLocalRandom.current().nextInt(payloads.length)];
+  }
+
+  private synchronized void fill(SortedSet<Integer> sizeClasses) {
+    List<Integer> missing = sizeClasses.stream().filter(sizeClass -> !payloadsBySizeClass.containsKey(sizeClass)).collect(Collectors.toList());
+    if (missing.isEmpty()) {
+      return;
+    }
+    long oneEach = missing.stream().mapToLong(Integer::longValue).sum();
+    if (totalBytes + oneEach > MAX_TOTAL_BYTES) {
+      // generated again if another target still draws them
+      payloadsBySizeClass.keySet().removeIf(sizeClass -> {
+        if (sizeClasses.contains(sizeClass)) {
+          return false;
+        }
+        totalBytes -= (long) sizeClass * payloadsBySizeClass.get(sizeClass).length;
+        return true;
+      });
+    }
+    // one payload per class first, the bytes left are shared evenly
+    long extraPerClass = Math.max(0, MAX_TOTAL_BYTES - totalBytes - oneEach) / missing.size();
+    for (int sizeClass : missing) {
+      long budget = Math.min(MAX_TOTAL_BYTES - totalBytes, sizeClass + extraPerClass);
+      if (budget < sizeClass) {
+        // neither this class nor the bigger ones fit
+        break;
+      }
+      store(sizeClass, budget);
+    }
+  }
+
+  private String[] fillUnprepared(int sizeClass) {
+    synchronized (this) {
+      String[] payloads = payloadsBySizeClass.get(sizeClass);
+      if (payloads != null) {
+        return payloads;
+      }
+      long budget = Math.min(MAX_BYTES_PER_CLASS, MAX_TOTAL_BYTES - totalBytes);
+      if (budget >= sizeClass) {
+        return store(sizeClass, budget);
+      }
+    }
+    // the pools are full
+    return generate(sizeClass, 1);
+  }
+
+  private String[] store(int sizeClass, long budget) {
+    int wanted = Math.max(MIN_PAYLOADS_PER_CLASS, Math.min(MAX_PAYLOADS_PER_CLASS, MAX_BYTES_PER_CLASS / Math.max(1, sizeClass)));
+    String[] payloads = generate(sizeClass, (int) Math.max(1, Math.min(wanted, budget / Math.max(1, sizeClass))));
+    payloadsBySizeClass.put(sizeClass, payloads);
+    totalBytes += (long) sizeClass * payloads.length;
+    return payloads;
+  }
+
+  private String[] generate(int sizeClass, int count) {
+    SplittableRandom random;
+    synchronized (seeds) {
+      random = seeds.split();
+    }
+    String[] payloads = new String[count];
+    char[] chars = new char[sizeClass];
+    for (int i = 0; i < count; i++) {
+      for (int c = 0; c < sizeClass; c++) {
+        chars[c] = HEX[random.nextInt(HEX.length)];
+      }
+      payloads[i] = new String(chars);
+    }
+    return payloads;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Flight Recorder events of the pounder : pounding ticks, cache and dataset lifecycle calls and server state
+ * transitions. Every method is a no-op on a JVM without Flight Recorder, and costs an allocation at most when no
+ * recording is running.
+ */
+final class PounderEvents {
+
+  // looked up by name, compiled for Java 11, so that the application still builds and runs on Java 8
+  static final JfrSupport JFR = findJfrSupport();
+  private static final boolean AVAILABLE = JFR != null;
+
+  private PounderEvents() {
+  }
+
+  private static JfrSupport findJfrSupport() {
+    try {
+      Class.forName("jdk.jfr.FlightRecorder");
+      JfrSupport jfr = (JfrSupport) Class.forName("org.terracotta.tinypounder.JfrSupportImpl").getDeclaredConstructor().newInstance();
+      return jfr.isAvailable() ? jfr : null;
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+  static boolean isAvailable() {
+    return AVAILABLE;
+  }
+
+  /**
+   * @return the started tick, to be committed once its ops ran, or null
+   */
+  static Object beginTick() {
+    return AVAILABLE ? JFR.beginTick() : null;
+  }
+
+  /**
+   * @param kind cache or dataset
+   */
+  static void commitTick(Object tick, String kind, String target, long ops) {
+    if (tick != null) {
+      JFR.commitTick(tick, kind, target, ops);
+    }
+  }
+
+  /**
+   * @return the started lifecycle call, to be committed once it succeeded, or null
+   */
+  static Object beginLifecycle() {
+    return AVAILABLE ? JFR.beginLifecycle() : null;
+  }
+
+  static void commitLifecycle(Object lifecycle, String action, String target) {
+    if (lifecycle != null) {
+      JFR.commitLifecycle(lifecycle, action, target);
+    }
+  }
+
+  static void serverState(String stripe, String server, String state, long pid) {
+    if (AVAILABLE) {
+      JFR.serverState(stripe, server, state, pid);
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * JSON API driving the cache and dataset managers the way the UI does, for scripted load tests.
+ * <p>
+ * Request bodies use the keys of a {@link Scenario}: tiers (heap, offheap, disk, clustered, sharedPool), workloads
+ * (operationMix, keys, keySpace, valueSizes, batchSize) and pounding (rate, intensity, concurrency, clients, thinkTime,
+ * targetHitRatio). Reads are served from the {@link PoundingSnapshots}, refreshed once per second. Flight Recorder
+ * recordings are started and stopped under /api/recording.
+ */
+@RestController
+@RequestMapping("/api")
+public class PoundingController {
+
+  private static final String DEFAULT_BASE_LOCATION = new File(System.getProperty("user.home"), "terracotta/MyCluster").getAbsolutePath();
+
+  private final CacheManagerBusiness cacheManagerBusiness;
+  private final DatasetManagerBusinessReflectionImpl datasetManagerBusiness;
+  private final PoundingSnapshots poundingSnapshots;
+  private final FlightRecordings flightRecordings;
+
+  @Autowired
+  public PoundingController(CacheManagerBusiness cacheManagerBusiness, DatasetManagerBusinessReflectionImpl datasetManagerBusiness,
+                            PoundingSnapshots poundingSnapshots, FlightRecordings flightRecordings) {
+    this.cacheManagerBusiness = cacheManagerBusiness;
+    this.datasetManagerBusiness = datasetManagerBusiness;
+    this.poundingSnapshots = poundingSnapshots;
+    this.flightRecordings = flightRecordings;
+  }
+
+  @PostMapping("/cachemanager")
+  public void initializeCacheManager(@RequestBody Map<String, Object> body) {
+    cacheManagerBusiness.initializeCacheManager(Scenario.string(body, "clusterUrl", null), Scenario.string(body, "name", "TinyPounderCM"),
+        Scenario.string(body, "diskPersistenceLocation", null), Scenario.string(body, "offheapResource", "offheap-1"),
+        Scenario.string(body, "diskResource", "dataroot-1"), Scenario.string(body, "securityPath", null));
+  }
+
+  @DeleteMapping("/cachemanager")
+  public void closeCacheManager() {
+    cacheManagerBusiness.close();
+  }
+
+  @GetMapping("/caches")
+  public Collection<PoundingSnapshot> caches() {
+    return poundingSnapshots.caches().values();
+  }
+
+  @GetMapping("/caches/{alias}")
+  public PoundingSnapshot cache(@PathVariable String alias) {
+    return found(poundingSnapshots.caches().get(alias), alias);
+  }
+
+  @PutMapping("/caches/{alias}")
+  public void createCache(@PathVariable String alias, @RequestBody Map<String, Object> body) {
+    cacheManagerBusiness.createCache(alias, Scenario.cacheConfiguration(body));
+  }
+
+  @DeleteMapping("/caches/{alias}")
+  public void destroyCache(@PathVariable String alias) {
+    cacheManagerBusiness.destroyCache(alias);
+  }
+
+  @PutMapping("/caches/{alias}/workload")
+  public void updateCacheWorkload(@PathVariable String alias, @RequestBody Map<String, Object> body) {
+    cacheManagerBusiness.updateWorkload(alias, Scenario.workload(body));
+  }
+
+  /**
+   * Applies the pounding settings present in the body, leaving the others as they are.
+   */
+  @PutMapping("/caches/{alias}/pounding")
+  public void updateCachePounding(@PathVariable String alias, @RequestBody Map<String, Object> body) {
+    if (body.containsKey("concurrency")) {
+      cacheManagerBusiness.updatePoundingConcurrency(alias, (int) Scenario.number(body, "concurrency", 0));
+    }
+    if (body.containsKey("intensity")) {
+      cacheManagerBusiness.updatePoundingIntensity(alias, intensity(body));
+    }
+    if (body.containsKey("rate")) {
+      cacheManagerBusiness.updatePoundingRate(alias, Scenario.number(body, "rate", 0));
+    }
+    if (body.containsKey("clients")) {
+      cacheManagerBusiness.updateSimulatedClients(alias, (int) Scenario.number(body, "clients", 0), Scenario.durationMillis(body, "thinkTime", 0));
+    }
+    if (body.containsKey("targetHitRatio")) {
+      cacheManagerBusiness.updateTargetHitRatio(alias, Scenario.number(body, "targetHitRatio", 0));
+    }
+  }
+
+  @PostMapping("/datasetmanager")
+  public void initializeDatasetManager(@RequestBody Map<String, Object> body) {
+    datasetManagerBusiness.initializeDatasetManager(Scenario.string(body, "clusterUrl", null), Scenario.string(body, "securityPath", null));
+  }
+
+  @DeleteMapping("/datasetmanager")
+  public void closeDatasetManager() {
+    datasetManagerBusiness.close();
+  }
+
+  @GetMapping("/datasets")
+  public Collection<PoundingSnapshot> datasetInstances() {
+    return poundingSnapshots.datasetInstances().values();
+  }
+
+  @PutMapping("/datasets/{datasetName}")
+  public void createDataset(@PathVariable String datasetName, @RequestBody Map<String, Object> body) {
+    datasetManagerBusiness.createDataset(datasetName, Scenario.datasetConfiguration(body));
+  }
+
+  @DeleteMapping("/datasets/{datasetName}")
+  public void destroyDataset(@PathVariable String datasetName) {
+    datasetManagerBusiness.destroyDataset(datasetName);
+  }
+
+  /**
+   * @return the name of the new instance
+   */
+  @PostMapping("/datasets/{datasetName}/instances")
+  public Map<String, String> createDatasetInstance(@PathVariable String datasetName) {
+    return Collections.singletonMap("instance", datasetManagerBusiness.createDatasetInstance(datasetName));
+  }
+
+  @GetMapping("/datasets/instances/{instanceName}")
+  public PoundingSnapshot datasetInstance(@PathVariable String instanceName) {
+    return found(poundingSnapshots.datasetInstances().get(instanceName), instanceName);
+  }
+
+  @PutMapping("/datasets/instances/{instanceName}/workload")
+  public void updateDatasetWorkload(@PathVariable String instanceName, @RequestBody Map<String, Object> body) {
+    datasetManagerBusiness.updateWorkload(instanceName, Scenario.workload(body));
+  }
+
+  /**
+   * Applies the pounding settings present in the body, leaving the others as they are.
+   */
+  @PutMapping("/datasets/instances/{instanceName}/pounding")
+  public void updateDatasetPounding(@PathVariable String instanceName, @RequestBody Map<String, Object> body) {
+    if (body.containsKey("concurrency")) {
+      datasetManagerBusiness.updatePoundingConcurrency(instanceName, (int) Scenario.number(body, "concurrency", 0));
+    }
+    if (body.containsKey("intensity")) {
+      datasetManagerBusiness.updatePoundingIntensity(instanceName, intensity(body));
+    }
+    if (body.containsKey("rate")) {
+      datasetManagerBusiness.updatePoundingRate(instanceName, Scenario.number(body, "rate", 0));
+    }
+  }
+
+  /**
+   * Starts a Flight Recorder recording, saved under baseLocation (the UI default when absent) once stopped.
+   *
+   * @return the file the recording will be saved to
+   */
+  @PostMapping("/recording")
+  public Map<String, String> startRecording(@RequestBody(required = false) Map<String, Object> body) {
+    String baseLocation = Scenario.string(body == null ? Collections.emptyMap() : body, "baseLocation", DEFAULT_BASE_LOCATION);
+    return Collections.singletonMap("file", flightRecordings.start(baseLocation).toString());
+  }
+
+  /**
+   * @return the file the recording was saved to
+   */
+  @DeleteMapping("/recording")
+  public Map<String, String> stopRecording() {
+    return Collections.singletonMap("file", flightRecordings.stop().toString());
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Map<String, String> badRequest(IllegalArgumentException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  @ExceptionHandler(IllegalStateException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Map<String, String> conflict(IllegalStateException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  private static int intensity(Map<String, Object> body) {
+    long intensity = Scenario.number(body, "intensity", 0);
+    if (intensity < 0 || intensity > 11) {
+      throw new IllegalArgumentException("Intensity goes from 0 to 11: " + intensity);
+    }
+    return (int) intensity;
+  }
+
+  private static PoundingSnapshot found(PoundingSnapshot snapshot, String name) {
+    if (snapshot == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nothing pounded under " + name);
+    }
+    return snapshot;
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the pounding of caches and dataset instances on its own pool of worker threads, so that heavy pounding
+ * neither starves the UI refreshes nor competes with the common fork join pool.
+ * <p>
+ * Each pounded target gets as many concurrent workers as its concurrency, each one running the target tick
+ * over and over. Paced workers, which wait for the intended start of their ops, each get their own thread
+ * instead, so that they never hold up the pool ; the pounding controls (hit ratio, statistics sampling) run on
+ * a scheduler of their own, that no pounding can fill.
+ * <p>
+ * A target can instead be pounded by simulated clients, each one a thread running one op after the other
+ * with a think time in between : virtual threads when the JVM has them (Java 21+), otherwise a bounded
+ * pool of platform threads.
+ */
+@Service
+public class PoundingEngine {
+
+  // looked up reflectively so that the application still builds and runs on Java 8
+  private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+  private final ScheduledThreadPoolExecutor workers;
+  private final ExecutorService pacedWorkers;
+  private final ScheduledThreadPoolExecutor controls;
+  private final int defaultConcurrency;
+  private final int platformClientThreads;
+
+  @Autowired
+  public PoundingEngine(@Value("${pounding.workerThreads}") int workerThreads,
+                        @Value("${pounding.concurrencyPerTarget}") int defaultConcurrency,
+                        @Value("${pounding.platformClientThreads}") int platformClientThreads) {
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers = new ScheduledThreadPoolExecutor(workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors(), r -> {
+      Thread t = new Thread(r, "pounder-" + threadCount.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.workers.setRemoveOnCancelPolicy(true);
+    // grows to the total concurrency of the paced targets, idle threads go away
+    AtomicInteger pacedThreadCount = new AtomicInteger();
+    this.pacedWorkers = Executors.newCachedThreadPool(r -> {
+      Thread t = new Thread(r, "paced-pounder-" + pacedThreadCount.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.controls = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread t = new Thread(r, "pounding-control");
+      t.setDaemon(true);
+      return t;
+    });
+    this.controls.setRemoveOnCancelPolicy(true);
+    this.defaultConcurrency = Math.max(1, defaultConcurrency);
+    this.platformClientThreads = Math.max(1, platformClientThreads);
+  }
+
+  private static Method findVirtualThreadPerTaskExecutor() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  public static boolean hasVirtualThreads() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  /**
+   * @return how many simulated clients can really run at once
+   */
+  public int maxSimulatedClients(int clients) {
+    return hasVirtualThreads() ? clients : Math.min(clients, platformClientThreads);
+  }
+
+  public int getWorkerThreads() {
+    return workers.getCorePoolSize();
+  }
+
+  public int getDefaultConcurrency() {
+    return defaultConcurrency;
+  }
+
+  /**
+   * Starts concurrency workers, each one running the tick then waiting for the delay before running it again.
+   * <p>
+   * A failing tick is logged and does not stop its worker.
+   */
+  PoundingTask start(String target, int concurrency, long delay, TimeUnit unit, Runnable tick) {
+    Runnable guardedTick = guard(tick, new FailureLog(target));
+    ScheduledTicks ticks = new ScheduledTicks();
+    long delayNanos = Math.max(1, unit.toNanos(delay));
+    for (int i = 0; i < Math.max(1, concurrency); i++) {
+      // spread the workers over the first period instead of starting them all at once
+      long initialDelayNanos = delayNanos * i / Math.max(1, concurrency);
+      ticks.add(workers.scheduleWithFixedDelay(() -> ticks.run(guardedTick), initialDelayNanos, delayNanos, TimeUnit.NANOSECONDS));
+    }
+    return ticks;
+  }
+
+  /**
+   * Starts concurrency paced workers, each one on its own thread running the tick back to back ; the tick is
+   * expected to wait for the intended start of its ops.
+   */
+  PoundingTask startPaced(String target, int concurrency, Runnable tick) {
+    Runnable guardedTick = guard(tick, new FailureLog(target));
+    Workers paced = new Workers();
+    for (int i = 0; i < Math.max(1, concurrency); i++) {
+      pacedWorkers.execute(() -> paced.run(() -> {
+        while (!paced.isStopped()) {
+          guardedTick.run();
+        }
+      }));
+    }
+    return paced;
+  }
+
+  /**
+   * Runs a control of the pounding, such as a hit ratio controller or a statistics sampler, once per period.
+   */
+  PoundingTask startControl(String target, long period, TimeUnit unit, Runnable control) {
+    Runnable guardedControl = guard(control, new FailureLog(target));
+    ScheduledTicks ticks = new ScheduledTicks();
+    ticks.add(controls.scheduleWithFixedDelay(() -> ticks.run(guardedControl), period, period, unit));
+    return ticks;
+  }
+
+  /**
+   * Runs a control of the pounding once, as soon as possible.
+   */
+  void runControl(String target, Runnable control) {
+    controls.execute(guard(control, new FailureLog(target)));
+  }
+
+  private static Runnable guard(Runnable tick, FailureLog failures) {
+    return () -> {
+      try {
+        tick.run();
+      } catch (Exception e) {
+        failures.failed(e);
+      }
+    };
+  }
+
+  /**
+   * Starts closed loop clients, each one running the op then thinking before running it again ; without
+   * virtual threads, no more than pounding.platformClientThreads clients are started.
+   */
+  PoundingTask startClients(String target, int clients, long thinkTime, TimeUnit unit, Runnable op) {
+    int started = maxSimulatedClients(Math.max(1, clients));
+    ExecutorService executor;
+    if (hasVirtualThreads()) {
+      try {
+        executor = (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    } else {
+      AtomicInteger threadCount = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(started, r -> {
+        Thread t = new Thread(r, "pounding-client-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    ClientSimulation simulation = new ClientSimulation(executor, new FailureLog(target));
+    long thinkTimeNanos = unit.toNanos(thinkTime);
+    for (int i = 0; i < started; i++) {
+      executor.execute(() -> simulation.run(() -> simulation.runClient(op, thinkTimeNanos)));
+    }
+    return simulation;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+    pacedWorkers.shutdownNow();
+    controls.shutdownNow();
+  }
+
+  /**
+   * The workers of a pounded target.
+   */
+  interface PoundingTask {
+
+    /**
+     * Stops the workers, and returns once none of them runs the target anymore, so that it can be closed ; a
+     * worker cancelling its own task is not waited for.
+     */
+    void cancel();
+  }
+
+  /**
+   * Workers, each one running the target while the task is not cancelled.
+   */
+  private static class Workers implements PoundingTask {
+
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped;
+
+    boolean isStopped() {
+      return stopped;
+    }
+
+    void run(Runnable target) {
+      Thread current = Thread.currentThread();
+      running.add(current);
+      try {
+        // checked once running, so that a cancel either sees this worker or stops it here
+        if (!stopped) {
+          target.run();
+        }
+      } finally {
+        running.remove(current);
+        synchronized (this) {
+          notifyAll();
+        }
+      }
+    }
+
+    /**
+     * Keeps the workers from being started again.
+     */
+    void stopStarting() {
+    }
+
+    @Override
+    public void cancel() {
+      stopped = true;
+      stopStarting();
+      Thread current = Thread.currentThread();
+      // wakes up the workers waiting for an intended start or thinking
+      running.forEach(LockSupport::unpark);
+      boolean interrupted = false;
+      synchronized (this) {
+        while (running.stream().anyMatch(thread -> thread != current)) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      }
+      if (interrupted) {
+        current.interrupt();
+      }
+    }
+  }
+
+  private static class ScheduledTicks extends Workers {
+
+    private final List<ScheduledFuture<?>> futures = new CopyOnWriteArrayList<>();
+
+    private void add(ScheduledFuture<?> future) {
+      futures.add(future);
+    }
+
+    @Override
+    void stopStarting() {
+      futures.forEach(future -> future.cancel(false));
+    }
+  }
+
+  private static class ClientSimulation extends Workers {
+
+    private final ExecutorService executor;
+    private final FailureLog failures;
+
+    private ClientSimulation(ExecutorService executor, FailureLog failures) {
+      this.executor = executor;
+      this.failures = failures;
+    }
+
+    private void runClient(Runnable op, long thinkTimeNanos) {
+      while (!isStopped()) {
+        try {
+          op.run();
+        } catch (Exception e) {
+          failures.failed(e);
+        }
+        if (thinkTimeNanos > 0) {
+          LockSupport.parkNanos(thinkTimeNanos);
+        }
+      }
+    }
+
+    @Override
+    void stopStarting() {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Requested versus achieved rate of a target pounded at constant rate.
+ */
+public class PoundingRate {
+
+  public static final PoundingRate NONE = new PoundingRate(0, 0);
+
+  private final long requestedRate;
+  private final double achievedRate;
+
+  public PoundingRate(long requestedRate, double achievedRate) {
+    this.requestedRate = requestedRate;
+    this.achievedRate = achievedRate;
+  }
+
+  public long getRequestedRate() {
+    return requestedRate;
+  }
+
+  public double getAchievedRate() {
+    return achievedRate;
+  }
+
+  @Override
+  public String toString() {
+    if (requestedRate == 0) {
+      return "";
+    }
+    return String.format("%.0f / %d ops/s", achievedRate, requestedRate);
+  }
+}
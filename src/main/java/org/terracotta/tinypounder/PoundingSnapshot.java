@@ -0,0 +1,106 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What a pounded cache or dataset instance went through, as of the last time the {@link PoundingSnapshots} were
+ * refreshed. Latencies are in nanoseconds, by op label.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PoundingSnapshot {
+
+  private final String name;
+  private final long timestamp;
+  private final Throughput throughput;
+  private final PoundingRate rate;
+  private final Map<String, LatencySnapshot> latencies;
+  private final Map<String, LatencySnapshot> perKeyLatencies;
+  private final Map<String, OpCounters> counters;
+  private final HitRatioStatus hitRatio;
+  private final Map<String, TierUsage> tiers;
+
+  /**
+   * @param hitRatio null for a dataset instance
+   * @param tiers null for a dataset instance
+   */
+  PoundingSnapshot(String name, long timestamp, Throughput throughput, PoundingRate rate, Map<OpType, LatencySnapshot> latencies,
+                   Map<OpType, LatencySnapshot> perKeyLatencies, Map<OpType, OpCounters> counters, HitRatioStatus hitRatio,
+                   Map<String, TierUsage> tiers) {
+    this.name = name;
+    this.timestamp = timestamp;
+    this.throughput = throughput;
+    this.rate = rate;
+    this.latencies = byLabel(latencies);
+    this.perKeyLatencies = byLabel(perKeyLatencies);
+    this.counters = byLabel(counters);
+    this.hitRatio = hitRatio;
+    this.tiers = tiers == null ? null : Collections.unmodifiableMap(tiers);
+  }
+
+  private static <T> Map<String, T> byLabel(Map<OpType, T> byOpType) {
+    Map<String, T> byLabel = new LinkedHashMap<>();
+    byOpType.forEach((opType, value) -> byLabel.put(opType.label(), value));
+    return Collections.unmodifiableMap(byLabel);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return when the snapshot was taken, in milliseconds since the epoch
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public Throughput getThroughput() {
+    return throughput;
+  }
+
+  public PoundingRate getRate() {
+    return rate;
+  }
+
+  public Map<String, LatencySnapshot> getLatencies() {
+    return latencies;
+  }
+
+  public Map<String, LatencySnapshot> getPerKeyLatencies() {
+    return perKeyLatencies;
+  }
+
+  /**
+   * @return the ops and errors of each op label since the target was first pounded
+   */
+  public Map<String, OpCounters> getCounters() {
+    return counters;
+  }
+
+  public HitRatioStatus getHitRatio() {
+    return hitRatio;
+  }
+
+  public Map<String, TierUsage> getTiers() {
+    return tiers;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshots of every pounded cache and dataset instance, taken once per second whoever reads them, so that polling
+ * them as often as wanted never adds work to the pounding threads.
+ */
+@Service
+public class PoundingSnapshots {
+
+  private final CacheManagerBusiness cacheManagerBusiness;
+  private final DatasetManagerBusinessReflectionImpl datasetManagerBusiness;
+  private final ScheduledExecutorService scheduledExecutorService;
+
+  private volatile Map<String, PoundingSnapshot> caches = Collections.emptyMap();
+  private volatile Map<String, PoundingSnapshot> datasetInstances = Collections.emptyMap();
+  private ScheduledFuture<?> refresher;
+
+  @Autowired
+  public PoundingSnapshots(CacheManagerBusiness cacheManagerBusiness, DatasetManagerBusinessReflectionImpl datasetManagerBusiness,
+                           ScheduledExecutorService scheduledExecutorService) {
+    this.cacheManagerBusiness = cacheManagerBusiness;
+    this.datasetManagerBusiness = datasetManagerBusiness;
+    this.scheduledExecutorService = scheduledExecutorService;
+  }
+
+  @PostConstruct
+  public void start() {
+    refresher = scheduledExecutorService.scheduleAtFixedRate(this::refresh, 1, 1, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    refresher.cancel(false);
+  }
+
+  /**
+   * @return the snapshots of the caches of the cache manager, by alias
+   */
+  public Map<String, PoundingSnapshot> caches() {
+    return caches;
+  }
+
+  /**
+   * @return the snapshots of the dataset instances, by instance name
+   */
+  public Map<String, PoundingSnapshot> datasetInstances() {
+    return datasetInstances;
+  }
+
+  private void refresh() {
+    try {
+      long now = System.currentTimeMillis();
+      Map<String, PoundingSnapshot> caches = new TreeMap<>();
+      if (cacheManagerBusiness.isCacheManagerAlive()) {
+        for (String alias : cacheManagerBusiness.retrieveCacheNames()) {
+          caches.put(alias, new PoundingSnapshot(alias, now, cacheManagerBusiness.retrieveThroughput(alias),
+              cacheManagerBusiness.retrievePoundingRate(alias), cacheManagerBusiness.retrieveLatencies(alias),
+              cacheManagerBusiness.retrievePerKeyLatencies(alias), cacheManagerBusiness.retrieveOpCounters(alias),
+              cacheManagerBusiness.retrieveHitRatio(alias), cacheManagerBusiness.retrieveTierUsages(alias)));
+        }
+      }
+      this.caches = Collections.unmodifiableMap(caches);
+      Map<String, PoundingSnapshot> datasetInstances = new TreeMap<>();
+      if (datasetManagerBusiness.isDatasetManagerAlive()) {
+        for (String datasetName : datasetManagerBusiness.retrieveDatasetNames()) {
+          for (String instanceName : datasetManagerBusiness.getDatasetInstanceNames(datasetName)) {
+            datasetInstances.put(instanceName, new PoundingSnapshot(instanceName, now, datasetManagerBusiness.retrieveThroughput(instanceName),
+                datasetManagerBusiness.retrievePoundingRate(instanceName), datasetManagerBusiness.retrieveLatencies(instanceName),
+                Collections.emptyMap(), datasetManagerBusiness.retrieveOpCounters(instanceName), null, null));
+          }
+        }
+      }
+      this.datasetInstances = Collections.unmodifiableMap(datasetInstances);
+    } catch (RuntimeException e) {
+      // the managers are being closed or re-initialized, the next refresh will catch up
+    }
+  }
+}
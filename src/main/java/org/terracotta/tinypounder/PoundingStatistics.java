@@ -0,0 +1,163 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms of a pounded cache or dataset instance, one per {@link OpType}, along with the number of
+ * ops and value bytes it went through.
+ * <p>
+ * Histograms are reset whenever the pounding changes, while the op, latency and error counters keep counting
+ * since the target was first pounded; all of them are striped so that workers do not contend on them.
+ * <p>
+ * Bulk ops get a second histogram of their latency divided by their number of keys, so that batches of any
+ * size can be compared with single key ops.
+ */
+class PoundingStatistics {
+
+  private static final long THROUGHPUT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final LatencyHistogram[] histograms = new LatencyHistogram[OpType.values().length];
+  private final LatencyHistogram[] perKeyHistograms = new LatencyHistogram[OpType.values().length];
+  private final LongAdder[] opCounts = new LongAdder[OpType.values().length];
+  private final LongAdder[] latencySums = new LongAdder[OpType.values().length];
+  private final LongAdder[] errorCounts = new LongAdder[OpType.values().length];
+  private final LongAdder operations = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+
+  private long windowStartNanos = System.nanoTime();
+  private long windowStartOperations;
+  private long windowStartBytes;
+  private Throughput throughput = Throughput.NONE;
+
+  PoundingStatistics() {
+    for (OpType opType : OpType.values()) {
+      histograms[opType.ordinal()] = new LatencyHistogram();
+      opCounts[opType.ordinal()] = new LongAdder();
+      latencySums[opType.ordinal()] = new LongAdder();
+      errorCounts[opType.ordinal()] = new LongAdder();
+      if (opType.isBulk()) {
+        perKeyHistograms[opType.ordinal()] = new LatencyHistogram();
+      }
+    }
+  }
+
+  void record(OpType opType, long nanos) {
+    histograms[opType.ordinal()].record(nanos);
+    opCounts[opType.ordinal()].increment();
+    latencySums[opType.ordinal()].add(nanos);
+    operations.increment();
+  }
+
+  /**
+   * Counts an op that failed; its latency is not recorded.
+   */
+  void recordError(OpType opType) {
+    errorCounts[opType.ordinal()].increment();
+  }
+
+  /**
+   * Records the latency of a bulk op, both for the whole batch and per key.
+   */
+  void recordBatch(OpType opType, long nanos, int keys) {
+    record(opType, nanos);
+    perKeyHistograms[opType.ordinal()].record(nanos / Math.max(1, keys));
+  }
+
+  /**
+   * Counts the bytes of the values written or read by an op.
+   */
+  void recordBytes(long valueBytes) {
+    bytes.add(valueBytes);
+  }
+
+  /**
+   * @return the throughput since it was last computed, at least a second ago
+   */
+  synchronized Throughput throughput() {
+    long now = System.nanoTime();
+    long elapsed = now - windowStartNanos;
+    if (elapsed >= THROUGHPUT_WINDOW_NANOS) {
+      long operationsNow = operations.sum();
+      long bytesNow = bytes.sum();
+      double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+      throughput = new Throughput((operationsNow - windowStartOperations) / seconds, (bytesNow - windowStartBytes) / seconds);
+      windowStartNanos = now;
+      windowStartOperations = operationsNow;
+      windowStartBytes = bytesNow;
+    }
+    return throughput;
+  }
+
+  void reset() {
+    for (LatencyHistogram histogram : histograms) {
+      histogram.reset();
+    }
+    for (LatencyHistogram histogram : perKeyHistograms) {
+      if (histogram != null) {
+        histogram.reset();
+      }
+    }
+  }
+
+  /**
+   * @return the latencies of the op types that were recorded at least once
+   */
+  Map<OpType, LatencySnapshot> snapshot() {
+    return snapshot(histograms);
+  }
+
+  /**
+   * @return the per key latencies of the bulk op types that were recorded at least once
+   */
+  Map<OpType, LatencySnapshot> perKeySnapshot() {
+    return snapshot(perKeyHistograms);
+  }
+
+  /**
+   * @return the counters of the op types that were run or failed at least once
+   */
+  Map<OpType, OpCounters> counters() {
+    Map<OpType, OpCounters> counters = new EnumMap<>(OpType.class);
+    for (OpType opType : OpType.values()) {
+      long count = opCounts[opType.ordinal()].sum();
+      long errors = errorCounts[opType.ordinal()].sum();
+      if (count > 0 || errors > 0) {
+        counters.put(opType, new OpCounters(count, latencySums[opType.ordinal()].sum(), errors));
+      }
+    }
+    return counters;
+  }
+
+  private static Map<OpType, LatencySnapshot> snapshot(LatencyHistogram[] histograms) {
+    Map<OpType, LatencySnapshot> snapshots = new EnumMap<>(OpType.class);
+    for (OpType opType : OpType.values()) {
+      LatencyHistogram histogram = histograms[opType.ordinal()];
+      if (histogram == null) {
+        continue;
+      }
+      LatencySnapshot snapshot = histogram.snapshot();
+      if (snapshot.getCount() > 0) {
+        snapshots.put(opType, snapshot);
+      }
+    }
+    return snapshots;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How far the preload of a cache went, and how fast.
+ */
+public class PreloadProgress {
+
+  public static final PreloadProgress NONE = new PreloadProgress(0, 0, 0, 0, null, -1, 0, false);
+
+  private final long targetEntries;
+  private final long loadedEntries;
+  private final long loadedBytes;
+  private final long elapsedNanos;
+  private final String tier;
+  private final double occupancy;
+  private final int targetOccupancy;
+  private final boolean done;
+
+  /**
+   * @param targetEntries entries to load, {@link Long#MAX_VALUE} when only loading up to the tier occupancy
+   * @param tier tier whose occupancy stops the preload, null if there is none
+   * @param occupancy last known occupancy of the tier, in percent, -1 if unknown
+   */
+  public PreloadProgress(long targetEntries, long loadedEntries, long loadedBytes, long elapsedNanos, String tier, double occupancy, int targetOccupancy, boolean done) {
+    this.targetEntries = targetEntries;
+    this.loadedEntries = loadedEntries;
+    this.loadedBytes = loadedBytes;
+    this.elapsedNanos = elapsedNanos;
+    this.tier = tier;
+    this.occupancy = occupancy;
+    this.targetOccupancy = targetOccupancy;
+    this.done = done;
+  }
+
+  public long getTargetEntries() {
+    return targetEntries;
+  }
+
+  public long getLoadedEntries() {
+    return loadedEntries;
+  }
+
+  public long getLoadedBytes() {
+    return loadedBytes;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  public String getTier() {
+    return tier;
+  }
+
+  public double getOccupancy() {
+    return occupancy;
+  }
+
+  public int getTargetOccupancy() {
+    return targetOccupancy;
+  }
+
+  public boolean isDone() {
+    return done;
+  }
+
+  public double getEntriesPerSecond() {
+    return elapsedNanos == 0 ? 0 : loadedEntries * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  public double getBytesPerSecond() {
+    return elapsedNanos == 0 ? 0 : loadedBytes * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    if (this == NONE) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(done ? "preloaded " : "preloading ");
+    sb.append(loadedEntries);
+    if (targetEntries != Long.MAX_VALUE) {
+      sb.append(" / ").append(targetEntries);
+    }
+    sb.append(" entries");
+    if (tier != null) {
+      sb.append(String.format(", %s %s / %d%%", tier, occupancy < 0 ? "?" : String.format("%.0f%%", occupancy), targetOccupancy));
+    }
+    sb.append(String.format(" in %.1f s, %.0f entries/s, %.2f MB/s", elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1),
+        getEntriesPerSecond(), getBytesPerSecond() / (1024 * 1024)));
+    return sb.toString();
+  }
+}
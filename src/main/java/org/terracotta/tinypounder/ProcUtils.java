@@ -2,11 +2,8 @@ package org.terracotta.tinypounder;
 
 import org.terracotta.ipceventbus.proc.AnyProcess;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -18,26 +15,23 @@ public class ProcUtils {
   private static String OS = System.getProperty("os.name").toLowerCase();
 
   static AnyProcess run(File workDir, String command, Queue<String> consoleLines, Consumer<String> onNewLine, Runnable onTerminated) {
-    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-    final OutputStream out = new OutputStream() {
-      @Override
-      public void write(int b) throws IOException {
-        buffer.write(b);
-        if (((byte) b) == ((byte) 10)) { // \n
-          String newLine = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
-          while (!consoleLines.offer(newLine)) {
-            consoleLines.poll();
-          }
-          buffer.reset();
-          onNewLine.accept(newLine);
-        }
-      }
-    };
+    return run(workDir, command, consoleLines, null, onNewLine, onTerminated);
+  }
+
+  /**
+   * @param capture where the whole output goes, including the command, or null if it is not captured
+   */
+  static AnyProcess run(File workDir, String command, Queue<String> consoleLines, OutputCapture capture, Consumer<String> onNewLine,
+                        Runnable onTerminated) {
+    final OutputStream out = new LineDecoder(consoleLines, onNewLine, capture);
 
     consoleLines.clear();
     consoleLines.offer("Running:\n");
     consoleLines.offer(command + "\n");
     consoleLines.offer("...\n");
+    if (capture != null) {
+      capture.append("Running: " + command + "\n");
+    }
 
     AnyProcess process = AnyProcess.newBuilder()
         .command(ProcUtils.isWindows() ? new String[]{"cmd.exe", "/c", command} : new String[]{"/bin/bash", "-c", command})
@@ -0,0 +1,169 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a run did against a baseline run : the throughput and the p99 latency of each op of the targets they both
+ * pounded, flagged as a regression when the throughput dropped, or the p99 latency grew, by more than the threshold.
+ */
+public class RunComparison {
+
+  static final String OPS_PER_SECOND = "opsPerSecond";
+  static final String P99 = "p99";
+
+  private final String baseline;
+  private final String candidate;
+  private final double thresholdPercent;
+  private final List<Delta> deltas;
+
+  private RunComparison(String baseline, String candidate, double thresholdPercent, List<Delta> deltas) {
+    this.baseline = baseline;
+    this.candidate = candidate;
+    this.thresholdPercent = thresholdPercent;
+    this.deltas = Collections.unmodifiableList(deltas);
+  }
+
+  /**
+   * @param thresholdPercent change, in percent of the baseline, past which a metric is flagged as a regression
+   */
+  static RunComparison compare(RunRecord baseline, RunRecord candidate, double thresholdPercent) {
+    if (thresholdPercent < 0) {
+      throw new IllegalArgumentException("Regression threshold must not be negative: " + thresholdPercent);
+    }
+    List<Delta> deltas = new ArrayList<>();
+    for (RunRecord.Target candidateTarget : candidate.getTargets()) {
+      RunRecord.Target baselineTarget = baseline.target(candidateTarget.getKind(), candidateTarget.getName());
+      if (baselineTarget == null) {
+        continue;
+      }
+      String target = candidateTarget.getKind() + ":" + candidateTarget.getName();
+      double throughputChange = change(baselineTarget.getOpsPerSecond(), candidateTarget.getOpsPerSecond());
+      deltas.add(new Delta(target, null, OPS_PER_SECOND, baselineTarget.getOpsPerSecond(), candidateTarget.getOpsPerSecond(),
+          throughputChange, throughputChange < -thresholdPercent));
+      for (Map.Entry<String, LatencySnapshot> latency : candidateTarget.getLatencies().entrySet()) {
+        LatencySnapshot baselineLatency = baselineTarget.getLatencies().get(latency.getKey());
+        if (baselineLatency == null) {
+          continue;
+        }
+        double p99Change = change(baselineLatency.getP99(), latency.getValue().getP99());
+        deltas.add(new Delta(target, latency.getKey(), P99, baselineLatency.getP99(), latency.getValue().getP99(),
+            p99Change, p99Change > thresholdPercent));
+      }
+    }
+    return new RunComparison(baseline.getId(), candidate.getId(), thresholdPercent, deltas);
+  }
+
+  private static double change(double baseline, double candidate) {
+    if (baseline == 0) {
+      return 0;
+    }
+    return (candidate - baseline) * 100 / baseline;
+  }
+
+  public String getBaseline() {
+    return baseline;
+  }
+
+  public String getCandidate() {
+    return candidate;
+  }
+
+  public double getThresholdPercent() {
+    return thresholdPercent;
+  }
+
+  public List<Delta> getDeltas() {
+    return deltas;
+  }
+
+  public boolean isRegressed() {
+    return deltas.stream().anyMatch(Delta::isRegression);
+  }
+
+  /**
+   * One metric of a target in both runs.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Delta {
+
+    private final String target;
+    private final String op;
+    private final String metric;
+    private final double baseline;
+    private final double candidate;
+    private final double changePercent;
+    private final boolean regression;
+
+    /**
+     * @param op the op label of a latency, null for the throughput of the target
+     */
+    Delta(String target, String op, String metric, double baseline, double candidate, double changePercent, boolean regression) {
+      this.target = target;
+      this.op = op;
+      this.metric = metric;
+      this.baseline = baseline;
+      this.candidate = candidate;
+      this.changePercent = Math.round(changePercent * 100) / 100.0;
+      this.regression = regression;
+    }
+
+    public String getTarget() {
+      return target;
+    }
+
+    public String getOp() {
+      return op;
+    }
+
+    /**
+     * @return {@link #OPS_PER_SECOND}, or {@link #P99} in nanoseconds
+     */
+    public String getMetric() {
+      return metric;
+    }
+
+    public double getBaseline() {
+      return baseline;
+    }
+
+    public double getCandidate() {
+      return candidate;
+    }
+
+    public double getChangePercent() {
+      return changePercent;
+    }
+
+    public boolean isRegression() {
+      return regression;
+    }
+
+    @Override
+    public String toString() {
+      String what = op == null ? target + " ops/s" : target + " " + op + " p99";
+      String values = op == null ? String.format("%.0f -> %.0f", baseline, candidate)
+          : String.format("%.3f -> %.3f ms", baseline / 1_000_000.0, candidate / 1_000_000.0);
+      return String.format("%s : %s (%+.1f%%)%s", what, values, changePercent, regression ? " REGRESSION" : "");
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs kept across sessions in ~/.tinypounder/runs.jsonl, next to the settings : one compact JSON line per run,
+ * only ever appended to, so that a kit can be compared with the runs of the previous ones.
+ */
+@Service
+public class RunHistory {
+
+  static final String LATEST = "latest";
+
+  private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+  private final File history = new File(System.getProperty("user.home"), ".tinypounder/runs.jsonl");
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Settings settings;
+  private final KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator;
+  private final CacheManagerBusiness cacheManagerBusiness;
+  private final DatasetManagerBusinessReflectionImpl datasetManagerBusiness;
+  private final PoundingSnapshots poundingSnapshots;
+
+  @Autowired
+  public RunHistory(Settings settings, KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator, CacheManagerBusiness cacheManagerBusiness,
+                    DatasetManagerBusinessReflectionImpl datasetManagerBusiness, PoundingSnapshots poundingSnapshots) {
+    this.settings = settings;
+    this.kitAwareClassLoaderDelegator = kitAwareClassLoaderDelegator;
+    this.cacheManagerBusiness = cacheManagerBusiness;
+    this.datasetManagerBusiness = datasetManagerBusiness;
+    this.poundingSnapshots = poundingSnapshots;
+  }
+
+  /**
+   * @return the runs, oldest first
+   */
+  public synchronized List<RunRecord> runs() {
+    List<RunRecord> runs = new ArrayList<>();
+    if (!history.exists()) {
+      return runs;
+    }
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(history), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        try {
+          runs.add(objectMapper.readValue(line, RunRecord.class));
+        } catch (IOException e) {
+          // a line cut short by a crash, the next ones are fine
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return runs;
+  }
+
+  /**
+   * @param id the id of a run, or {@link #LATEST} for the last one recorded
+   * @return the run, or null if there is none with that id
+   */
+  public RunRecord run(String id) {
+    List<RunRecord> runs = runs();
+    if (LATEST.equals(id)) {
+      return runs.isEmpty() ? null : runs.get(runs.size() - 1);
+    }
+    return runs.stream().filter(run -> run.getId().equals(id)).findFirst().orElse(null);
+  }
+
+  /**
+   * Records the caches and dataset instances being pounded, with the throughput and latencies they have now.
+   */
+  public RunRecord recordCurrent(String name) {
+    Map<String, Object> configuration = new LinkedHashMap<>();
+    List<RunRecord.Target> targets = new ArrayList<>();
+    poundingSnapshots.caches().forEach((alias, snapshot) -> {
+      configuration.put(RunRecord.CACHE + ":" + alias, pounding(cacheManagerBusiness.retrieveWorkload(alias),
+          cacheManagerBusiness.retrievePoundingIntensity(alias), cacheManagerBusiness.retrievePoundingRate(alias),
+          cacheManagerBusiness.retrievePoundingConcurrency(alias)));
+      targets.add(new RunRecord.Target(RunRecord.CACHE, alias, snapshot.getThroughput().getOpsPerSecond(), snapshot.getLatencies()));
+    });
+    poundingSnapshots.datasetInstances().forEach((instanceName, snapshot) -> {
+      configuration.put(RunRecord.DATASET + ":" + instanceName, pounding(datasetManagerBusiness.retrieveWorkload(instanceName),
+          datasetManagerBusiness.retrievePoundingIntensity(instanceName), datasetManagerBusiness.retrievePoundingRate(instanceName),
+          datasetManagerBusiness.retrievePoundingConcurrency(instanceName)));
+      targets.add(new RunRecord.Target(RunRecord.DATASET, instanceName, snapshot.getThroughput().getOpsPerSecond(), snapshot.getLatencies()));
+    });
+    if (targets.isEmpty()) {
+      throw new IllegalStateException("Nothing is being pounded");
+    }
+    return record(name, 0, configuration, targets);
+  }
+
+  /**
+   * Appends a run, along with the kit it ran against.
+   */
+  public synchronized RunRecord record(String name, long durationSeconds, Map<String, Object> configuration, List<RunRecord.Target> targets) {
+    RunRecord run = new RunRecord(RUN_ID.format(LocalDateTime.now()), name, System.currentTimeMillis(), durationSeconds,
+        settings.getKitPath(), kitAwareClassLoaderDelegator.getKitVersion(), configuration, targets);
+    history.getParentFile().mkdirs();
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(history, true), StandardCharsets.UTF_8)) {
+      writer.write(objectMapper.writeValueAsString(run));
+      writer.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return run;
+  }
+
+  /**
+   * @param thresholdPercent change, in percent of the baseline, past which a metric is flagged as a regression
+   */
+  public RunComparison compare(String baselineId, String candidateId, double thresholdPercent) {
+    return RunComparison.compare(existing(baselineId), existing(candidateId), thresholdPercent);
+  }
+
+  private RunRecord existing(String id) {
+    RunRecord run = run(id);
+    if (run == null) {
+      throw new IllegalArgumentException("Unknown run: " + id);
+    }
+    return run;
+  }
+
+  private static Map<String, Object> pounding(Workload workload, int intensity, PoundingRate rate, int concurrency) {
+    Map<String, Object> workloadConfiguration = new LinkedHashMap<>();
+    workloadConfiguration.put("operationMix", workload.getOperationMix().toString());
+    workloadConfiguration.put("keys", workload.getKeyDistribution().toString());
+    workloadConfiguration.put("keySpace", workload.getKeySpace());
+    workloadConfiguration.put("valueSizes", workload.getValueSizes().toString());
+    workloadConfiguration.put("batchSize", workload.getBatchSize());
+    Map<String, Object> pounding = new LinkedHashMap<>();
+    pounding.put("workload", workloadConfiguration);
+    if (rate.getRequestedRate() > 0) {
+      pounding.put("rate", rate.getRequestedRate());
+    } else {
+      pounding.put("intensity", intensity);
+    }
+    pounding.put("concurrency", concurrency);
+    return pounding;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON API over the {@link RunHistory} : lists and records runs, and compares a run with a baseline one. Runs are
+ * addressed by id, or by latest for the last one recorded.
+ */
+@RestController
+@RequestMapping("/api/runs")
+public class RunHistoryController {
+
+  private final RunHistory runHistory;
+
+  @Autowired
+  public RunHistoryController(RunHistory runHistory) {
+    this.runHistory = runHistory;
+  }
+
+  @GetMapping
+  public List<RunRecord> runs() {
+    return runHistory.runs();
+  }
+
+  @GetMapping("/{id}")
+  public RunRecord run(@PathVariable String id) {
+    RunRecord run = runHistory.run(id);
+    if (run == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown run: " + id);
+    }
+    return run;
+  }
+
+  /**
+   * Records what is being pounded right now as a run.
+   */
+  @PostMapping
+  public RunRecord record(@RequestParam(defaultValue = "ui") String name) {
+    return runHistory.recordCurrent(name);
+  }
+
+  @GetMapping("/{candidate}/comparison")
+  public RunComparison compare(@PathVariable String candidate, @RequestParam String baseline,
+                               @RequestParam(defaultValue = "10") double threshold) {
+    return runHistory.compare(baseline, candidate, threshold);
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Map<String, String> badRequest(IllegalArgumentException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  @ExceptionHandler(IllegalStateException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Map<String, String> conflict(IllegalStateException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pounding run kept in the {@link RunHistory} : what was pounded, with which kit, and the throughput and latencies
+ * of each of its targets at the end of the run. Latencies are in nanoseconds, by op label.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class RunRecord {
+
+  static final String CACHE = "cache";
+  static final String DATASET = "dataset";
+
+  private final String id;
+  private final String name;
+  private final long timestamp;
+  private final long durationSeconds;
+  private final String kitPath;
+  private final String kitVersion;
+  private final Map<String, Object> configuration;
+  private final List<Target> targets;
+
+  /**
+   * @param durationSeconds how long the targets were measured, 0 for a run recorded while pounding from the UI
+   * @param configuration the scenario of a headless run, or the workload and pounding of each target
+   */
+  @JsonCreator
+  public RunRecord(@JsonProperty("id") String id, @JsonProperty("name") String name, @JsonProperty("timestamp") long timestamp,
+                   @JsonProperty("durationSeconds") long durationSeconds, @JsonProperty("kitPath") String kitPath,
+                   @JsonProperty("kitVersion") String kitVersion, @JsonProperty("configuration") Map<String, Object> configuration,
+                   @JsonProperty("targets") List<Target> targets) {
+    this.id = id;
+    this.name = name;
+    this.timestamp = timestamp;
+    this.durationSeconds = durationSeconds;
+    this.kitPath = kitPath;
+    this.kitVersion = kitVersion;
+    this.configuration = configuration == null ? Collections.emptyMap() : Collections.unmodifiableMap(configuration);
+    this.targets = targets == null ? Collections.emptyList() : Collections.unmodifiableList(targets);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return when the run was recorded, in milliseconds since the epoch
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public long getDurationSeconds() {
+    return durationSeconds;
+  }
+
+  public String getKitPath() {
+    return kitPath;
+  }
+
+  public String getKitVersion() {
+    return kitVersion;
+  }
+
+  public Map<String, Object> getConfiguration() {
+    return configuration;
+  }
+
+  public List<Target> getTargets() {
+    return targets;
+  }
+
+  /**
+   * @return the target of that kind and name, or null if the run did not pound it
+   */
+  Target target(String kind, String name) {
+    return targets.stream().filter(target -> target.kind.equals(kind) && target.name.equals(name)).findFirst().orElse(null);
+  }
+
+  /**
+   * A cache or a dataset instance pounded during the run.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public static class Target {
+
+    private final String kind;
+    private final String name;
+    private final double opsPerSecond;
+    private final Map<String, LatencySnapshot> latencies;
+
+    /**
+     * @param kind {@link #CACHE} or {@link #DATASET}
+     */
+    @JsonCreator
+    public Target(@JsonProperty("kind") String kind, @JsonProperty("name") String name, @JsonProperty("opsPerSecond") double opsPerSecond,
+                  @JsonProperty("latencies") Map<String, LatencySnapshot> latencies) {
+      this.kind = kind;
+      this.name = name;
+      this.opsPerSecond = opsPerSecond;
+      this.latencies = latencies == null ? Collections.emptyMap() : Collections.unmodifiableMap(latencies);
+    }
+
+    public String getKind() {
+      return kind;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public double getOpsPerSecond() {
+      return opsPerSecond;
+    }
+
+    public Map<String, LatencySnapshot> getLatencies() {
+      return latencies;
+    }
+  }
+}
@@ -1,11 +1,8 @@
 package org.terracotta.tinypounder;
 
-import com.vaadin.ui.TextArea;
-
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,16 +23,20 @@ class RunningServer {
   private final String serverName;
   private final String nodeHostname;
   private final String nodePort;
-  private final TextArea console;
-  private final ArrayBlockingQueue<String> lines;
+  private final ConsoleTextArea console;
+  private final OutputCapture capture;
+  private final ConsoleLines lines;
+  private final ConsoleLines.Text consoleText = new ConsoleLines.Text();
   private final Runnable onTerminated;
   private final Consumer<String> onState;
   private final Consumer<Long> onPID;
-  private long pid;
+  private volatile long pid;
+  private volatile String state = "STARTING";
+  private volatile long startMillis;
 
   RunningServer(File workDir, String clusterName, File stripeconfig, String stripeName,
-                String serverName, String nodeHostname, String nodePort, TextArea console, int maxLines,
-                Runnable onTerminated, Consumer<String> onState, Consumer<Long> onPID) {
+                String serverName, String nodeHostname, String nodePort, ConsoleTextArea console, int maxLines,
+                OutputCapture capture, Runnable onTerminated, Consumer<String> onState, Consumer<Long> onPID) {
     this.workDir = workDir;
     this.clusterName = clusterName;
     this.stripeconfig = stripeconfig;
@@ -43,8 +44,9 @@ class RunningServer {
     this.serverName = serverName;
     this.nodeHostname = nodeHostname;
     this.nodePort = nodePort;
-    this.lines = new ArrayBlockingQueue<>(maxLines);
+    this.lines = new ConsoleLines(maxLines);
     this.console = console;
+    this.capture = capture;
     this.onTerminated = onTerminated;
     this.onState = onState;
     this.onPID = onPID;
@@ -59,6 +61,7 @@ class RunningServer {
   }
 
   void start() {
+    startMillis = System.currentTimeMillis();
     String script = new File(workDir, "server/bin/start-tc-server." + (ProcUtils.isWindows() ? "bat" : "sh")).getAbsolutePath();
     String command;
     if (new File(workDir, "init").exists()) {
@@ -77,15 +80,16 @@ class RunningServer {
       workDir,
       command,
       lines,
+      capture,
       newLine -> {
         if (newLine.contains(ACTIVE_PATTERN)) {
-          onState.accept("ACTIVE");
+          state("ACTIVE");
         } else if (newLine.contains(" - Started the server in diagnostic mode")) {
-          onState.accept("DIAGNOSTIC MODE");
+          state("DIAGNOSTIC MODE");
         } else if (newLine.contains("INFO - Moved to State[")) {
           Matcher m = PASSIVE_PATTERN.matcher(newLine);
           if (m.find()) {
-            onState.accept(m.group(1));
+            state(m.group(1));
           }
         } else if (newLine.contains(" - PID is ")) {
           Matcher m = PID_PATTERN.matcher(newLine);
@@ -99,11 +103,59 @@ class RunningServer {
           }
         }
       },
-      onTerminated);
+      () -> {
+        state = "TERMINATED";
+        PounderEvents.serverState(stripeName, serverName, state, pid);
+        onTerminated.run();
+      });
+  }
+
+  private void state(String newState) {
+    state = newState;
+    PounderEvents.serverState(stripeName, serverName, newState, pid);
+    onState.accept(newState);
+  }
+
+  String getStripeName() {
+    return stripeName;
+  }
+
+  String getServerName() {
+    return serverName;
+  }
+
+  /**
+   * @return STARTING until the server logs its state, then ACTIVE, PASSIVE-STANDBY..., TERMINATED once its process exited
+   */
+  String getState() {
+    return state;
+  }
+
+  /**
+   * @return the process id, 0 until the server logs it
+   */
+  long getPid() {
+    return pid;
+  }
+
+  long getStartMillis() {
+    return startMillis;
+  }
+
+  /**
+   * @return true if lines were logged since the console was last refreshed
+   */
+  boolean isConsoleBehind() {
+    return consoleText.isBehind(lines);
   }
 
+  /**
+   * Streams the lines logged since the last refresh, if any, to the console.
+   */
   void refreshConsole() {
-    TinyPounderMainUI.updateTextArea(console, lines);
+    if (consoleText.update(lines)) {
+      console.stream(consoleText);
+    }
   }
 
 }
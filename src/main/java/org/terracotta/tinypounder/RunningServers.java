@@ -0,0 +1,44 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The servers started from any UI, until their process exits, so that they can be reported outside of the UI.
+ */
+@Service
+public class RunningServers {
+
+  private final Map<String, RunningServer> servers = new ConcurrentHashMap<>();
+
+  void register(String key, RunningServer server) {
+    servers.put(key, server);
+  }
+
+  void unregister(String key) {
+    servers.remove(key);
+  }
+
+  Collection<RunningServer> all() {
+    return new ArrayList<>(servers.values());
+  }
+}
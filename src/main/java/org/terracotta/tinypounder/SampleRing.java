@@ -0,0 +1,69 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Last samples of the {@link TierMetric}s of one tier, kept in primitive arrays allocated once, so that a long soak
+ * does not grow the heap : once full, each new sample overwrites the oldest one.
+ */
+class SampleRing {
+
+  private final long[] timestamps;
+  private final long[][] values;
+  private long count;
+
+  SampleRing(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.timestamps = new long[capacity];
+    this.values = new long[TierMetric.values().length][capacity];
+  }
+
+  /**
+   * @param sample one value per {@link TierMetric}, by ordinal
+   */
+  synchronized void add(long timestampMillis, long[] sample) {
+    int slot = (int) (count % timestamps.length);
+    timestamps[slot] = timestampMillis;
+    for (int metric = 0; metric < values.length; metric++) {
+      values[metric][slot] = sample[metric];
+    }
+    count++;
+  }
+
+  /**
+   * @return a copy of the samples, oldest first
+   */
+  synchronized TierTimeSeries snapshot(String tier) {
+    int size = (int) Math.min(count, timestamps.length);
+    int oldest = (int) ((count - size) % timestamps.length);
+    long[] timestampsCopy = copy(timestamps, oldest, size);
+    long[][] valuesCopy = new long[values.length][];
+    for (int metric = 0; metric < values.length; metric++) {
+      valuesCopy[metric] = copy(values[metric], oldest, size);
+    }
+    return new TierTimeSeries(tier, timestampsCopy, valuesCopy);
+  }
+
+  private static long[] copy(long[] ring, int oldest, int size) {
+    long[] copy = new long[size];
+    int firstPart = Math.min(size, ring.length - oldest);
+    System.arraycopy(ring, oldest, copy, 0, firstPart);
+    System.arraycopy(ring, 0, copy, firstPart, size - firstPart);
+    return copy;
+  }
+}
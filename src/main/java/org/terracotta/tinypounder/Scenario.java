@@ -0,0 +1,355 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A whole headless run, read from a YAML file such as:
+ * <pre>
+ * name: offheap-soak
+ * kitPath: /opt/ehcache-3.10.8        # optional, defaults to the kit set in the UI
+ * clusterUrl: localhost:9410          # optional, caches and datasets are local without it
+ * cacheManager:
+ *   name: TinyPounderCM
+ *   diskPersistenceLocation: tinyPounderDiskPersistence
+ * caches:
+ *   - name: products
+ *     heap: 10000 ENTRIES
+ *     offheap: 64 MB
+ *     preload: {entries: 100000, loaders: 4}
+ *     workload: {operationMix: "get:90,put:10", keys: "zipfian:0.99", keySpace: 100000, valueSizes: "fixed:1024"}
+ *     rate: 20000
+ *     concurrency: 4
+ * datasets:
+ *   - name: orders
+ *     keyType: LONG
+ *     offheapResource: offheap-1
+ *     intensity: 5
+ * ramp: 30s
+ * duration: 5m
+ * results: offheap-soak.yaml
+ * </pre>
+ * A cache is pounded with a rate, an intensity or simulated clients; a dataset with a rate or an intensity.
+ * Servers are not started by a scenario : clusterUrl points to a cluster that is already running.
+ */
+class Scenario {
+
+  private static final Pattern DURATION = Pattern.compile("(\\d+)\\s*(ms|s|m|h)?");
+  private static final Pattern SIZE = Pattern.compile("(\\d+)\\s*([A-Za-z]+)");
+
+  final String name;
+  final String kitPath;
+  final String clusterUrl;
+  final String securityPath;
+  final String cacheManagerName;
+  final String diskPersistenceLocation;
+  final String offheapResource;
+  final String diskResource;
+  final List<CacheTarget> caches;
+  final List<DatasetTarget> datasets;
+  final long rampMillis;
+  final long durationMillis;
+  final String results;
+  // the YAML as it was read, kept with the run in the history
+  final Map<String, Object> definition;
+
+  private Scenario(Map<String, Object> yaml) {
+    definition = Collections.unmodifiableMap(yaml);
+    name = string(yaml, "name", "scenario");
+    kitPath = string(yaml, "kitPath", null);
+    clusterUrl = string(yaml, "clusterUrl", null);
+    securityPath = string(yaml, "securityPath", null);
+    Map<String, Object> cacheManager = map(yaml, "cacheManager");
+    cacheManagerName = string(cacheManager, "name", "TinyPounderCM");
+    diskPersistenceLocation = string(cacheManager, "diskPersistenceLocation", null);
+    offheapResource = string(cacheManager, "offheapResource", "offheap-1");
+    diskResource = string(cacheManager, "diskResource", "dataroot-1");
+    List<CacheTarget> caches = new ArrayList<>();
+    for (Map<String, Object> cache : list(yaml, "caches")) {
+      caches.add(new CacheTarget(cache));
+    }
+    this.caches = Collections.unmodifiableList(caches);
+    List<DatasetTarget> datasets = new ArrayList<>();
+    for (Map<String, Object> dataset : list(yaml, "datasets")) {
+      datasets.add(new DatasetTarget(dataset));
+    }
+    this.datasets = Collections.unmodifiableList(datasets);
+    if (this.caches.isEmpty() && this.datasets.isEmpty()) {
+      throw new IllegalArgumentException("A scenario needs at least one cache or dataset");
+    }
+    if (clusterUrl == null && !this.datasets.isEmpty()) {
+      throw new IllegalArgumentException("Datasets need a clusterUrl");
+    }
+    if (diskPersistenceLocation == null && this.caches.stream().anyMatch(cache -> cache.configuration.getDiskSize() > 0)) {
+      throw new IllegalArgumentException("Caches with a disk tier need a cacheManager diskPersistenceLocation");
+    }
+    rampMillis = durationMillis(yaml, "ramp", 0);
+    durationMillis = durationMillis(yaml, "duration", -1);
+    if (durationMillis <= 0) {
+      throw new IllegalArgumentException("A scenario needs a positive duration, such as 5m");
+    }
+    results = string(yaml, "results", null);
+  }
+
+  @SuppressWarnings("unchecked")
+  static Scenario load(Path path) {
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      Object yaml = new Yaml().load(reader);
+      if (!(yaml instanceof Map)) {
+        throw new IllegalArgumentException("Expecting a YAML mapping in " + path);
+      }
+      return new Scenario((Map<String, Object>) yaml);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * How a cache or a dataset is pounded once the ramp is over.
+   */
+  static class Pounding {
+
+    final Workload workload;
+    final long rate;
+    final int intensity;
+    final int clients;
+    final long thinkTimeMillis;
+    final int concurrency;
+
+    private Pounding(Map<String, Object> target) {
+      workload = workload(map(target, "workload"));
+      rate = number(target, "rate", 0);
+      intensity = (int) number(target, "intensity", 0);
+      clients = (int) number(target, "clients", 0);
+      thinkTimeMillis = durationMillis(target, "thinkTime", 0);
+      concurrency = (int) number(target, "concurrency", 0);
+      if (rate <= 0 && intensity <= 0 && clients <= 0) {
+        throw new IllegalArgumentException("Expecting a rate, an intensity or clients to pound " + target.get("name") + " with");
+      }
+      if (intensity > 11) {
+        throw new IllegalArgumentException("Intensity goes up to 11: " + intensity);
+      }
+    }
+  }
+
+  static class CacheTarget {
+
+    final String name;
+    final CacheConfiguration configuration;
+    final Pounding pounding;
+    final long preloadEntries;
+    final int preloadLoaders;
+    final String preloadTier;
+    final int preloadOccupancy;
+    final double targetHitRatio;
+
+    private CacheTarget(Map<String, Object> cache) {
+      name = required(cache, "name");
+      configuration = cacheConfiguration(cache);
+      pounding = new Pounding(cache);
+      Map<String, Object> preload = map(cache, "preload");
+      preloadEntries = number(preload, "entries", 0);
+      preloadLoaders = (int) number(preload, "loaders", 4);
+      String until = string(preload, "until", null);
+      if (until != null) {
+        String[] splitted = until.split(":");
+        if (splitted.length != 2) {
+          throw new IllegalArgumentException("Expecting a preload until tier:percent, got: " + until);
+        }
+        preloadTier = splitted[0].trim();
+        preloadOccupancy = Integer.parseInt(splitted[1].trim());
+      } else {
+        preloadTier = null;
+        preloadOccupancy = 0;
+      }
+      targetHitRatio = number(cache, "targetHitRatio", 0);
+    }
+
+    boolean preloads() {
+      return preloadEntries > 0 || preloadTier != null;
+    }
+  }
+
+  static class DatasetTarget {
+
+    final String name;
+    final DatasetConfiguration configuration;
+    final int instances;
+    final Pounding pounding;
+
+    private DatasetTarget(Map<String, Object> dataset) {
+      name = required(dataset, "name");
+      configuration = datasetConfiguration(dataset);
+      instances = (int) number(dataset, "instances", 1);
+      pounding = new Pounding(dataset);
+      if (pounding.clients > 0) {
+        throw new IllegalArgumentException("Datasets cannot be pounded with simulated clients: " + name);
+      }
+    }
+  }
+
+  /**
+   * @return the workload described by operationMix, keys, keySpace, valueSizes and batchSize, defaulting to {@link Workload#DEFAULT}
+   */
+  static Workload workload(Map<String, Object> yaml) {
+    Workload workload = Workload.DEFAULT;
+    if (yaml.containsKey("operationMix")) {
+      workload = workload.withOperationMix(OperationMix.parse(string(yaml, "operationMix", null)));
+    }
+    if (yaml.containsKey("keys")) {
+      workload = workload.withKeyDistribution(KeyDistribution.parse(string(yaml, "keys", null)));
+    }
+    if (yaml.containsKey("valueSizes")) {
+      workload = workload.withValueSizes(ValueSizeDistribution.parse(string(yaml, "valueSizes", null)));
+    }
+    return workload
+        .withKeySpace(number(yaml, "keySpace", 0))
+        .withBatchSize((int) number(yaml, "batchSize", workload.getBatchSize()));
+  }
+
+  /**
+   * @return the cache tiers described by heap, offheap, disk, clustered (a dedicated size) and sharedPool
+   */
+  static CacheConfiguration cacheConfiguration(Map<String, Object> cache) {
+    long heap = size(cache, "heap");
+    String heapUnit = heap > 0 ? sizeUnit(cache, "heap") : "ENTRIES";
+    long offheap = size(cache, "offheap");
+    long disk = size(cache, "disk");
+    long clustered = size(cache, "clustered");
+    String sharedPool = string(cache, "sharedPool", null);
+    CacheConfiguration.ClusterTierType clusterTierType = clustered > 0 ? CacheConfiguration.ClusterTierType.DEDICATED
+        : sharedPool != null ? CacheConfiguration.ClusterTierType.SHARED : CacheConfiguration.ClusterTierType.NONE;
+    return new CacheConfiguration(heap, heapUnit, offheap, sizeUnit(cache, "offheap"), disk, sizeUnit(cache, "disk"),
+        clustered, sizeUnit(cache, "clustered"), sharedPool, clusterTierType);
+  }
+
+  static DatasetConfiguration datasetConfiguration(Map<String, Object> dataset) {
+    return new DatasetConfiguration(string(dataset, "keyType", "LONG").toUpperCase(), string(dataset, "offheapResource", "offheap-1"),
+        string(dataset, "diskResource", null), Boolean.parseBoolean(string(dataset, "index", "true")));
+  }
+
+  private static String required(Map<String, Object> yaml, String key) {
+    String value = string(yaml, key, null);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing " + key + " in " + yaml);
+    }
+    return value;
+  }
+
+  static String string(Map<String, Object> yaml, String key, String defaultValue) {
+    Object value = yaml.get(key);
+    return value == null ? defaultValue : value.toString().trim();
+  }
+
+  static long number(Map<String, Object> yaml, String key, long defaultValue) {
+    Object value = yaml.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString().trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Expecting a number for " + key + ", got: " + value);
+    }
+  }
+
+  /**
+   * @return the milliseconds of a duration such as 500ms, 30s, 5m or 1h ; a bare number is in seconds
+   */
+  static long durationMillis(Map<String, Object> yaml, String key, long defaultValue) {
+    String value = string(yaml, key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    Matcher matcher = DURATION.matcher(value);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Expecting a duration such as 30s or 5m for " + key + ", got: " + value);
+    }
+    long amount = Long.parseLong(matcher.group(1));
+    String unit = matcher.group(2) == null ? "s" : matcher.group(2);
+    switch (unit) {
+      case "ms":
+        return amount;
+      case "m":
+        return amount * 60_000;
+      case "h":
+        return amount * 3_600_000;
+      default:
+        return amount * 1000;
+    }
+  }
+
+  /**
+   * @return the size of a tier such as "64 MB" or "10000 ENTRIES", 0 when there is no such tier
+   */
+  private static long size(Map<String, Object> yaml, String key) {
+    String value = string(yaml, key, null);
+    if (value == null) {
+      return 0;
+    }
+    Matcher matcher = SIZE.matcher(value);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Expecting a size such as 64 MB for " + key + ", got: " + value);
+    }
+    return Long.parseLong(matcher.group(1));
+  }
+
+  private static String sizeUnit(Map<String, Object> yaml, String key) {
+    String value = string(yaml, key, null);
+    if (value == null) {
+      return "MB";
+    }
+    Matcher matcher = SIZE.matcher(value);
+    return matcher.matches() ? matcher.group(2).toUpperCase() : "MB";
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> map(Map<String, Object> yaml, String key) {
+    Object value = yaml.get(key);
+    if (value == null) {
+      return Collections.emptyMap();
+    }
+    if (!(value instanceof Map)) {
+      throw new IllegalArgumentException("Expecting a mapping for " + key + ", got: " + value);
+    }
+    return (Map<String, Object>) value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> list(Map<String, Object> yaml, String key) {
+    Object value = yaml.get(key);
+    if (value == null) {
+      return Collections.emptyList();
+    }
+    if (!(value instanceof List)) {
+      throw new IllegalArgumentException("Expecting a list for " + key + ", got: " + value);
+    }
+    return (List<Map<String, Object>>) value;
+  }
+}
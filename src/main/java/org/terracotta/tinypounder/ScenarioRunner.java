@@ -0,0 +1,351 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link Scenario} given with --scenario=path/to/scenario.yaml instead of serving the UI : creates its caches
+ * and datasets, preloads them, ramps their pounding up, pounds them for the duration and writes the results file.
+ * <p>
+ * The run is kept in the {@link RunHistory}. With --compareWith=runId (or latest), it is also compared with that run
+ * and the application exits with {@value #REGRESSION_EXIT_CODE} if the throughput or the p99 latency of a target
+ * regressed by more than --regressionThreshold percent (10 by default).
+ */
+@Component
+@ConditionalOnProperty("scenario")
+public class ScenarioRunner implements ApplicationRunner, ExitCodeGenerator {
+
+  static final int REGRESSION_EXIT_CODE = 2;
+
+  private static final DateTimeFormatter RESULTS_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private final KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator;
+  private final CacheManagerBusiness cacheManagerBusiness;
+  private final DatasetManagerBusinessReflectionImpl datasetManagerBusiness;
+  private final RunHistory runHistory;
+  private final String scenarioPath;
+  private final String compareWith;
+  private final double regressionThreshold;
+
+  private volatile int exitCode;
+
+  @Autowired
+  public ScenarioRunner(KitAwareClassLoaderDelegator kitAwareClassLoaderDelegator, CacheManagerBusiness cacheManagerBusiness,
+                        DatasetManagerBusinessReflectionImpl datasetManagerBusiness, RunHistory runHistory,
+                        @Value("${scenario}") String scenarioPath, @Value("${compareWith:}") String compareWith,
+                        @Value("${regressionThreshold:10}") double regressionThreshold) {
+    this.kitAwareClassLoaderDelegator = kitAwareClassLoaderDelegator;
+    this.cacheManagerBusiness = cacheManagerBusiness;
+    this.datasetManagerBusiness = datasetManagerBusiness;
+    this.runHistory = runHistory;
+    this.scenarioPath = scenarioPath;
+    this.compareWith = compareWith;
+    this.regressionThreshold = regressionThreshold;
+  }
+
+  @Override
+  public int getExitCode() {
+    return exitCode;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    Scenario scenario = Scenario.load(Paths.get(scenarioPath));
+    if (scenario.kitPath != null) {
+      kitAwareClassLoaderDelegator.setAndVerifyKitPathAndClassLoader(scenario.kitPath);
+    }
+    if (!scenario.caches.isEmpty() && !kitAwareClassLoaderDelegator.containsEhcache()) {
+      throw new IllegalStateException("The kit does not contain Ehcache, set a kitPath to pound caches");
+    }
+    if (!scenario.datasets.isEmpty() && !kitAwareClassLoaderDelegator.containsTerracottaStore()) {
+      throw new IllegalStateException("The kit does not contain TC Store, set a kitPath to pound datasets");
+    }
+    // resolved before this run is recorded, so that latest is the previous run
+    RunRecord baseline = null;
+    if (!compareWith.isEmpty()) {
+      baseline = runHistory.run(compareWith);
+      if (baseline == null) {
+        throw new IllegalArgumentException("Unknown run to compare with: " + compareWith);
+      }
+    }
+    LocalDateTime started = LocalDateTime.now();
+    System.out.println("Running scenario " + scenario.name + " from " + scenarioPath);
+    try {
+      Map<String, Scenario.DatasetTarget> instances = create(scenario);
+      preload(scenario);
+      ramp(scenario, instances);
+      System.out.println("Pounding for " + TimeUnit.MILLISECONDS.toSeconds(scenario.durationMillis) + "s");
+      scenario.caches.forEach(cache -> cacheManagerBusiness.resetLatencies(cache.name));
+      instances.keySet().forEach(datasetManagerBusiness::resetLatencies);
+      Thread.sleep(scenario.durationMillis);
+      Path results = scenario.results != null ? Paths.get(scenario.results)
+          : Paths.get("tinypounder-results-" + scenario.name + "-" + RESULTS_TIMESTAMP.format(started) + ".yaml");
+      Map<String, Object> resultsContent = results(scenario, instances, started);
+      RunRecord run = runHistory.record(scenario.name, TimeUnit.MILLISECONDS.toSeconds(scenario.durationMillis), scenario.definition,
+          targets(scenario, instances));
+      resultsContent.put("run", run.getId());
+      System.out.println("Run recorded as " + run.getId() + (run.getKitVersion() == null ? "" : " (" + run.getKitVersion() + ")"));
+      if (baseline != null) {
+        RunComparison comparison = RunComparison.compare(baseline, run, regressionThreshold);
+        System.out.println("Compared with run " + baseline.getId() + (baseline.getKitVersion() == null ? "" : " (" + baseline.getKitVersion() + ")"));
+        comparison.getDeltas().forEach(delta -> System.out.println("  " + delta));
+        List<String> regressions = new ArrayList<>();
+        comparison.getDeltas().stream().filter(RunComparison.Delta::isRegression).forEach(delta -> regressions.add(delta.toString()));
+        resultsContent.put("comparedWith", baseline.getId());
+        resultsContent.put("regressions", regressions);
+        if (comparison.isRegressed()) {
+          exitCode = REGRESSION_EXIT_CODE;
+        }
+      }
+      write(results, resultsContent);
+      System.out.println("Results written to " + results.toAbsolutePath());
+    } finally {
+      if (!scenario.caches.isEmpty() && cacheManagerBusiness.isCacheManagerAlive()) {
+        cacheManagerBusiness.close();
+      }
+      if (!scenario.datasets.isEmpty() && datasetManagerBusiness.isDatasetManagerAlive()) {
+        datasetManagerBusiness.close();
+      }
+    }
+  }
+
+  /**
+   * @return the dataset of each instance pounded, by instance name
+   */
+  private Map<String, Scenario.DatasetTarget> create(Scenario scenario) {
+    if (!scenario.caches.isEmpty()) {
+      cacheManagerBusiness.initializeCacheManager(scenario.clusterUrl, scenario.cacheManagerName, scenario.diskPersistenceLocation,
+          scenario.offheapResource, scenario.diskResource, scenario.securityPath);
+      for (Scenario.CacheTarget cache : scenario.caches) {
+        cacheManagerBusiness.createCache(cache.name, cache.configuration);
+        cacheManagerBusiness.updateWorkload(cache.name, cache.pounding.workload);
+        if (cache.pounding.concurrency > 0) {
+          cacheManagerBusiness.updatePoundingConcurrency(cache.name, cache.pounding.concurrency);
+        }
+      }
+    }
+    Map<String, Scenario.DatasetTarget> instances = new LinkedHashMap<>();
+    if (!scenario.datasets.isEmpty()) {
+      datasetManagerBusiness.initializeDatasetManager(scenario.clusterUrl, scenario.securityPath);
+      for (Scenario.DatasetTarget dataset : scenario.datasets) {
+        datasetManagerBusiness.createDataset(dataset.name, dataset.configuration);
+        for (int i = 0; i < dataset.instances; i++) {
+          String instanceName = datasetManagerBusiness.createDatasetInstance(dataset.name);
+          datasetManagerBusiness.updateWorkload(instanceName, dataset.pounding.workload);
+          if (dataset.pounding.concurrency > 0) {
+            datasetManagerBusiness.updatePoundingConcurrency(instanceName, dataset.pounding.concurrency);
+          }
+          instances.put(instanceName, dataset);
+        }
+      }
+    }
+    return instances;
+  }
+
+  private void preload(Scenario scenario) throws InterruptedException {
+    List<Scenario.CacheTarget> preloaded = new ArrayList<>();
+    for (Scenario.CacheTarget cache : scenario.caches) {
+      if (cache.preloads()) {
+        cacheManagerBusiness.preload(cache.name, cache.preloadEntries, cache.preloadLoaders, cache.preloadTier, cache.preloadOccupancy);
+        preloaded.add(cache);
+      }
+    }
+    while (!preloaded.isEmpty()) {
+      TimeUnit.SECONDS.sleep(1);
+      preloaded.removeIf(cache -> {
+        PreloadProgress progress = cacheManagerBusiness.retrievePreloadProgress(cache.name);
+        System.out.println("Preloading " + cache.name + " : " + progress);
+        return progress.isDone();
+      });
+    }
+    for (Scenario.CacheTarget cache : scenario.caches) {
+      if (cache.targetHitRatio > 0) {
+        cacheManagerBusiness.updateTargetHitRatio(cache.name, cache.targetHitRatio);
+      }
+    }
+  }
+
+  /**
+   * Steps the pounding of every target up once per second, until it reaches the scenario one at the end of the ramp.
+   */
+  private void ramp(Scenario scenario, Map<String, Scenario.DatasetTarget> instances) throws InterruptedException {
+    long steps = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(scenario.rampMillis));
+    if (scenario.rampMillis > 0) {
+      System.out.println("Ramping up for " + steps + "s");
+    }
+    for (long step = 1; step <= steps; step++) {
+      double fraction = step / (double) steps;
+      for (Scenario.CacheTarget cache : scenario.caches) {
+        Scenario.Pounding pounding = cache.pounding;
+        if (pounding.rate > 0) {
+          cacheManagerBusiness.updatePoundingRate(cache.name, scaled(pounding.rate, fraction));
+        } else if (pounding.clients > 0) {
+          cacheManagerBusiness.updateSimulatedClients(cache.name, (int) scaled(pounding.clients, fraction), pounding.thinkTimeMillis);
+        } else {
+          cacheManagerBusiness.updatePoundingIntensity(cache.name, (int) scaled(pounding.intensity, fraction));
+        }
+      }
+      for (Map.Entry<String, Scenario.DatasetTarget> instance : instances.entrySet()) {
+        Scenario.Pounding pounding = instance.getValue().pounding;
+        if (pounding.rate > 0) {
+          datasetManagerBusiness.updatePoundingRate(instance.getKey(), scaled(pounding.rate, fraction));
+        } else {
+          datasetManagerBusiness.updatePoundingIntensity(instance.getKey(), (int) scaled(pounding.intensity, fraction));
+        }
+      }
+      if (scenario.rampMillis > 0) {
+        TimeUnit.SECONDS.sleep(1);
+      }
+    }
+  }
+
+  private static long scaled(long target, double fraction) {
+    return Math.max(1, Math.round(target * fraction));
+  }
+
+  private Map<String, Object> results(Scenario scenario, Map<String, Scenario.DatasetTarget> instances, LocalDateTime started) {
+    double seconds = scenario.durationMillis / 1000.0;
+    Map<String, Object> results = new LinkedHashMap<>();
+    results.put("scenario", scenario.name);
+    results.put("started", started.toString());
+    results.put("rampSeconds", TimeUnit.MILLISECONDS.toSeconds(scenario.rampMillis));
+    results.put("durationSeconds", TimeUnit.MILLISECONDS.toSeconds(scenario.durationMillis));
+    List<Map<String, Object>> caches = new ArrayList<>();
+    for (Scenario.CacheTarget cache : scenario.caches) {
+      Map<String, Object> result = target(cache.name, cacheManagerBusiness.retrieveLatencies(cache.name),
+          cacheManagerBusiness.retrievePoundingRate(cache.name), seconds);
+      Map<OpType, LatencySnapshot> perKeyLatencies = cacheManagerBusiness.retrievePerKeyLatencies(cache.name);
+      if (!perKeyLatencies.isEmpty()) {
+        result.put("perKeyLatencies", latencies(perKeyLatencies));
+      }
+      HitRatioStatus hitRatio = cacheManagerBusiness.retrieveHitRatio(cache.name);
+      if (hitRatio.getHitRatio() >= 0) {
+        result.put("hitRatio", round(hitRatio.getHitRatio()));
+      }
+      Map<String, Object> tiers = new LinkedHashMap<>();
+      cacheManagerBusiness.retrieveTierUsages(cache.name).forEach((tier, usage) -> {
+        Map<String, Object> tierResult = new LinkedHashMap<>();
+        tierResult.put("mappings", usage.getMappings());
+        tierResult.put("occupiedBytes", usage.getOccupiedBytes());
+        tiers.put(tier, tierResult);
+      });
+      if (!tiers.isEmpty()) {
+        result.put("tiers", tiers);
+      }
+      caches.add(result);
+    }
+    results.put("caches", caches);
+    List<Map<String, Object>> datasets = new ArrayList<>();
+    instances.forEach((instanceName, dataset) -> {
+      Map<String, Object> result = target(dataset.name, datasetManagerBusiness.retrieveLatencies(instanceName),
+          datasetManagerBusiness.retrievePoundingRate(instanceName), seconds);
+      result.put("instance", instanceName);
+      datasets.add(result);
+    });
+    results.put("datasets", datasets);
+    return results;
+  }
+
+  private List<RunRecord.Target> targets(Scenario scenario, Map<String, Scenario.DatasetTarget> instances) {
+    double seconds = scenario.durationMillis / 1000.0;
+    List<RunRecord.Target> targets = new ArrayList<>();
+    for (Scenario.CacheTarget cache : scenario.caches) {
+      targets.add(target(RunRecord.CACHE, cache.name, cacheManagerBusiness.retrieveLatencies(cache.name), seconds));
+    }
+    instances.keySet().forEach(instanceName ->
+        targets.add(target(RunRecord.DATASET, instanceName, datasetManagerBusiness.retrieveLatencies(instanceName), seconds)));
+    return targets;
+  }
+
+  private static RunRecord.Target target(String kind, String name, Map<OpType, LatencySnapshot> latencies, double seconds) {
+    long ops = latencies.values().stream().mapToLong(LatencySnapshot::getCount).sum();
+    Map<String, LatencySnapshot> byLabel = new LinkedHashMap<>();
+    latencies.forEach((opType, snapshot) -> byLabel.put(opType.label(), snapshot));
+    return new RunRecord.Target(kind, name, round(ops / seconds), byLabel);
+  }
+
+  private static Map<String, Object> target(String name, Map<OpType, LatencySnapshot> latencies, PoundingRate rate, double seconds) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("name", name);
+    long ops = latencies.values().stream().mapToLong(LatencySnapshot::getCount).sum();
+    result.put("ops", ops);
+    result.put("opsPerSecond", round(ops / seconds));
+    if (rate.getRequestedRate() > 0) {
+      result.put("requestedRate", rate.getRequestedRate());
+      result.put("achievedRate", round(rate.getAchievedRate()));
+    }
+    result.put("latencies", latencies(latencies));
+    return result;
+  }
+
+  /**
+   * @return the latencies of each op type, in milliseconds
+   */
+  private static Map<String, Object> latencies(Map<OpType, LatencySnapshot> latencies) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    latencies.forEach((opType, snapshot) -> {
+      Map<String, Object> opResult = new LinkedHashMap<>();
+      opResult.put("count", snapshot.getCount());
+      opResult.put("p50Ms", millis(snapshot.getP50()));
+      opResult.put("p99Ms", millis(snapshot.getP99()));
+      opResult.put("p999Ms", millis(snapshot.getP999()));
+      opResult.put("maxMs", millis(snapshot.getMax()));
+      result.put(opType.label(), opResult);
+    });
+    return result;
+  }
+
+  private static double millis(long nanos) {
+    return Math.round(nanos / 1_000.0) / 1_000.0;
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100) / 100.0;
+  }
+
+  private static void write(Path path, Map<String, Object> results) {
+    DumperOptions options = new DumperOptions();
+    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      new Yaml(options).dump(results, writer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Closed loop clients pounding a target, each one running an op then thinking before the next one.
+ */
+public class SimulatedClients {
+
+  public static final SimulatedClients NONE = new SimulatedClients(0, 0, 0, false);
+
+  private final int requestedClients;
+  private final int runningClients;
+  private final long thinkTimeMillis;
+  private final boolean virtualThreads;
+
+  public SimulatedClients(int requestedClients, int runningClients, long thinkTimeMillis, boolean virtualThreads) {
+    this.requestedClients = requestedClients;
+    this.runningClients = runningClients;
+    this.thinkTimeMillis = thinkTimeMillis;
+    this.virtualThreads = virtualThreads;
+  }
+
+  public int getRequestedClients() {
+    return requestedClients;
+  }
+
+  public int getRunningClients() {
+    return runningClients;
+  }
+
+  public long getThinkTimeMillis() {
+    return thinkTimeMillis;
+  }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  @Override
+  public String toString() {
+    if (requestedClients == 0) {
+      return "";
+    }
+    return String.format("%d / %d clients on %s threads, thinking %d ms", runningClients, requestedClients,
+        virtualThreads ? "virtual" : "platform", thinkTimeMillis);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Samples the tier statistics of the caches of a cache manager, keeping the last samples of each tier in a
+ * {@link SampleRing}.
+ */
+class StatisticsSampler {
+
+  private final EhcacheStatistics statistics;
+  private final int capacity;
+  private final ConcurrentMap<String, Map<String, SampleRing>> ringsByCache = new ConcurrentHashMap<>();
+
+  /**
+   * @param capacity samples kept per tier
+   */
+  StatisticsSampler(EhcacheStatistics statistics, int capacity) {
+    this.statistics = statistics;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Samples every tier of those caches, and forgets about the caches that are not in there anymore.
+   */
+  void sample(Collection<String> cacheAliases) {
+    ringsByCache.keySet().retainAll(cacheAliases);
+    long now = System.currentTimeMillis();
+    for (String cacheAlias : cacheAliases) {
+      Map<String, long[]> tierCounters = statistics.tierCounters(cacheAlias);
+      if (tierCounters.isEmpty()) {
+        continue;
+      }
+      Map<String, SampleRing> rings = ringsByCache.computeIfAbsent(cacheAlias, alias -> new ConcurrentHashMap<>());
+      tierCounters.forEach((tier, sample) -> rings.computeIfAbsent(tier, t -> new SampleRing(capacity)).add(now, sample));
+    }
+  }
+
+  /**
+   * @return the samples of each tier of the cache, by tier name
+   */
+  Map<String, TierTimeSeries> timeSeries(String cacheAlias) {
+    Map<String, SampleRing> rings = ringsByCache.get(cacheAlias);
+    if (rings == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, TierTimeSeries> timeSeries = new TreeMap<>();
+    rings.forEach((tier, ring) -> timeSeries.put(tier, ring.snapshot(tier)));
+    return timeSeries;
+  }
+}
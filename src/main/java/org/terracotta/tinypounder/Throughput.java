@@ -0,0 +1,45 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Ops and value bytes per second achieved by a pounded target over the last second.
+ */
+public class Throughput {
+
+  public static final Throughput NONE = new Throughput(0, 0);
+
+  private final double opsPerSecond;
+  private final double bytesPerSecond;
+
+  public Throughput(double opsPerSecond, double bytesPerSecond) {
+    this.opsPerSecond = opsPerSecond;
+    this.bytesPerSecond = bytesPerSecond;
+  }
+
+  public double getOpsPerSecond() {
+    return opsPerSecond;
+  }
+
+  public double getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%.0f ops/s, %.2f MB/s", opsPerSecond, bytesPerSecond / (1024 * 1024));
+  }
+}
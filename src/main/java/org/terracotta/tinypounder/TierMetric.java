@@ -0,0 +1,38 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * The counters sampled from each tier of a cache, read through the Ehcache TierStatistics getter of the same name.
+ */
+public enum TierMetric {
+  HITS("getHits"),
+  MISSES("getMisses"),
+  EVICTIONS("getEvictions"),
+  EXPIRATIONS("getExpirations"),
+  MAPPINGS("getMappings"),
+  OCCUPIED_BYTES("getOccupiedByteSize");
+
+  private final String getter;
+
+  TierMetric(String getter) {
+    this.getter = getter;
+  }
+
+  String getter() {
+    return getter;
+  }
+}
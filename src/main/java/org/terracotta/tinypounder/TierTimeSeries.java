@@ -0,0 +1,73 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Samples of the {@link TierMetric}s of one tier of a cache, oldest first, one sample per second.
+ * <p>
+ * Hits, misses, evictions and expirations are counters since the cache was created; mappings and occupied bytes
+ * are the tier content at sampling time.
+ */
+public class TierTimeSeries {
+
+  private final String tier;
+  private final long[] timestamps;
+  private final long[][] values;
+
+  TierTimeSeries(String tier, long[] timestamps, long[][] values) {
+    this.tier = tier;
+    this.timestamps = timestamps;
+    this.values = values;
+  }
+
+  public String getTier() {
+    return tier;
+  }
+
+  public int size() {
+    return timestamps.length;
+  }
+
+  /**
+   * @return the sampling times, in milliseconds since the epoch
+   */
+  public long[] getTimestamps() {
+    return timestamps.clone();
+  }
+
+  public long[] getValues(TierMetric metric) {
+    return values[metric.ordinal()].clone();
+  }
+
+  /**
+   * @return the last sampled value of the metric, -1 if nothing was sampled yet
+   */
+  public long latest(TierMetric metric) {
+    return timestamps.length == 0 ? -1 : values[metric.ordinal()][timestamps.length - 1];
+  }
+
+  /**
+   * @return how much the counter grew per second between the last two samples, 0 if there are fewer than two
+   */
+  public double latestRate(TierMetric metric) {
+    int last = timestamps.length - 1;
+    if (last < 1 || timestamps[last] == timestamps[last - 1]) {
+      return 0;
+    }
+    long[] metricValues = values[metric.ordinal()];
+    return (metricValues[last] - metricValues[last - 1]) * 1000.0 / (timestamps[last] - timestamps[last - 1]);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * Content of one tier of a cache, as seen by the Ehcache statistics service.
+ */
+public class TierUsage {
+
+  private final String tier;
+  private final long mappings;
+  private final long occupiedBytes;
+
+  /**
+   * @param occupiedBytes bytes used by the tier, -1 when the tier is not sized in bytes
+   */
+  public TierUsage(String tier, long mappings, long occupiedBytes) {
+    this.tier = tier;
+    this.mappings = mappings;
+    this.occupiedBytes = occupiedBytes;
+  }
+
+  public String getTier() {
+    return tier;
+  }
+
+  public long getMappings() {
+    return mappings;
+  }
+
+  public long getOccupiedBytes() {
+    return occupiedBytes;
+  }
+
+  @Override
+  public String toString() {
+    if (occupiedBytes < 0) {
+      return String.format("%s: %d mappings", tier, mappings);
+    }
+    return String.format("%s: %d mappings, %.2f MB", tier, mappings, occupiedBytes / (1024.0 * 1024));
+  }
+}
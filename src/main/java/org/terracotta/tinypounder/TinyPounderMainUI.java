@@ -23,6 +23,7 @@ import com.vaadin.data.provider.ListDataProvider;
 import com.vaadin.server.Page;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.ui.ContentMode;
 import com.vaadin.spring.annotation.SpringUI;
 import com.vaadin.ui.AbstractComponent;
 import com.vaadin.ui.Button;
@@ -42,6 +43,7 @@ import com.vaadin.ui.TextArea;
 import com.vaadin.ui.TextField;
 import com.vaadin.ui.UI;
 import com.vaadin.ui.VerticalLayout;
+import com.vaadin.ui.Window;
 import com.vaadin.ui.themes.ValoTheme;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
@@ -61,6 +63,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -69,11 +72,12 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -91,6 +95,8 @@ public class TinyPounderMainUI extends UI {
   private static final int DATAROOT_PATH_COLUMN = 2;
   private static final File HOME = new File(System.getProperty("user.home"));
   private static final String VERSION = getVersion();
+  // new server output is pushed to the consoles at most once per period
+  private static final long CONSOLE_STREAM_PERIOD_MILLIS = 250;
   static final String AVAILABILITY = "availability";
   static final String CONSISTENCY = "consistency";
   private static final String SECURITY = "Security";
@@ -113,6 +119,18 @@ public class TinyPounderMainUI extends UI {
   @Autowired
   private Settings settings;
 
+  @Autowired
+  private RunningServers allRunningServers;
+
+  @Autowired
+  private FlightRecordings flightRecordings;
+
+  @Autowired
+  private OutputCaptures outputCaptures;
+
+  @Autowired
+  private OutputSearch outputSearch;
+
   private TabSheet mainLayout;
   private VerticalLayout cacheLayout;
   private VerticalLayout datasetLayout;
@@ -149,6 +167,7 @@ public class TinyPounderMainUI extends UI {
   private Map<String, RunningServer> runningServers = new ConcurrentHashMap<>();
   private VerticalLayout kitControlsLayout;
   private ScheduledFuture<?> consoleRefresher;
+  private ScheduledFuture<?> consoleStreamer;
   private Button generateTcConfig;
   private TextField baseLocation;
   private Button trashDataButton;
@@ -158,6 +177,13 @@ public class TinyPounderMainUI extends UI {
   private TextField serverSecurityField;
   private CheckBox clientSecurityCheckBox;
   private TextField clientSecurityField;
+  private final Map<String, Label> cachePoundingReports = new ConcurrentHashMap<>();
+  private final Map<String, Label> datasetPoundingReports = new ConcurrentHashMap<>();
+  private final Map<String, Label> cacheLatencyReports = new ConcurrentHashMap<>();
+  private final Map<String, Label> cachePreloadReports = new ConcurrentHashMap<>();
+  private final Map<String, Label> cacheHitRatioReports = new ConcurrentHashMap<>();
+  private final Map<String, Label> cacheTierReports = new ConcurrentHashMap<>();
+  private final Map<String, Label> datasetLatencyReports = new ConcurrentHashMap<>();
 
   @Override
   protected void init(VaadinRequest vaadinRequest) {
@@ -173,9 +199,17 @@ public class TinyPounderMainUI extends UI {
     addExitCloseTab();
     updateServerGrid();
 
-    // refresh consoles if any
+    // stream new server output, coalesced over a period, to the consoles that are behind
+    consoleStreamer = scheduledExecutorService.scheduleWithFixedDelay(
+        () -> {
+          if (runningServers.values().stream().anyMatch(RunningServer::isConsoleBehind)) {
+            access(() -> runningServers.values().forEach(RunningServer::refreshConsole));
+          }
+        },
+        CONSOLE_STREAM_PERIOD_MILLIS, CONSOLE_STREAM_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    // refresh pounding reports
     consoleRefresher = scheduledExecutorService.scheduleWithFixedDelay(
-        () -> access(() -> runningServers.values().forEach(RunningServer::refreshConsole)),
+        () -> access(this::refreshPoundingReports),
         2, 2, TimeUnit.SECONDS);
   }
 
@@ -189,6 +223,7 @@ public class TinyPounderMainUI extends UI {
       if (tabEvent.getTabSheet().getSelectedTab().equals(tab.getComponent())) {
         new Thread(() -> {
           runningServers.values().forEach(RunningServer::kill);
+          consoleStreamer.cancel(true);
           consoleRefresher.cancel(true);
           SpringApplication.exit(appContext);
         }).start();
@@ -382,6 +417,32 @@ public class TinyPounderMainUI extends UI {
       }
     }
 
+    if (flightRecordings.isAvailable()) {
+      Button recordingBtn = new Button(flightRecordings.isRecording() ? "Stop JFR recording" : "Start JFR recording");
+      recordingBtn.addStyleName("align-bottom");
+      recordingBtn.setDescription("Flight Recorder recording of this JVM, saved under the base location");
+      recordingBtn.addClickListener(event -> {
+        try {
+          if (flightRecordings.isRecording()) {
+            displayWarningNotification("JFR recording saved to " + flightRecordings.stop());
+            recordingBtn.setCaption("Start JFR recording");
+          } else {
+            displayWarningNotification("JFR recording to " + flightRecordings.start(baseLocation.getValue()));
+            recordingBtn.setCaption("Stop JFR recording");
+          }
+        } catch (RuntimeException e) {
+          displayErrorNotification("JFR recording failed", e);
+        }
+      });
+      row1.addComponents(recordingBtn);
+    }
+
+    Button outputBtn = new Button("Captured output");
+    outputBtn.addStyleName("align-bottom");
+    outputBtn.setDescription("Pages through and searches the whole output of the servers and tools started, captured under the base location");
+    outputBtn.addClickListener(event -> addWindow(new OutputPager(outputCaptures, outputSearch)));
+    row1.addComponents(outputBtn);
+
     voltronControlLayout.addComponentsAndExpand(row1);
 
     consoles = new TabSheet();
@@ -406,7 +467,8 @@ public class TinyPounderMainUI extends UI {
   private void executeClusterToolCommand(Button.ClickEvent event) {
     String command = (String) event.getButton().getData();
     File workDir = new File(settings.getKitPath());
-    LinkedBlockingQueue<String> consoleLines = new LinkedBlockingQueue<>(); // no limit, get all the output
+    ConsoleLines consoleLines = new ConsoleLines(500); // the whole output is in the capture
+    OutputCapture capture = startCapture("cluster-tool");
     PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:**cluster-tool.sh");
     Path clusterToolPath = find(workDir.getAbsolutePath(), matcher).iterator().next();
     String script = new File(clusterToolPath.getParent().toFile(), "cluster-tool." + (ProcUtils.isWindows() ? "bat" : "sh")).getAbsolutePath();
@@ -433,6 +495,7 @@ public class TinyPounderMainUI extends UI {
             workDir,
             script + " " + command + "  -n " + clusterNameTF.getValue() + " -l " + settings.getLicensePath() + " " + configs,
             consoleLines,
+            capture,
             newLine -> {
             },
             () -> access(() -> {
@@ -454,6 +517,7 @@ public class TinyPounderMainUI extends UI {
             workDir,
             script + " " + command + " -n " + clusterNameTF.getValue() + hostPortOpt + hostPortList.stream().collect(Collectors.joining(hostPortJoiner)),
             consoleLines,
+            capture,
             newLine -> access(() -> updateMainConsole(consoleLines)),
             () -> access(() -> consoles.setSelectedTab(mainConsole)));
         break;
@@ -466,6 +530,7 @@ public class TinyPounderMainUI extends UI {
             workDir,
             script + " status -s " + hostPort,
             consoleLines,
+            capture,
             newLine -> access(() -> updateMainConsole(consoleLines)),
             () -> access(() -> consoles.setSelectedTab(mainConsole)));
         break;
@@ -479,7 +544,8 @@ public class TinyPounderMainUI extends UI {
   private void executeConfigToolCommand(Button.ClickEvent event) {
     String command = (String) event.getButton().getData();
     File workDir = new File(settings.getKitPath());
-    LinkedBlockingQueue<String> consoleLines = new LinkedBlockingQueue<>(); // no limit, get all the output
+    ConsoleLines consoleLines = new ConsoleLines(500); // the whole output is in the capture
+    OutputCapture capture = startCapture("config-tool");
     String script = new File(workDir, "tools/bin/config-tool." + (ProcUtils.isWindows() ? "bat" : "sh")).getAbsolutePath();
     String config = tcConfigLocationPerStripe.values()
         .stream()
@@ -497,6 +563,7 @@ public class TinyPounderMainUI extends UI {
                 + " -n " + clusterNameTF.getValue()
                 + (settings.getLicensePath().map(File::new).map(f -> " -l " + f).orElse("")),
             consoleLines,
+            capture,
             newLine -> access(() -> updateMainConsole(consoleLines)),
             () -> access(() -> consoles.setSelectedTab(mainConsole)));
         break;
@@ -515,12 +582,24 @@ public class TinyPounderMainUI extends UI {
     return hostPortList.get(serverNameList.indexOf(serverName));
   }
 
+  /**
+   * @return a new capture of the output of that server or tool, or null if it cannot be written to the base location
+   */
+  private OutputCapture startCapture(String name) {
+    try {
+      return outputCaptures.start(baseLocation.getValue(), name);
+    } catch (UncheckedIOException e) {
+      displayWarningNotification("Output of " + name + " not captured: " + e.getCause().getMessage());
+      return null;
+    }
+  }
+
   private void updateMainConsole(Queue<String> consoleLines) {
     updateTextArea(mainConsole, consoleLines);
   }
 
-  private TextArea addConsole(String title, String key) {
-    TextArea console = new TextArea();
+  private ConsoleTextArea addConsole(String title, String key) {
+    ConsoleTextArea console = new ConsoleTextArea(key);
     console.setData(key);
     console.setWidth(100, Unit.PERCENTAGE);
     console.setWordWrap(false);
@@ -663,12 +742,17 @@ public class TinyPounderMainUI extends UI {
 
     File workDir = new File(settings.getKitPath());
     String key = stripeName + "-" + serverName;
-    TextArea console = getConsole(key);
+    ConsoleTextArea console = getConsole(key);
+    if (runningServers.containsKey(key)) {
+      Notification.show("ERROR", "Server is running: " + serverName, Notification.Type.ERROR_MESSAGE);
+      return;
+    }
 
     RunningServer runningServer = new RunningServer(
-        workDir, clusterName, stripeconfig, stripeName, serverName, hostname, clientPort, console, 500,
+        workDir, clusterName, stripeconfig, stripeName, serverName, hostname, clientPort, console, 500, startCapture(key),
         () -> {
           runningServers.remove(key);
+          allRunningServers.unregister(key);
           access(() -> {
             killBT.setEnabled(false);
             statusBT.setEnabled(false);
@@ -686,6 +770,8 @@ public class TinyPounderMainUI extends UI {
       return;
     }
 
+    allRunningServers.register(key, runningServer);
+
     consoles.setSelectedTab(console);
     stateLBL.setValue("STARTING");
     runningServer.start();
@@ -695,10 +781,10 @@ public class TinyPounderMainUI extends UI {
     runningServer.refreshConsole();
   }
 
-  private TextArea getConsole(String key) throws NoSuchElementException {
+  private ConsoleTextArea getConsole(String key) throws NoSuchElementException {
     for (Component console : consoles) {
       if (key.equals(((AbstractComponent) console).getData())) {
-        return (TextArea) console;
+        return (ConsoleTextArea) console;
       }
     }
     throw new NoSuchElementException("No console found for " + key);
@@ -1443,6 +1529,11 @@ public class TinyPounderMainUI extends UI {
   private void addCacheControls() {
 
     List<String> cacheNames = new ArrayList<>(cacheManagerBusiness.retrieveCacheNames());
+    cachePoundingReports.clear();
+    cacheLatencyReports.clear();
+    cachePreloadReports.clear();
+    cacheHitRatioReports.clear();
+    cacheTierReports.clear();
     cacheControls = new VerticalLayout();
     VerticalLayout cacheList = new VerticalLayout();
     HorizontalLayout cacheCreation = new HorizontalLayout();
@@ -1566,11 +1657,147 @@ public class TinyPounderMainUI extends UI {
         updatePoundingCaption(poundingSlider, poundingIntensity);
       });
 
+      Label poundingReport = new Label();
+      cachePoundingReports.put(cacheName, poundingReport);
+      Label latencyReport = new Label(formatCacheLatencies(cacheName), ContentMode.PREFORMATTED);
+      cacheLatencyReports.put(cacheName, latencyReport);
+      Label tierReport = new Label(formatTiers(cacheManagerBusiness.retrieveTierTimeSeries(cacheName)), ContentMode.PREFORMATTED);
+      cacheTierReports.put(cacheName, tierReport);
+      ComboBox<Integer> poundingConcurrencyComboBox = createPoundingConcurrencyComboBox(
+          cacheManagerBusiness.retrievePoundingConcurrency(cacheName),
+          concurrency -> cacheManagerBusiness.updatePoundingConcurrency(cacheName, concurrency));
+      TextField poundingRateField = createPoundingRateField(
+          cacheManagerBusiness.retrievePoundingRate(cacheName), poundingSlider, poundingReport,
+          opsPerSecond -> {
+            cacheManagerBusiness.updatePoundingRate(cacheName, opsPerSecond);
+            return cacheManagerBusiness.retrievePoundingRate(cacheName);
+          });
+
+
+      TextField operationMixField = new TextField("Operation mix", cacheManagerBusiness.retrieveWorkload(cacheName).getOperationMix().toString());
+      operationMixField.setDescription("operation:weight pairs among get, put, remove, putIfAbsent, replace, containsKey, getAll, putAll and removeAll");
+      operationMixField.addValueChangeListener(event -> {
+        try {
+          OperationMix operationMix = OperationMix.parse(event.getValue());
+          cacheManagerBusiness.updateWorkload(cacheName, cacheManagerBusiness.retrieveWorkload(cacheName).withOperationMix(operationMix));
+        } catch (IllegalArgumentException e) {
+          displayErrorNotification("Operation mix could not be updated !", e);
+        }
+      });
+
+      TextField batchSizeField = new TextField("Batch size", String.valueOf(cacheManagerBusiness.retrieveWorkload(cacheName).getBatchSize()));
+      batchSizeField.setDescription("number of keys of each getAll, putAll and removeAll");
+      batchSizeField.addStyleName("small-combo");
+      batchSizeField.addValueChangeListener(event -> {
+        try {
+          int batchSize = Integer.parseInt(event.getValue().trim());
+          cacheManagerBusiness.updateWorkload(cacheName, cacheManagerBusiness.retrieveWorkload(cacheName).withBatchSize(batchSize));
+        } catch (IllegalArgumentException e) {
+          displayErrorNotification("Batch size could not be updated !", "Make sure the batch size is a positive number of keys !");
+        }
+      });
+
+      TextField keyDistributionField = createKeyDistributionField(cacheManagerBusiness.retrieveWorkload(cacheName),
+          keyDistribution -> cacheManagerBusiness.updateWorkload(cacheName, cacheManagerBusiness.retrieveWorkload(cacheName).withKeyDistribution(keyDistribution)));
+      TextField keySpaceField = createKeySpaceField(cacheManagerBusiness.retrieveWorkload(cacheName),
+          keySpace -> cacheManagerBusiness.updateWorkload(cacheName, cacheManagerBusiness.retrieveWorkload(cacheName).withKeySpace(keySpace)));
+      TextField valueSizesField = createValueSizesField(cacheManagerBusiness.retrieveWorkload(cacheName),
+          valueSizes -> cacheManagerBusiness.updateWorkload(cacheName, cacheManagerBusiness.retrieveWorkload(cacheName).withValueSizes(valueSizes)));
+
+      SimulatedClients currentClients = cacheManagerBusiness.retrieveSimulatedClients(cacheName);
+      Label clientsReport = new Label(currentClients.toString());
+      TextField clientsField = new TextField("Clients");
+      clientsField.setPlaceholder("closed loop");
+      clientsField.addStyleName("small-combo");
+      TextField thinkTimeField = new TextField("Think time");
+      thinkTimeField.setPlaceholder("ms");
+      thinkTimeField.addStyleName("small-combo");
+      if (currentClients.getRequestedClients() > 0) {
+        clientsField.setValue(String.valueOf(currentClients.getRequestedClients()));
+        thinkTimeField.setValue(String.valueOf(currentClients.getThinkTimeMillis()));
+        poundingSlider.setEnabled(false);
+      }
+      HasValue.ValueChangeListener<String> clientsListener = event -> {
+        try {
+          String clientsValue = clientsField.getValue().trim();
+          String thinkTimeValue = thinkTimeField.getValue().trim();
+          int clients = clientsValue.isEmpty() ? 0 : Integer.parseInt(clientsValue);
+          long thinkTimeMillis = thinkTimeValue.isEmpty() ? 0 : Long.parseLong(thinkTimeValue);
+          cacheManagerBusiness.updateSimulatedClients(cacheName, clients, thinkTimeMillis);
+          clientsReport.setValue(cacheManagerBusiness.retrieveSimulatedClients(cacheName).toString());
+          poundingSlider.setEnabled(clients <= 0 && cacheManagerBusiness.retrievePoundingRate(cacheName).getRequestedRate() == 0);
+        } catch (NumberFormatException e) {
+          displayErrorNotification("Simulated clients could not be updated !", "Make sure the clients and the think time are numbers !");
+        }
+      };
+      clientsField.addValueChangeListener(clientsListener);
+      thinkTimeField.addValueChangeListener(clientsListener);
+
+      TextField hitRatioField = new TextField("Target hit ratio");
+      hitRatioField.setPlaceholder("%");
+      hitRatioField.setDescription("keeps resizing the key space to hold that hit ratio");
+      hitRatioField.addStyleName("small-combo");
+      HitRatioStatus hitRatio = cacheManagerBusiness.retrieveHitRatio(cacheName);
+      if (hitRatio.getTargetHitRatio() > 0) {
+        hitRatioField.setValue(String.valueOf(hitRatio.getTargetHitRatio()));
+      }
+      Label hitRatioReport = new Label(hitRatio.toString());
+      cacheHitRatioReports.put(cacheName, hitRatioReport);
+      hitRatioField.addValueChangeListener(event -> {
+        try {
+          String value = event.getValue().trim();
+          cacheManagerBusiness.updateTargetHitRatio(cacheName, value.isEmpty() ? 0 : Double.parseDouble(value));
+          hitRatioReport.setValue(cacheManagerBusiness.retrieveHitRatio(cacheName).toString());
+        } catch (NumberFormatException e) {
+          displayErrorNotification("Target hit ratio could not be updated !", "Make sure the hit ratio is a percentage !");
+        } catch (RuntimeException e) {
+          displayErrorNotification("Target hit ratio could not be updated !", e);
+        }
+      });
+
+      TextField preloadEntriesField = new TextField("Preload");
+      preloadEntriesField.setPlaceholder("entries");
+      preloadEntriesField.addStyleName("small-combo");
+      TextField preloadOccupancyField = new TextField("Until occupancy");
+      preloadOccupancyField.setPlaceholder("OffHeap:90");
+      preloadOccupancyField.setDescription("tier:percent, the preload stops once the tier is that full ; tiers are OnHeap, OffHeap, Disk and Clustered");
+      ComboBox<Integer> preloadLoadersComboBox = new ComboBox<>("Loaders", Arrays.asList(1, 2, 4, 8, 16, 32, 64));
+      preloadLoadersComboBox.addStyleName("small-combo");
+      preloadLoadersComboBox.setTextInputAllowed(false);
+      preloadLoadersComboBox.setEmptySelectionAllowed(false);
+      preloadLoadersComboBox.setValue(4);
+      Label preloadReport = new Label(cacheManagerBusiness.retrievePreloadProgress(cacheName).toString());
+      cachePreloadReports.put(cacheName, preloadReport);
+      Button preloadButton = new Button("Preload");
+      preloadButton.addStyleName("align-bottom");
+      preloadButton.addClickListener(event -> {
+        try {
+          String entriesValue = preloadEntriesField.getValue().trim();
+          String occupancyValue = preloadOccupancyField.getValue().trim();
+          long entries = entriesValue.isEmpty() ? 0 : Long.parseLong(entriesValue);
+          String tier = null;
+          int targetOccupancy = 0;
+          if (!occupancyValue.isEmpty()) {
+            String[] splitted = occupancyValue.split(":");
+            if (splitted.length != 2) {
+              throw new IllegalArgumentException("Expecting tier:percent, got: " + occupancyValue);
+            }
+            tier = splitted[0].trim();
+            targetOccupancy = Integer.parseInt(splitted[1].trim());
+          }
+          cacheManagerBusiness.preload(cacheName, entries, preloadLoadersComboBox.getValue(), tier, targetOccupancy);
+          preloadReport.setValue(cacheManagerBusiness.retrievePreloadProgress(cacheName).toString());
+        } catch (IllegalArgumentException e) {
+          displayErrorNotification("Cache could not be preloaded !", e);
+        }
+      });
 
+      Window settingsWindow = new Window("Settings of " + cacheName);
       Button removeCacheButton = new Button("Remove cache");
       removeCacheButton.addClickListener(event -> {
         try {
           cacheManagerBusiness.removeCache(cacheName);
+          settingsWindow.close();
           cacheNames.remove(cacheName);
           refreshCacheStuff(listDataProvider);
           displayWarningNotification("Cache removed with success !");
@@ -1595,6 +1822,7 @@ public class TinyPounderMainUI extends UI {
       destroyCacheButton.addClickListener(event -> {
         try {
           cacheManagerBusiness.destroyCache(cacheName);
+          settingsWindow.close();
           cacheNames.remove(cacheName);
           refreshCacheStuff(listDataProvider);
           displayWarningNotification("Cache destroyed with success !");
@@ -1603,7 +1831,18 @@ public class TinyPounderMainUI extends UI {
           refreshCacheStuff(listDataProvider);
         }
       });
-      cacheInfo.addComponentsAndExpand(cacheNameLabel, poundingSlider, clearCacheButton, removeCacheButton, destroyCacheButton);
+
+      // the row keeps to the intensity, the rate, the reports and the cache actions, everything else is set in a window of its own
+      HorizontalLayout workloadSettings = new HorizontalLayout(operationMixField, batchSizeField, keyDistributionField, keySpaceField, valueSizesField);
+      workloadSettings.setCaption("Workload");
+      HorizontalLayout poundingSettings = new HorizontalLayout(poundingConcurrencyComboBox, clientsField, thinkTimeField, hitRatioField);
+      poundingSettings.setCaption("Pounding");
+      HorizontalLayout preloadSettings = new HorizontalLayout(preloadEntriesField, preloadOccupancyField, preloadLoadersComboBox, preloadButton);
+      preloadSettings.setCaption("Preload");
+      settingsWindow.setContent(new VerticalLayout(workloadSettings, poundingSettings, preloadSettings));
+      Button settingsButton = createSettingsButton(settingsWindow);
+
+      cacheInfo.addComponentsAndExpand(cacheNameLabel, poundingSlider, poundingRateField, poundingReport, clientsReport, hitRatioReport, preloadReport, latencyReport, tierReport, settingsButton, clearCacheButton, removeCacheButton, destroyCacheButton);
       cacheList.addComponent(cacheInfo);
     }
 
@@ -1612,6 +1851,141 @@ public class TinyPounderMainUI extends UI {
 
   }
 
+  private TextField createPoundingRateField(PoundingRate currentRate, Slider poundingSlider, Label poundingReport, Function<Long, PoundingRate> rateUpdater) {
+    TextField poundingRateField = new TextField("Constant rate");
+    poundingRateField.setPlaceholder("ops/s");
+    poundingRateField.addStyleName("small-combo");
+    if (currentRate.getRequestedRate() > 0) {
+      poundingRateField.setValue(String.valueOf(currentRate.getRequestedRate()));
+      poundingSlider.setEnabled(false);
+    }
+    poundingReport.setValue(currentRate.toString());
+    poundingRateField.addValueChangeListener(event -> {
+      try {
+        String value = event.getValue().trim();
+        long opsPerSecond = value.isEmpty() ? 0 : Long.parseLong(value);
+        poundingReport.setValue(rateUpdater.apply(opsPerSecond).toString());
+        poundingSlider.setEnabled(opsPerSecond <= 0);
+      } catch (NumberFormatException e) {
+        displayErrorNotification("Pounding rate could not be updated !", "Make sure the rate is a number of ops per second !");
+      }
+    });
+    return poundingRateField;
+  }
+
+  private TextField createKeyDistributionField(Workload currentWorkload, Consumer<KeyDistribution> keyDistributionUpdater) {
+    TextField keyDistributionField = new TextField("Keys", currentWorkload.getKeyDistribution().toString());
+    keyDistributionField.setDescription("uniform, zipfian:theta, hotspot:hotKeys:hotOps, sequential or latest:theta");
+    keyDistributionField.addValueChangeListener(event -> {
+      try {
+        keyDistributionUpdater.accept(KeyDistribution.parse(event.getValue()));
+      } catch (IllegalArgumentException e) {
+        displayErrorNotification("Key distribution could not be updated !", e);
+      }
+    });
+    return keyDistributionField;
+  }
+
+  private TextField createKeySpaceField(Workload currentWorkload, Consumer<Long> keySpaceUpdater) {
+    TextField keySpaceField = new TextField("Key space");
+    keySpaceField.setPlaceholder("from intensity");
+    keySpaceField.addStyleName("small-combo");
+    if (currentWorkload.getKeySpace() > 0) {
+      keySpaceField.setValue(String.valueOf(currentWorkload.getKeySpace()));
+    }
+    keySpaceField.addValueChangeListener(event -> {
+      try {
+        String value = event.getValue().trim();
+        keySpaceUpdater.accept(value.isEmpty() ? 0 : Long.parseLong(value));
+      } catch (NumberFormatException e) {
+        displayErrorNotification("Key space could not be updated !", "Make sure the key space is a number of keys !");
+      }
+    });
+    return keySpaceField;
+  }
+
+  private TextField createValueSizesField(Workload currentWorkload, Consumer<ValueSizeDistribution> valueSizesUpdater) {
+    TextField valueSizesField = new TextField("Value sizes", currentWorkload.getValueSizes().toString());
+    valueSizesField.setDescription("intensity, fixed:size, uniform:min:max, lognormal:median:sigma or empirical:path (size weight lines)");
+    valueSizesField.addValueChangeListener(event -> {
+      try {
+        valueSizesUpdater.accept(ValueSizeDistribution.parse(event.getValue()));
+      } catch (IllegalArgumentException e) {
+        displayErrorNotification("Value sizes could not be updated !", e);
+      }
+    });
+    return valueSizesField;
+  }
+
+  private ComboBox<Integer> createPoundingConcurrencyComboBox(int currentConcurrency, IntConsumer concurrencyUpdater) {
+    List<Integer> concurrencyValues = new ArrayList<>(Arrays.asList(1, 2, 4, 8, 16, 32, 64));
+    if (!concurrencyValues.contains(currentConcurrency)) {
+      concurrencyValues.add(currentConcurrency);
+      Collections.sort(concurrencyValues);
+    }
+    ComboBox<Integer> poundingConcurrencyComboBox = new ComboBox<>("Workers", concurrencyValues);
+    poundingConcurrencyComboBox.addStyleName("small-combo");
+    poundingConcurrencyComboBox.setTextInputAllowed(false);
+    poundingConcurrencyComboBox.setEmptySelectionAllowed(false);
+    poundingConcurrencyComboBox.setValue(currentConcurrency);
+    poundingConcurrencyComboBox.addValueChangeListener(event -> concurrencyUpdater.accept(event.getValue()));
+    return poundingConcurrencyComboBox;
+  }
+
+  private Button createSettingsButton(Window settingsWindow) {
+    settingsWindow.center();
+    Button settingsButton = new Button("Settings");
+    settingsButton.addClickListener(event -> {
+      if (!settingsWindow.isAttached()) {
+        addWindow(settingsWindow);
+      }
+    });
+    return settingsButton;
+  }
+
+  private void refreshPoundingReports() {
+    cachePoundingReports.forEach((cacheName, report) -> report.setValue(cacheManagerBusiness.retrievePoundingRate(cacheName).toString()));
+    datasetPoundingReports.forEach((instanceName, report) -> report.setValue(datasetManagerBusiness.retrievePoundingRate(instanceName).toString()));
+    cacheLatencyReports.forEach((cacheName, report) -> report.setValue(formatCacheLatencies(cacheName)));
+    cachePreloadReports.forEach((cacheName, report) -> report.setValue(cacheManagerBusiness.retrievePreloadProgress(cacheName).toString()));
+    cacheHitRatioReports.forEach((cacheName, report) -> report.setValue(cacheManagerBusiness.retrieveHitRatio(cacheName).toString()));
+    cacheTierReports.forEach((cacheName, report) -> report.setValue(formatTiers(cacheManagerBusiness.retrieveTierTimeSeries(cacheName))));
+    datasetLatencyReports.forEach((instanceName, report) -> report.setValue(formatLatencies(datasetManagerBusiness.retrieveThroughput(instanceName), datasetManagerBusiness.retrieveLatencies(instanceName), Collections.emptyMap())));
+  }
+
+  private static String formatTiers(Map<String, TierTimeSeries> tiers) {
+    return tiers.values().stream()
+        .filter(timeSeries -> timeSeries.size() > 0)
+        .map(timeSeries -> String.format("%-9s %d mappings, %.2f MB, %.0f hits/s, %.0f misses/s, %.0f evictions/s, %.0f expirations/s",
+            timeSeries.getTier(),
+            timeSeries.latest(TierMetric.MAPPINGS),
+            Math.max(0, timeSeries.latest(TierMetric.OCCUPIED_BYTES)) / (1024.0 * 1024),
+            timeSeries.latestRate(TierMetric.HITS),
+            timeSeries.latestRate(TierMetric.MISSES),
+            timeSeries.latestRate(TierMetric.EVICTIONS),
+            timeSeries.latestRate(TierMetric.EXPIRATIONS)))
+        .collect(Collectors.joining("\n"));
+  }
+
+  private String formatCacheLatencies(String cacheName) {
+    return formatLatencies(cacheManagerBusiness.retrieveThroughput(cacheName), cacheManagerBusiness.retrieveLatencies(cacheName), cacheManagerBusiness.retrievePerKeyLatencies(cacheName));
+  }
+
+  private static String formatLatencies(Throughput throughput, Map<OpType, LatencySnapshot> latencies, Map<OpType, LatencySnapshot> perKeyLatencies) {
+    if (latencies.isEmpty()) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(throughput.toString());
+    latencies.forEach((opType, latency) -> {
+      sb.append(String.format("\n%-8s %s", opType.label(), latency));
+      LatencySnapshot perKeyLatency = perKeyLatencies.get(opType);
+      if (perKeyLatency != null) {
+        sb.append(String.format("\n%-8s %s", "  per key", perKeyLatency));
+      }
+    });
+    return sb.toString();
+  }
+
   private void updatePoundingCaption(Slider poundingSlider, int poundingIntensity) {
     if (poundingIntensity == 0) {
       poundingSlider.setCaption("NOT POUNDING");
@@ -1953,6 +2327,8 @@ public class TinyPounderMainUI extends UI {
 
   private void addDatasetControls() {
     List<String> datasetNames = new ArrayList<>(datasetManagerBusiness.retrieveDatasetNames());
+    datasetPoundingReports.clear();
+    datasetLatencyReports.clear();
     datasetControls = new VerticalLayout();
     VerticalLayout datasetListLayout = new VerticalLayout();
     HorizontalLayout datasetCreation = new HorizontalLayout();
@@ -2092,11 +2468,13 @@ public class TinyPounderMainUI extends UI {
             displayErrorNotification("New cell cannot be removed.", e);
           }
         });
+        Window settingsWindow = new Window("Settings of " + instanceName);
         Button closeDatasetButton = new Button("Close dataset instance");
         closeDatasetButton.setStyleName("instance");
         closeDatasetButton.addClickListener(event -> {
           try {
             datasetManagerBusiness.closeDatasetInstance(datasetName, instanceName);
+            settingsWindow.close();
             refreshDatasetStuff(listDataProvider);
             displayWarningNotification("Dataset instance closed with success !");
           } catch (Exception e) {
@@ -2120,8 +2498,35 @@ public class TinyPounderMainUI extends UI {
           updatePoundingCaption(poundingSlider, poundingIntensity);
         });
 
-
-        datasetInstanceInfoLayout.addComponentsAndExpand(datasetInstanceNameLabel, newCellField, addCellButton, removeCellButton, poundingSlider, closeDatasetButton);
+        Label poundingReport = new Label();
+        datasetPoundingReports.put(instanceName, poundingReport);
+        Label latencyReport = new Label(formatLatencies(datasetManagerBusiness.retrieveThroughput(instanceName), datasetManagerBusiness.retrieveLatencies(instanceName), Collections.emptyMap()), ContentMode.PREFORMATTED);
+        datasetLatencyReports.put(instanceName, latencyReport);
+        ComboBox<Integer> poundingConcurrencyComboBox = createPoundingConcurrencyComboBox(
+            datasetManagerBusiness.retrievePoundingConcurrency(instanceName),
+            concurrency -> datasetManagerBusiness.updatePoundingConcurrency(instanceName, concurrency));
+        TextField keyDistributionField = createKeyDistributionField(datasetManagerBusiness.retrieveWorkload(instanceName),
+            keyDistribution -> datasetManagerBusiness.updateWorkload(instanceName, datasetManagerBusiness.retrieveWorkload(instanceName).withKeyDistribution(keyDistribution)));
+        TextField keySpaceField = createKeySpaceField(datasetManagerBusiness.retrieveWorkload(instanceName),
+            keySpace -> datasetManagerBusiness.updateWorkload(instanceName, datasetManagerBusiness.retrieveWorkload(instanceName).withKeySpace(keySpace)));
+        TextField valueSizesField = createValueSizesField(datasetManagerBusiness.retrieveWorkload(instanceName),
+            valueSizes -> datasetManagerBusiness.updateWorkload(instanceName, datasetManagerBusiness.retrieveWorkload(instanceName).withValueSizes(valueSizes)));
+        TextField poundingRateField = createPoundingRateField(
+            datasetManagerBusiness.retrievePoundingRate(instanceName), poundingSlider, poundingReport,
+            opsPerSecond -> {
+              datasetManagerBusiness.updatePoundingRate(instanceName, opsPerSecond);
+              return datasetManagerBusiness.retrievePoundingRate(instanceName);
+            });
+
+        // the row keeps to the cells, the intensity, the rate, the reports and closing, everything else is set in a window of its own
+        HorizontalLayout workloadSettings = new HorizontalLayout(keyDistributionField, keySpaceField, valueSizesField);
+        workloadSettings.setCaption("Workload");
+        HorizontalLayout poundingSettings = new HorizontalLayout(poundingConcurrencyComboBox);
+        poundingSettings.setCaption("Pounding");
+        settingsWindow.setContent(new VerticalLayout(workloadSettings, poundingSettings));
+        Button settingsButton = createSettingsButton(settingsWindow);
+
+        datasetInstanceInfoLayout.addComponentsAndExpand(datasetInstanceNameLabel, newCellField, addCellButton, removeCellButton, poundingSlider, poundingRateField, poundingReport, latencyReport, settingsButton, closeDatasetButton);
         datasetListLayout.addComponent(datasetInstanceInfoLayout);
       }
 
@@ -2224,8 +2629,11 @@ public class TinyPounderMainUI extends UI {
   }
 
   static void updateTextArea(TextArea textArea, Collection<String> lines) {
+    updateTextArea(textArea, String.join("", lines));
+  }
+
+  static void updateTextArea(TextArea textArea, String text) {
     synchronized (textArea) {
-      String text = String.join("", lines);
       if (!Objects.equals(textArea.getValue(), text)) {
         int position = textArea.getCursorPosition();
         boolean autoscroll = position >= textArea.getValue().length() - 1;
@@ -16,10 +16,12 @@
 package org.terracotta.tinypounder;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -28,6 +30,12 @@ import java.util.concurrent.ScheduledExecutorService;
 public class TinypounderApplication {
 
   public static void main(String[] args) throws Exception {
+    if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--scenario="))) {
+      // headless run of a scenario, see ScenarioRunner
+      SpringApplication application = new SpringApplication(TinypounderApplication.class);
+      application.setWebApplicationType(WebApplicationType.NONE);
+      System.exit(SpringApplication.exit(application.run(args)));
+    }
     SpringApplication.run(TinypounderApplication.class, args);
   }
 
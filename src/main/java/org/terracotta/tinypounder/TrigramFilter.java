@@ -0,0 +1,92 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Bloom filter of the byte trigrams of the lines of a segment, ASCII letters lower-cased, telling that a segment
+ * cannot hold a text whatever its case.
+ * <p>
+ * Bits are only set by the thread appending to the segment, before it publishes the line count; readers reading the
+ * line count first see the bits of every line counted.
+ */
+class TrigramFilter {
+
+  private static final int BITS = 1 << 20;
+  private static final int SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(BITS);
+
+  private final long[] words = new long[BITS / Long.SIZE];
+
+  /**
+   * Adds the trigrams of the remaining bytes, without moving the position of the buffer.
+   */
+  void add(ByteBuffer bytes) {
+    int trigram = 0;
+    for (int i = bytes.position(), limit = bytes.limit(), length = 1; i < limit; i++, length++) {
+      trigram = ((trigram << 8) | lowerCase(bytes.get(i))) & 0xFFFFFF;
+      if (length >= 3) {
+        set(trigram);
+      }
+    }
+  }
+
+  /**
+   * @return false if one of the trigrams was never added
+   */
+  boolean mightContainAll(int[] trigrams) {
+    for (int trigram : trigrams) {
+      if (!isSet(firstBit(trigram)) || !isSet(secondBit(trigram))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the distinct trigrams of the UTF-8 bytes of the text, ASCII letters lower-cased
+   */
+  static int[] trigrams(byte[] text) {
+    return IntStream.range(0, Math.max(0, text.length - 2))
+        .map(i -> (lowerCase(text[i]) << 16) | (lowerCase(text[i + 1]) << 8) | lowerCase(text[i + 2]))
+        .distinct()
+        .toArray();
+  }
+
+  private void set(int trigram) {
+    int first = firstBit(trigram);
+    int second = secondBit(trigram);
+    words[first >>> 6] |= 1L << first;
+    words[second >>> 6] |= 1L << second;
+  }
+
+  private boolean isSet(int bit) {
+    return (words[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  private static int firstBit(int trigram) {
+    return (trigram * 0x9E3779B1) >>> SHIFT;
+  }
+
+  private static int secondBit(int trigram) {
+    return (trigram * 0x85EBCA6B) >>> SHIFT;
+  }
+
+  private static int lowerCase(byte b) {
+    return b >= 'A' && b <= 'Z' ? (b | 0x20) : (b & 0xFF);
+  }
+}
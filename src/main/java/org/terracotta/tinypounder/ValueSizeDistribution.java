@@ -0,0 +1,194 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sizes of the values written by the pounders, written as one of :
+ * <ul>
+ *   <li>{@code intensity}, growing with the pounding intensity as it always did</li>
+ *   <li>{@code fixed:size}</li>
+ *   <li>{@code uniform:min:max}</li>
+ *   <li>{@code lognormal:median:sigma}</li>
+ *   <li>{@code empirical:path}, a file of "size weight" lines, such as a histogram of production values</li>
+ * </ul>
+ * Sizes are in bytes (hexadecimal characters), and capped at {@value #MAX_VALUE_SIZE}.
+ */
+public class ValueSizeDistribution {
+
+  public static final ValueSizeDistribution INTENSITY = parse("intensity");
+
+  static final int MAX_VALUE_SIZE = 8 * 1024 * 1024;
+  private static final int LOGNORMAL_SIGMAS = 4;
+
+  public enum Type {
+    INTENSITY, FIXED, UNIFORM, LOGNORMAL, EMPIRICAL
+  }
+
+  private final String description;
+  private final Type type;
+  private final double[] parameters;
+  private final int[] empiricalSizes;
+  private final long[] empiricalCumulatedWeights;
+
+  private ValueSizeDistribution(String description, Type type, double[] parameters, int[] empiricalSizes, long[] empiricalCumulatedWeights) {
+    this.description = description;
+    this.type = type;
+    this.parameters = parameters;
+    this.empiricalSizes = empiricalSizes;
+    this.empiricalCumulatedWeights = empiricalCumulatedWeights;
+  }
+
+  public static ValueSizeDistribution parse(String distribution) {
+    String description = distribution.trim();
+    String[] splitted = description.split(":", 2);
+    Type type;
+    try {
+      type = Type.valueOf(splitted[0].trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown value size distribution: " + splitted[0]);
+    }
+    if (type == Type.EMPIRICAL) {
+      if (splitted.length < 2) {
+        throw new IllegalArgumentException("Expecting empirical:path, got: " + distribution);
+      }
+      return loadEmpirical(description, splitted[1].trim());
+    }
+    double[] parameters = splitted.length < 2 ? new double[0] : Arrays.stream(splitted[1].split(":")).mapToDouble(p -> Double.parseDouble(p.trim())).toArray();
+    int expectedParameters = type == Type.INTENSITY ? 0 : type == Type.FIXED ? 1 : 2;
+    if (parameters.length != expectedParameters) {
+      throw new IllegalArgumentException("Expecting " + expectedParameters + " parameters, got: " + distribution);
+    }
+    if (Arrays.stream(parameters).anyMatch(p -> p < 0) || (type == Type.UNIFORM && parameters[0] > parameters[1])) {
+      throw new IllegalArgumentException("Invalid value sizes: " + distribution);
+    }
+    return new ValueSizeDistribution(description, type, parameters, null, null);
+  }
+
+  private static ValueSizeDistribution loadEmpirical(String description, String path) {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot read value sizes from " + path, e);
+    }
+    List<int[]> buckets = new ArrayList<>();
+    for (String line : lines) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      String[] columns = trimmed.split("[\\s,;]+");
+      int size = Integer.parseInt(columns[0]);
+      int weight = columns.length > 1 ? Integer.parseInt(columns[1]) : 1;
+      if (size < 0 || weight < 0) {
+        throw new IllegalArgumentException("Invalid value size line in " + path + ": " + line);
+      }
+      if (weight > 0) {
+        buckets.add(new int[]{size, weight});
+      }
+    }
+    if (buckets.isEmpty()) {
+      throw new IllegalArgumentException("No value size found in " + path);
+    }
+    int[] sizes = new int[buckets.size()];
+    long[] cumulatedWeights = new long[buckets.size()];
+    long total = 0;
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = buckets.get(i)[0];
+      total += buckets.get(i)[1];
+      cumulatedWeights[i] = total;
+    }
+    return new ValueSizeDistribution(description, Type.EMPIRICAL, new double[0], sizes, cumulatedWeights);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @param intensitySize the size used when value sizes follow the pounding intensity
+   */
+  IntSupplier newSampler(int intensitySize) {
+    switch (type) {
+      case FIXED: {
+        int size = capped(parameters[0]);
+        return () -> size;
+      }
+      case UNIFORM: {
+        int min = capped(parameters[0]);
+        int max = capped(parameters[1]);
+        return () -> min == max ? min : ThreadLocalRandom.current().nextInt(min, max + 1);
+      }
+      case LOGNORMAL: {
+        double median = parameters[0];
+        double sigma = parameters[1];
+        return () -> capped(median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+      }
+      case EMPIRICAL:
+        return () -> {
+          long draw = ThreadLocalRandom.current().nextLong(empiricalCumulatedWeights[empiricalCumulatedWeights.length - 1]);
+          int index = Arrays.binarySearch(empiricalCumulatedWeights, draw + 1);
+          return capped(empiricalSizes[index >= 0 ? index : -index - 1]);
+        };
+      default:
+        return () -> intensitySize;
+    }
+  }
+
+  /**
+   * @param intensitySize the size used when value sizes follow the pounding intensity
+   * @return the ranges of the sizes a sampler draws, as {min, max} pairs ; lognormal sizes are only covered
+   * within {@value #LOGNORMAL_SIGMAS} sigmas of their median
+   */
+  List<int[]> sizeRanges(int intensitySize) {
+    switch (type) {
+      case FIXED:
+        return Collections.singletonList(new int[]{capped(parameters[0]), capped(parameters[0])});
+      case UNIFORM:
+        return Collections.singletonList(new int[]{capped(parameters[0]), capped(parameters[1])});
+      case LOGNORMAL: {
+        double spread = Math.exp(parameters[1] * LOGNORMAL_SIGMAS);
+        return Collections.singletonList(new int[]{capped(parameters[0] / spread), capped(parameters[0] * spread)});
+      }
+      case EMPIRICAL:
+        return Arrays.stream(empiricalSizes).mapToObj(size -> new int[]{capped(size), capped(size)}).collect(Collectors.toList());
+      default:
+        return Collections.singletonList(new int[]{intensitySize, intensitySize});
+    }
+  }
+
+  private static int capped(double size) {
+    return (int) Math.max(0, Math.min(MAX_VALUE_SIZE, Math.round(size)));
+  }
+
+  @Override
+  public String toString() {
+    return description;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+/**
+ * What a pounded target is pounded with, whatever the intensity, rate or clients pounding it.
+ * <p>
+ * The operation mix only applies to caches; dataset instances always run one of each of their ops.
+ */
+public class Workload {
+
+  public static final Workload DEFAULT = new Workload(OperationMix.DEFAULT, KeyDistribution.UNIFORM, 0, ValueSizeDistribution.INTENSITY, 10);
+
+  private final OperationMix operationMix;
+  private final KeyDistribution keyDistribution;
+  private final long keySpace;
+  private final ValueSizeDistribution valueSizes;
+  private final int batchSize;
+
+  /**
+   * @param keySpace number of distinct keys, 0 to keep the key space tied to the pounding intensity
+   * @param batchSize number of keys of each getAll, putAll and removeAll
+   */
+  public Workload(OperationMix operationMix, KeyDistribution keyDistribution, long keySpace, ValueSizeDistribution valueSizes, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    this.operationMix = operationMix;
+    this.keyDistribution = keyDistribution;
+    this.keySpace = keySpace;
+    this.valueSizes = valueSizes;
+    this.batchSize = batchSize;
+  }
+
+  public OperationMix getOperationMix() {
+    return operationMix;
+  }
+
+  public KeyDistribution getKeyDistribution() {
+    return keyDistribution;
+  }
+
+  public long getKeySpace() {
+    return keySpace;
+  }
+
+  public ValueSizeDistribution getValueSizes() {
+    return valueSizes;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return the configured key space, or the default one when it is tied to the pounding intensity
+   */
+  public long keySpaceOrDefault(long defaultKeySpace) {
+    return keySpace > 0 ? keySpace : defaultKeySpace;
+  }
+
+  public Workload withOperationMix(OperationMix operationMix) {
+    return new Workload(operationMix, keyDistribution, keySpace, valueSizes, batchSize);
+  }
+
+  public Workload withKeyDistribution(KeyDistribution keyDistribution) {
+    return new Workload(operationMix, keyDistribution, keySpace, valueSizes, batchSize);
+  }
+
+  public Workload withKeySpace(long keySpace) {
+    return new Workload(operationMix, keyDistribution, keySpace, valueSizes, batchSize);
+  }
+
+  public Workload withValueSizes(ValueSizeDistribution valueSizes) {
+    return new Workload(operationMix, keyDistribution, keySpace, valueSizes, batchSize);
+  }
+
+  public Workload withBatchSize(int batchSize) {
+    return new Workload(operationMix, keyDistribution, keySpace, valueSizes, batchSize);
+  }
+}
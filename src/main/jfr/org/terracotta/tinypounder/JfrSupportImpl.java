@@ -0,0 +1,148 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Everything touching the jdk.jfr API, compiled apart from the Java 8 sources : only loaded by name from
+ * {@link PounderEvents}, once it made sure the JVM has Flight Recorder.
+ */
+final class JfrSupportImpl implements JfrSupport {
+
+  @Name("org.terracotta.tinypounder.PoundingTick")
+  @Label("Pounding Tick")
+  @Category("Tinypounder")
+  @StackTrace(false)
+  static class PoundingTickEvent extends Event {
+    @Label("Kind")
+    String kind;
+    @Label("Target")
+    String target;
+    @Label("Ops")
+    long ops;
+  }
+
+  @Name("org.terracotta.tinypounder.Lifecycle")
+  @Label("Cache or Dataset Lifecycle")
+  @Category("Tinypounder")
+  @StackTrace(false)
+  static class LifecycleEvent extends Event {
+    @Label("Action")
+    String action;
+    @Label("Target")
+    String target;
+  }
+
+  @Name("org.terracotta.tinypounder.ServerState")
+  @Label("Server State")
+  @Category("Tinypounder")
+  @StackTrace(false)
+  static class ServerStateEvent extends Event {
+    @Label("Stripe")
+    String stripe;
+    @Label("Server")
+    String server;
+    @Label("State")
+    String state;
+    @Label("PID")
+    long pid;
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return FlightRecorder.isAvailable();
+  }
+
+  @Override
+  public Object beginTick() {
+    PoundingTickEvent event = new PoundingTickEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void commitTick(Object tick, String kind, String target, long ops) {
+    PoundingTickEvent event = (PoundingTickEvent) tick;
+    event.kind = kind;
+    event.target = target;
+    event.ops = ops;
+    event.commit();
+  }
+
+  @Override
+  public Object beginLifecycle() {
+    LifecycleEvent event = new LifecycleEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void commitLifecycle(Object lifecycle, String action, String target) {
+    LifecycleEvent event = (LifecycleEvent) lifecycle;
+    event.action = action;
+    event.target = target;
+    event.commit();
+  }
+
+  @Override
+  public void serverState(String stripe, String server, String state, long pid) {
+    ServerStateEvent event = new ServerStateEvent();
+    if (event.isEnabled()) {
+      event.stripe = stripe;
+      event.server = server;
+      event.state = state;
+      event.pid = pid;
+      event.commit();
+    }
+  }
+
+  @Override
+  public Object startRecording(Path file) throws Exception {
+    Files.createDirectories(file.getParent());
+    Recording recording = new Recording(Configuration.getConfiguration("profile"));
+    recording.setName("tinypounder");
+    recording.setToDisk(true);
+    recording.setDestination(file);
+    recording.start();
+    return recording;
+  }
+
+  @Override
+  public Path stopRecording(Object recording) {
+    Recording jfrRecording = (Recording) recording;
+    jfrRecording.stop();
+    Path file = jfrRecording.getDestination();
+    jfrRecording.close();
+    return file;
+  }
+}
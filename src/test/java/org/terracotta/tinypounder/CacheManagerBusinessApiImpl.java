@@ -38,7 +38,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Map;
 
 
 /**
@@ -164,4 +166,99 @@ public class CacheManagerBusinessApiImpl implements CacheManagerBusiness {
   public int retrievePoundingIntensity(String cacheAlias) {
     return 0;
   }
+
+  @Override
+  public void updatePoundingRate(String cacheAlias, long opsPerSecond) {
+
+  }
+
+  @Override
+  public PoundingRate retrievePoundingRate(String cacheAlias) {
+    return PoundingRate.NONE;
+  }
+
+  @Override
+  public void updatePoundingConcurrency(String cacheAlias, int concurrency) {
+
+  }
+
+  @Override
+  public int retrievePoundingConcurrency(String cacheAlias) {
+    return 1;
+  }
+
+  @Override
+  public void updateSimulatedClients(String cacheAlias, int clients, long thinkTimeMillis) {
+
+  }
+
+  @Override
+  public SimulatedClients retrieveSimulatedClients(String cacheAlias) {
+    return SimulatedClients.NONE;
+  }
+
+  @Override
+  public void updateWorkload(String cacheAlias, Workload workload) {
+
+  }
+
+  @Override
+  public Workload retrieveWorkload(String cacheAlias) {
+    return Workload.DEFAULT;
+  }
+
+  @Override
+  public Map<OpType, LatencySnapshot> retrieveLatencies(String cacheAlias) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Map<OpType, LatencySnapshot> retrievePerKeyLatencies(String cacheAlias) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Throughput retrieveThroughput(String cacheAlias) {
+    return Throughput.NONE;
+  }
+
+  @Override
+  public Map<OpType, OpCounters> retrieveOpCounters(String cacheAlias) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public void resetLatencies(String cacheAlias) {
+
+  }
+
+  @Override
+  public void preload(String cacheAlias, long entries, int loaders, String tier, int targetOccupancy) {
+
+  }
+
+  @Override
+  public PreloadProgress retrievePreloadProgress(String cacheAlias) {
+    return PreloadProgress.NONE;
+  }
+
+  @Override
+  public Map<String, TierUsage> retrieveTierUsages(String cacheAlias) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public void updateTargetHitRatio(String cacheAlias, double targetHitRatio) {
+
+  }
+
+  @Override
+  public HitRatioStatus retrieveHitRatio(String cacheAlias) {
+    return HitRatioStatus.NONE;
+  }
+
+  @Override
+  public Map<String, TierTimeSeries> retrieveTierTimeSeries(String cacheAlias) {
+    return Collections.emptyMap();
+  }
 }
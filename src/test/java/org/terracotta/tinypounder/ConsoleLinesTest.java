@@ -0,0 +1,173 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sequences of the console lines ring, and the text a console builds from them.
+ */
+public class ConsoleLinesTest {
+
+  private final ConsoleLines lines = new ConsoleLines(3);
+
+  @Test
+  public void keepsTheLastLinesOnceWrappedAround() {
+    offer("1", "2", "3", "4", "5", "6", "7");
+    assertEquals(7, lines.sequence());
+    assertEquals(4, lines.first());
+    assertEquals(3, lines.size());
+    assertEquals(Arrays.asList("5", "6", "7"), new ArrayList<>(lines));
+  }
+
+  @Test
+  public void givesTheLinesAfterASequence() {
+    offer("1", "2", "3");
+    ConsoleLines.Delta delta = lines.since(1);
+    assertEquals(0, delta.getFirst());
+    assertEquals(1, delta.getFrom());
+    assertEquals(3, delta.getEnd());
+    assertEquals(Arrays.asList("2", "3"), delta.getLines());
+
+    assertEquals(Collections.emptyList(), lines.since(3).getLines());
+  }
+
+  @Test
+  public void skipsTheLinesOverwrittenSinceASequence() {
+    offer("1", "2", "3", "4", "5");
+    ConsoleLines.Delta delta = lines.since(0);
+    assertEquals(2, delta.getFirst());
+    assertEquals(2, delta.getFrom());
+    assertEquals(5, delta.getEnd());
+    assertEquals(Arrays.asList("3", "4", "5"), delta.getLines());
+  }
+
+  @Test
+  public void pollMovesTheFirstLine() {
+    offer("1", "2", "3", "4");
+    assertEquals("2", lines.poll());
+    assertEquals(2, lines.first());
+    assertEquals("3", lines.peek());
+    assertEquals(Arrays.asList("3", "4"), lines.since(0).getLines());
+    assertEquals("3", lines.poll());
+    assertEquals("4", lines.poll());
+    assertNull(lines.poll());
+    assertEquals(4, lines.first());
+    assertEquals(4, lines.sequence());
+  }
+
+  @Test
+  public void clearMovesTheFirstLineButKeepsTheSequence() {
+    offer("1", "2");
+    lines.clear();
+    assertEquals(2, lines.first());
+    assertEquals(2, lines.sequence());
+    assertTrue(lines.isEmpty());
+    offer("3");
+    assertEquals(Arrays.asList("3"), new ArrayList<>(lines));
+    assertEquals(2, lines.since(0).getFrom());
+  }
+
+  @Test
+  public void textOnlyChangesWithTheLines() {
+    ConsoleLines.Text text = new ConsoleLines.Text();
+    assertFalse(text.update(lines));
+    offer("1\n", "2\n");
+    assertTrue(text.update(lines));
+    assertEquals("1\n2\n", text.toString());
+    assertFalse(text.update(lines));
+    offer("3\n");
+    assertTrue(text.isBehind(lines));
+    assertTrue(text.update(lines));
+    assertEquals("1\n2\n3\n", text.toString());
+    assertFalse(text.isBehind(lines));
+  }
+
+  @Test
+  public void textDropsTheLinesFallingOutOfTheRing() {
+    ConsoleLines.Text text = new ConsoleLines.Text();
+    offer("1\n", "2\n", "3\n");
+    text.update(lines);
+    offer("4\n", "5\n");
+    assertTrue(text.update(lines));
+    assertEquals("3\n4\n5\n", text.toString());
+    assertFalse(text.isReset());
+    assertEquals(2, text.getDroppedLines());
+    assertEquals("4\n5\n", text.getAppended());
+  }
+
+  @Test
+  public void textDropsTheLinesCleared() {
+    ConsoleLines.Text text = new ConsoleLines.Text();
+    offer("1\n", "2\n");
+    text.update(lines);
+    lines.clear();
+    assertTrue(text.isBehind(lines));
+    assertTrue(text.update(lines));
+    assertEquals("", text.toString());
+    assertEquals(2, text.getDroppedLines());
+    assertEquals("", text.getAppended());
+    offer("3\n");
+    assertTrue(text.update(lines));
+    assertEquals("3\n", text.toString());
+  }
+
+  @Test
+  public void textStartsOverWhenLinesWereMissed() {
+    ConsoleLines.Text text = new ConsoleLines.Text();
+    offer("1\n", "2\n");
+    text.update(lines);
+    // more lines than kept came in between two updates
+    offer("3\n", "4\n", "5\n", "6\n");
+    assertTrue(text.update(lines));
+    assertEquals("4\n5\n6\n", text.toString());
+    assertTrue(text.isReset());
+    assertEquals(0, text.getDroppedLines());
+    assertEquals("4\n5\n6\n", text.getAppended());
+
+    offer("7\n");
+    assertTrue(text.update(lines));
+    assertFalse(text.isReset());
+    assertEquals(1, text.getDroppedLines());
+    assertEquals("7\n", text.getAppended());
+  }
+
+  @Test
+  public void updateWithoutChangeForgetsTheLastOne() {
+    ConsoleLines.Text text = new ConsoleLines.Text();
+    offer("1\n");
+    text.update(lines);
+    assertFalse(text.update(lines));
+    assertFalse(text.isReset());
+    assertEquals(0, text.getDroppedLines());
+    assertEquals("", text.getAppended());
+  }
+
+  private void offer(String... newLines) {
+    for (String line : newLines) {
+      assertTrue(lines.offer(line));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Controls the hit ratio of a heap only cache, with the Ehcache of the test classpath as kit ; the steps of the
+ * controller itself are covered by {@link HitRatioControllerTest}.
+ */
+@SpringJUnitConfig({Settings.class, KitAwareClassLoaderDelegator.class, PoundingEngine.class, PayloadPool.class, CacheManagerBusinessReflectionImpl.class})
+@TestPropertySource(locations = "classpath:application.properties")
+public class HitRatioControlTest {
+
+  @Autowired
+  private CacheManagerBusinessReflectionImpl cacheManagerBusiness;
+
+  @AfterEach
+  public void close() {
+    if (cacheManagerBusiness.isCacheManagerAlive()) {
+      cacheManagerBusiness.close();
+    }
+  }
+
+  @Test
+  public void shrinksTheKeySpaceOfAMissingCache() throws Exception {
+    cacheManagerBusiness.initializeCacheManager(null, "hit-ratio", null, null, null, null);
+    cacheManagerBusiness.createCache("heap", new CacheConfiguration(100, "ENTRIES", 0, "MB", 0, "MB", 0, "MB", null, CacheConfiguration.ClusterTierType.NONE));
+    cacheManagerBusiness.updateWorkload("heap", new Workload(OperationMix.parse("get:80,put:20"), KeyDistribution.parse("uniform"),
+        0, ValueSizeDistribution.parse("fixed:10"), 1));
+    cacheManagerBusiness.updatePoundingRate("heap", 2000);
+    // 100 entries out of the 10000 keys pounded at a constant rate hardly ever hit
+    cacheManagerBusiness.updateTargetHitRatio("heap", 50);
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (cacheManagerBusiness.retrieveHitRatio("heap").getKeySpace() != 2500 && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    HitRatioStatus status = cacheManagerBusiness.retrieveHitRatio("heap");
+    // a full step down, from a measured hit ratio
+    assertTrue(status.getKeySpace() == 2500 && status.getHitRatio() >= 0, status.toString());
+  }
+}
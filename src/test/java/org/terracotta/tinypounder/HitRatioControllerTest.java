@@ -0,0 +1,114 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Steps of the hit ratio controller, fed with made up hit and miss counters.
+ */
+public class HitRatioControllerTest {
+
+  @Test
+  public void firstPeriodIsOnlyABaseline() {
+    HitRatioController controller = new HitRatioController(0.5);
+    assertEquals(1000, controller.adjust(1000, 900, 100));
+    assertEquals(-1, controller.status().getHitRatio());
+    assertEquals(1000, controller.status().getKeySpace());
+  }
+
+  @Test
+  public void growsTheKeySpaceWhenHittingTooMuch() {
+    HitRatioController controller = new HitRatioController(0.5);
+    controller.adjust(1000, 0, 0);
+    // 80% hits against 50% targeted
+    assertEquals(1600, controller.adjust(1000, 800, 200));
+    assertEquals(80, controller.status().getHitRatio(), 0.001);
+    assertEquals(1600, controller.status().getKeySpace());
+  }
+
+  @Test
+  public void shrinksTheKeySpaceWhenMissingTooMuch() {
+    HitRatioController controller = new HitRatioController(0.5);
+    controller.adjust(1000, 0, 0);
+    // 20% hits against 50% targeted
+    assertEquals(400, controller.adjust(1000, 200, 800));
+  }
+
+  @Test
+  public void stepsAreAtMostFourTimesTheKeySpace() {
+    HitRatioController controller = new HitRatioController(0.5);
+    controller.adjust(1000, 0, 0);
+    assertEquals(4000, controller.adjust(1000, 1000, 0));
+
+    controller = new HitRatioController(0.5);
+    controller.adjust(1000, 0, 0);
+    // 1% hits would take a 50 times smaller key space
+    assertEquals(250, controller.adjust(1000, 10, 990));
+
+    controller = new HitRatioController(0.1);
+    controller.adjust(1000, 0, 0);
+    // 90% hits would take a 9 times bigger key space
+    assertEquals(4000, controller.adjust(1000, 900, 100));
+  }
+
+  @Test
+  public void neverShrinksBelowTenKeys() {
+    HitRatioController controller = new HitRatioController(0.5);
+    controller.adjust(20, 0, 0);
+    assertEquals(10, controller.adjust(20, 0, 1000));
+  }
+
+  @Test
+  public void waitsForEnoughLookups() {
+    HitRatioController controller = new HitRatioController(0.5);
+    controller.adjust(1000, 0, 0);
+    assertEquals(1000, controller.adjust(1000, 40, 10));
+    assertEquals(-1, controller.status().getHitRatio());
+    // the lookups add up over the periods, from the same baseline
+    assertEquals(1600, controller.adjust(1000, 80, 20));
+  }
+
+  @Test
+  public void keepsTheKeySpaceWithinTolerance() {
+    HitRatioController controller = new HitRatioController(0.5);
+    controller.adjust(1000, 0, 0);
+    assertEquals(1000, controller.adjust(1000, 505, 495));
+    assertEquals(50.5, controller.status().getHitRatio(), 0.001);
+    // the next period is measured from the end of that one
+    assertEquals(400, controller.adjust(1000, 505 + 200, 495 + 800));
+  }
+
+  @Test
+  public void periodAfterAChangeIsANewBaseline() {
+    HitRatioController controller = new HitRatioController(0.5);
+    controller.adjust(1000, 0, 0);
+    assertEquals(400, controller.adjust(1000, 200, 800));
+    // lookups of that period ran partly with the previous key space
+    assertEquals(400, controller.adjust(400, 1000, 1000));
+    assertEquals(400, controller.adjust(400, 1500, 1500));
+    assertEquals(640, controller.adjust(400, 1500 + 800, 1500 + 200));
+  }
+
+  @Test
+  public void rejectsTargetsOutOfRange() {
+    assertThrows(IllegalArgumentException.class, () -> new HitRatioController(0));
+    assertThrows(IllegalArgumentException.class, () -> new HitRatioController(1.01));
+  }
+}
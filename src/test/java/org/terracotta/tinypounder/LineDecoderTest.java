@@ -0,0 +1,117 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lines decoded from output written in chunks cut anywhere, as the process pipe does.
+ */
+public class LineDecoderTest {
+
+  private final Queue<String> consoleLines = new ArrayBlockingQueue<>(3);
+  private final List<String> newLines = new ArrayList<>();
+  private final LineDecoder decoder = new LineDecoder(consoleLines, newLines::add);
+
+  @Test
+  public void decodesEveryLineOfAChunk() {
+    write("first\nsecond\n");
+    assertEquals(Arrays.asList("first\n", "second\n"), newLines);
+  }
+
+  @Test
+  public void joinsALineSplitAcrossChunks() {
+    byte[] output = bytes("starting\nserver is up\nstopped\n");
+    for (int i = 0; i < output.length; i += 5) {
+      decoder.write(output, i, Math.min(5, output.length - i));
+    }
+    assertEquals(Arrays.asList("starting\n", "server is up\n", "stopped\n"), newLines);
+  }
+
+  @Test
+  public void keepsTheEndOfAChunkUntilItsNewLineComes() {
+    write("no new line yet");
+    assertEquals(0, newLines.size());
+    write("\n");
+    assertEquals(Arrays.asList("no new line yet\n"), newLines);
+  }
+
+  @Test
+  public void joinsACharacterSplitAcrossChunks() {
+    // the e acute and the euro sign are 2 and 3 bytes long in UTF-8
+    byte[] output = bytes("caf\u00e9 3\u20ac\n");
+    for (int cut = 1; cut < output.length; cut++) {
+      newLines.clear();
+      decoder.write(output, 0, cut);
+      decoder.write(output, cut, output.length - cut);
+      assertEquals(Arrays.asList("caf\u00e9 3\u20ac\n"), newLines, "Cut at " + cut);
+    }
+  }
+
+  @Test
+  public void mixesSingleBytesAndChunks() {
+    byte[] output = bytes("ab\ncd\nef\n");
+    decoder.write(output[0]);
+    decoder.write(output, 1, 3);
+    decoder.write(output[4]);
+    decoder.write(output[5]);
+    decoder.write(output, 6, 2);
+    decoder.write(output[8]);
+    assertEquals(Arrays.asList("ab\n", "cd\n", "ef\n"), newLines);
+  }
+
+  @Test
+  public void growsForLinesLongerThanItsBuffers() {
+    char[] longLine = new char[1000];
+    Arrays.fill(longLine, 'x');
+    String line = new String(longLine) + "\n";
+    byte[] output = bytes(line);
+    decoder.write(output, 0, 300);
+    decoder.write(output, 300, output.length - 300);
+    assertEquals(Arrays.asList(line), newLines);
+  }
+
+  @Test
+  public void replacesMalformedBytes() {
+    decoder.write(new byte[]{'a', (byte) 0xff, 'b', '\n'}, 0, 4);
+    assertEquals(Arrays.asList("a\ufffdb\n"), newLines);
+  }
+
+  @Test
+  public void dropsTheOldestConsoleLinesWhenFull() {
+    write("1\n2\n3\n4\n5\n");
+    assertEquals(Arrays.asList("3\n", "4\n", "5\n"), new ArrayList<>(consoleLines));
+    assertEquals(5, newLines.size());
+  }
+
+  private void write(String output) {
+    byte[] bytes = bytes(output);
+    decoder.write(bytes, 0, bytes.length);
+  }
+
+  private static byte[] bytes(String output) {
+    return output.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lines of an output capture, as they roll over segments.
+ */
+public class OutputCaptureTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  public void numbersTheLinesCaptured() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    capture.append("first\n");
+    capture.append("second\r\n");
+    assertEquals(0, capture.firstLine());
+    assertEquals(2, capture.lineCount());
+    List<OutputCapture.Line> lines = capture.lines(0, 10);
+    assertEquals(Arrays.asList("first", "second"), texts(lines));
+    assertEquals(1, lines.get(1).getNumber());
+    assertTrue(lines.get(1).getTimestamp() > 0);
+    assertEquals(Arrays.asList("second"), texts(capture.lines(1, 10)));
+    assertEquals(Arrays.asList("first"), texts(capture.lines(0, 1)));
+  }
+
+  @Test
+  public void appendingLeavesTheBufferAsItWas() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    ByteBuffer line = ByteBuffer.wrap("line\n".getBytes(StandardCharsets.UTF_8));
+    capture.append(line);
+    assertEquals(0, line.position());
+    assertEquals(5, line.remaining());
+  }
+
+  @Test
+  public void rollsOverOnceASegmentHasAllItsLines() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    for (int i = 0; i <= OutputCapture.SEGMENT_LINES; i++) {
+      capture.append(i + "\n");
+    }
+    List<OutputCapture.Segment> segments = capture.segments();
+    assertEquals(2, segments.size());
+    assertEquals(OutputCapture.SEGMENT_LINES, segments.get(0).getLineCount());
+    assertEquals(OutputCapture.SEGMENT_LINES, segments.get(1).getFirstLine());
+    assertEquals(1, segments.get(1).getLineCount());
+  }
+
+  @Test
+  public void rollsOverOnceASegmentHasAllItsBytes() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    String line = line(OutputCapture.SEGMENT_BYTES / 4);
+    for (int i = 0; i < 5; i++) {
+      capture.append(line);
+    }
+    List<OutputCapture.Segment> segments = capture.segments();
+    assertEquals(2, segments.size());
+    assertEquals(4, segments.get(0).getLineCount());
+    assertEquals(1, segments.get(1).getLineCount());
+    assertEquals(line.length() - 1, capture.lines(4, 1).get(0).getText().length());
+  }
+
+  @Test
+  public void cutsLinesLongerThanASegment() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    capture.append("before\n");
+    capture.append(line(OutputCapture.SEGMENT_BYTES + 100));
+    capture.append("after\n");
+    List<OutputCapture.Segment> segments = capture.segments();
+    assertEquals(3, segments.size());
+    assertEquals(OutputCapture.SEGMENT_BYTES, segments.get(1).bytes(0).remaining());
+    assertEquals(Arrays.asList("before"), texts(capture.lines(0, 1)));
+    assertEquals(Arrays.asList("after"), texts(capture.lines(2, 1)));
+  }
+
+  @Test
+  public void startsANewSegmentAfterSealing() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    capture.append("first\n");
+    capture.seal();
+    File log = new File(directory, "segment-000000.log");
+    assertEquals(6, log.length());
+    capture.append("second\n");
+    List<OutputCapture.Segment> segments = capture.segments();
+    assertEquals(2, segments.size());
+    assertEquals(1, segments.get(1).getFirstLine());
+    assertEquals(Arrays.asList("first", "second"), texts(capture.lines(0, 10)));
+  }
+
+  @Test
+  public void readsLinesAcrossSegments() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    for (int i = 0; i < 9; i++) {
+      capture.append(i + "\n");
+      if (i % 3 == 2) {
+        capture.seal();
+      }
+    }
+    assertEquals(3, capture.segments().size());
+    assertEquals(Arrays.asList("2", "3", "4", "5", "6"), texts(capture.lines(2, 5)));
+    assertEquals(Arrays.asList("7", "8"), texts(capture.lines(7, 5)));
+    assertTrue(capture.lines(9, 5).isEmpty());
+  }
+
+  @Test
+  public void deletesTheOldestSegmentsPastTheMaximum() {
+    OutputCapture capture = new OutputCapture("server", directory);
+    for (int i = 0; i <= OutputCapture.MAX_SEGMENTS; i++) {
+      capture.append(i + "\n");
+      capture.seal();
+    }
+    List<OutputCapture.Segment> segments = capture.segments();
+    assertEquals(OutputCapture.MAX_SEGMENTS, segments.size());
+    assertEquals(1, capture.firstLine());
+    assertEquals(OutputCapture.MAX_SEGMENTS + 1, capture.lineCount());
+    assertFalse(new File(directory, "segment-000000.log").exists());
+    assertFalse(new File(directory, "segment-000000.idx").exists());
+    // lines that are gone are skipped
+    assertEquals(Arrays.asList("1", "2"), texts(capture.lines(0, 2)));
+  }
+
+  private static String line(int length) {
+    char[] chars = new char[length];
+    Arrays.fill(chars, 'x');
+    chars[length - 1] = '\n';
+    return new String(chars);
+  }
+
+  private static List<String> texts(List<OutputCapture.Line> lines) {
+    return lines.stream().map(OutputCapture.Line::getText).collect(Collectors.toList());
+  }
+}
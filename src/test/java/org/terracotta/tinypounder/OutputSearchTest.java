@@ -0,0 +1,131 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Literals required by a search, and searches of a few captures.
+ */
+public class OutputSearchTest {
+
+  @TempDir
+  File baseLocation;
+
+  private final OutputCaptures outputCaptures = new OutputCaptures();
+  private final OutputSearch outputSearch = new OutputSearch(outputCaptures);
+
+  @AfterEach
+  public void shutdown() {
+    outputSearch.shutdown();
+  }
+
+  @Test
+  public void requiresTheWholeTextOfALiteralSearch() {
+    assertEquals("a.b*(c)", OutputSearch.requiredLiteral("a.b*(c)", false));
+  }
+
+  @Test
+  public void requiresTheLongestLiteralRunOfARegex() {
+    assertEquals("Exception", OutputSearch.requiredLiteral("Exception", true));
+    assertEquals("connection refuse", OutputSearch.requiredLiteral("server.*connection refused?", true));
+    assertEquals("timeout after ", OutputSearch.requiredLiteral("timeout after \\d+ms", true));
+    assertEquals("Stripe", OutputSearch.requiredLiteral("Stripe[0-9]+ is up", true));
+  }
+
+  @Test
+  public void dropsTheCharactersARegexMakesOptional() {
+    assertEquals("colo", OutputSearch.requiredLiteral("colou?r", true));
+    assertEquals("passive", OutputSearch.requiredLiteral("a*passive", true));
+    assertEquals("retr", OutputSearch.requiredLiteral("retry{2,3}", true));
+  }
+
+  @Test
+  public void keepsEscapedCharacters() {
+    assertEquals("1.2.3", OutputSearch.requiredLiteral("1\\.2\\.3", true));
+  }
+
+  @Test
+  public void requiresNothingOfWhatItDoesNotParse() {
+    assertEquals("", OutputSearch.requiredLiteral("active|passive", true));
+    assertEquals("", OutputSearch.requiredLiteral("(?i)active", true));
+    assertEquals("", OutputSearch.requiredLiteral("(a)\\1", true));
+    assertEquals("", OutputSearch.requiredLiteral("\\Qa.b\\E", true));
+    assertEquals("", OutputSearch.requiredLiteral("(server)", true));
+  }
+
+  @Test
+  public void ranksErrorsFirst() throws Exception {
+    OutputCapture server = outputCaptures.start(baseLocation.getPath(), "server-1");
+    server.append("INFO connection to server-2 open\n");
+    server.append("ERROR connection to server-2 lost\n");
+    server.append("WARN connection to server-2 slow\n");
+    OutputSearch.Result result = outputSearch.search("CONNECTION", false, false, 10).get();
+    assertEquals(3, result.getMatchingLines());
+    assertEquals(Arrays.asList("ERROR connection to server-2 lost", "WARN connection to server-2 slow", "INFO connection to server-2 open"),
+        texts(result.getHits()));
+  }
+
+  @Test
+  public void ignoresTheCaseOfAsciiLettersOnly() throws Exception {
+    OutputCapture server = outputCaptures.start(baseLocation.getPath(), "server-1");
+    server.append("D\u00e9marrage du serveur\n");
+    assertEquals(1, outputSearch.search("D\u00e9MARRAGE", false, false, 10).get().getMatchingLines());
+    assertEquals(0, outputSearch.search("D\u00c9MARRAGE", false, false, 10).get().getMatchingLines());
+  }
+
+  @Test
+  public void skipsTheSegmentsThatCannotMatch() throws Exception {
+    OutputCapture server = outputCaptures.start(baseLocation.getPath(), "server-1");
+    server.append("server is starting\n");
+    server.seal();
+    server.append("server is up\n");
+    OutputCapture tool = outputCaptures.start(baseLocation.getPath(), "cluster-tool");
+    tool.append("cluster is up\n");
+    OutputSearch.Result result = outputSearch.search("is up", false, true, 10).get();
+    assertEquals(2, result.getMatchingLines());
+    assertEquals(2, result.getSearchedSegments());
+    assertEquals(1, result.getSkippedSegments());
+    assertEquals(Arrays.asList("cluster-tool", "server-1"),
+        result.getHits().stream().map(OutputSearch.Hit::getCaptureName).sorted().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void keepsTheBestHits() throws Exception {
+    OutputCapture server = outputCaptures.start(baseLocation.getPath(), "server-1");
+    for (int i = 0; i < 10; i++) {
+      server.append("line " + i + "\n");
+    }
+    server.append("line line line\n");
+    OutputSearch.Result result = outputSearch.search("l[a-z]ne", true, true, 2).get();
+    assertEquals(11, result.getMatchingLines());
+    assertEquals(2, result.getHits().size());
+    assertEquals("line line line", result.getHits().get(0).getLine().getText());
+  }
+
+  private static List<String> texts(List<OutputSearch.Hit> hits) {
+    return hits.stream().map(hit -> hit.getLine().getText()).collect(Collectors.toList());
+  }
+}
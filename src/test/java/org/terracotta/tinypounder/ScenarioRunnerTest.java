@@ -0,0 +1,119 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a scenario pounding heap, offheap and disk only caches, with the Ehcache of the test classpath as kit.
+ */
+@SpringJUnitConfig(ScenarioRunnerTest.Beans.class)
+@TestPropertySource(locations = "classpath:application.properties", properties = "scenario=" + ScenarioRunnerTest.SCENARIO)
+public class ScenarioRunnerTest {
+
+  static final String SCENARIO = "target/scenario-test/scenario.yaml";
+
+  @Autowired
+  private ScenarioRunner scenarioRunner;
+
+  @Test
+  public void writesTheResultsOfEveryCache() throws Exception {
+    Path directory = Paths.get(SCENARIO).getParent();
+    Files.createDirectories(directory);
+    Path results = directory.resolve("results.yaml");
+    Files.deleteIfExists(results);
+    Files.write(Paths.get(SCENARIO), Arrays.asList(
+        "name: tiers",
+        "cacheManager:",
+        "  diskPersistenceLocation: " + directory.resolve("disk").toAbsolutePath(),
+        "caches:",
+        "  - name: heap",
+        "    heap: 1000 ENTRIES",
+        "    intensity: 2",
+        "  - name: offheap",
+        "    offheap: 8 MB",
+        "    preload: {entries: 500, loaders: 2}",
+        "    workload: {operationMix: \"get:80,put:20\", keySpace: 500}",
+        "    rate: 500",
+        "  - name: disk",
+        "    disk: 16 MB",
+        "    workload: {operationMix: \"get:50,put:50\", keySpace: 100}",
+        "    clients: 2",
+        "    thinkTime: 5ms",
+        "ramp: 1s",
+        "duration: 3s",
+        "results: " + results.toAbsolutePath()), StandardCharsets.UTF_8);
+
+    scenarioRunner.run(null);
+
+    Map<String, Object> content;
+    try (Reader reader = Files.newBufferedReader(results, StandardCharsets.UTF_8)) {
+      content = new Yaml().load(reader);
+    }
+    assertEquals("tiers", content.get("scenario"));
+    assertNotNull(content.get("run"));
+    List<Map<String, Object>> caches = list(content.get("caches"));
+    assertEquals(Arrays.asList("heap", "offheap", "disk"), caches.stream().map(cache -> cache.get("name")).collect(Collectors.toList()));
+    for (Map<String, Object> cache : caches) {
+      assertTrue(((Number) cache.get("ops")).longValue() > 0, "No ops on " + cache);
+      assertTrue(!((Map<?, ?>) cache.get("latencies")).isEmpty(), "No latencies for " + cache);
+    }
+    assertEquals(500, ((Number) caches.get(1).get("requestedRate")).longValue());
+    assertTrue(((Map<?, ?>) caches.get(1).get("tiers")).containsKey("OffHeap"), "No offheap tier in " + caches.get(1));
+    assertTrue(((Map<?, ?>) caches.get(2).get("tiers")).containsKey("Disk"), "No disk tier in " + caches.get(2));
+    assertTrue(list(content.get("datasets")).isEmpty());
+    assertEquals(0, scenarioRunner.getExitCode());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> list(Object yaml) {
+    return (List<Map<String, Object>>) yaml;
+  }
+
+  @Configuration
+  @Import({Settings.class, KitAwareClassLoaderDelegator.class, PoundingEngine.class, PayloadPool.class, CacheManagerBusinessReflectionImpl.class,
+      DatasetManagerBusinessReflectionImpl.class, PoundingSnapshots.class, RunHistory.class, ScenarioRunner.class})
+  static class Beans {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService scheduledExecutorService() {
+      return Executors.newScheduledThreadPool(2);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tinypounder;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Trigrams of a segment filter, ASCII letters whatever their case.
+ */
+public class TrigramFilterTest {
+
+  private final TrigramFilter filter = new TrigramFilter();
+
+  @Test
+  public void mightContainTheTrigramsOfTheLinesAdded() {
+    add("Server is up\n");
+    assertTrue(filter.mightContainAll(trigrams("Server")));
+    assertTrue(filter.mightContainAll(trigrams("is up")));
+    assertFalse(filter.mightContainAll(trigrams("is down")));
+  }
+
+  @Test
+  public void ignoresTheCaseOfAsciiLetters() {
+    add("Server is UP\n");
+    assertTrue(filter.mightContainAll(trigrams("SERVER IS up")));
+    assertArrayEquals(trigrams("server"), trigrams("SeRvEr"));
+  }
+
+  @Test
+  public void keepsTheCaseOfOtherCharacters() {
+    add("\u00c9tat\n");
+    assertTrue(filter.mightContainAll(trigrams("\u00c9tat")));
+    assertFalse(filter.mightContainAll(trigrams("\u00e9tat")));
+  }
+
+  @Test
+  public void doesNotMixTrigramsAcrossLines() {
+    add("abc\n");
+    add("xyz\n");
+    assertFalse(filter.mightContainAll(trigrams("bcx")));
+  }
+
+  @Test
+  public void emptyAndShortTextsHaveNoTrigrams() {
+    assertEquals(0, trigrams("").length);
+    assertEquals(0, trigrams("ab").length);
+    // so that an empty filter might contain them
+    assertTrue(filter.mightContainAll(trigrams("ab")));
+  }
+
+  @Test
+  public void givesDistinctTrigrams() {
+    assertEquals(1, trigrams("aaaaaa").length);
+    assertEquals(2, trigrams("abab").length);
+  }
+
+  @Test
+  public void addingLeavesTheBufferAsItWas() {
+    ByteBuffer bytes = ByteBuffer.wrap("line\n".getBytes(StandardCharsets.UTF_8));
+    bytes.position(1);
+    filter.add(bytes);
+    assertEquals(1, bytes.position());
+    assertTrue(filter.mightContainAll(trigrams("ine")));
+    assertFalse(filter.mightContainAll(trigrams("lin")));
+  }
+
+  private void add(String line) {
+    filter.add(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static int[] trigrams(String text) {
+    return TrigramFilter.trigrams(text.getBytes(StandardCharsets.UTF_8));
+  }
+}